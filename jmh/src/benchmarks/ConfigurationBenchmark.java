@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import cellsociety_team08.CellManagerFactory;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import cellsociety_team08.XMLProcessor;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Measures updateAllCells on one of the shipped configuration files, with its random grid scaled
+ * up to the given size. Running it with the gc profiler reports the allocation and garbage
+ * collection rates of the model's rules, which dominate once the grid is large
+ *
+ * Usage: java -jar jmh/target/benchmarks.jar ConfigurationBenchmark -prof gc
+ * -p configFile=xml/random_predatorprey100x100.xml -p size=2000
+ *
+ * The configuration file is read relative to the directory the benchmark is started from
+ *
+ * @author David Maydew
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConfigurationBenchmark {
+
+    @Param({ "xml/random_predatorprey100x100.xml" })
+    private String configFile;
+
+    @Param({ "2000" })
+    private int size;
+
+    @Param({ "1" })
+    private String numThreads;
+
+    private ICellManager myCellManager;
+
+    @Setup
+    public void createCellManager () throws SimulationException {
+        Configuration config = new XMLProcessor().parse(new File(configFile));
+        config.setRandomStates(true);
+        config.setRandomWidth(size);
+        config.setRandomHeight(size);
+        config.setStyleOverride("NumThreads", numThreads);
+        myCellManager = new CellManagerFactory().createCellManager(config);
+    }
+
+    @TearDown
+    public void closeCellManager () {
+        myCellManager.close();
+    }
+
+    @Benchmark
+    public int updateAllCells () {
+        myCellManager.updateAllCells();
+        return myCellManager.getNumChangedCells();
+    }
+}
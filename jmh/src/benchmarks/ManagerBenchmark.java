@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import cellsociety_team08.CellManagerFactory;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import simulation_managers.ICellManager;
+import states.CellColor;
+import states.IState;
+
+
+/**
+ * Measures the public operations of every simulation manager on a randomly filled square grid,
+ * with each engine selected through the [SimulationType]Engine style property, where Cell is the
+ * cell-based manager. A combination without a manager, such as Segregation with the Bitboard
+ * engine or HashLife with fewer than 8 neighbors, fails in setup and is reported as an error
+ * before JMH moves on to the next one. The model keeps evolving from one invocation of
+ * updateAllCells to the next, as it does when a simulation runs, so models that die out (Fire in
+ * particular) settle into their quiet state. areAllCellsStable is measured on a model stepped
+ * once before every invocation, since a manager answers it again from the next states it cached
+ * the first time. Adding -prof gc reports the bytes allocated per step of each model
+ *
+ * Usage: java -jar jmh/target/benchmarks.jar ManagerBenchmark -p simulationType=GameOfLife
+ * -p engine=Cell,Bitboard,HashLife -p size=500 -rf json -rff out.json
+ *
+ * @author David Maydew
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManagerBenchmark {
+
+    @Param({ "GameOfLife", "Fire", "Segregation", "Wator", "SugarscapeBasic",
+             "SugarscapeAdvanced", "ForagingAnts" })
+    private String simulationType;
+
+    @Param({ "Cell", "Array", "Bitboard", "HashLife" })
+    private String engine;
+
+    @Param({ "50", "500", "4000" })
+    private int size;
+
+    @Param({ "Finite", "Toroidal" })
+    private String gridEdge;
+
+    @Param({ "4", "6", "8" })
+    private String numNeighbors;
+
+    @Param({ "1" })
+    private String numThreads;
+
+    private ICellManager myCellManager;
+
+    @Setup
+    public void createCellManager () throws SimulationException {
+        Configuration config = new Configuration();
+        config.setSimulationType(simulationType);
+        config.setRandomStates(true);
+        config.setRandomWidth(size);
+        config.setRandomHeight(size);
+        config.setStyleOverride("GridEdge", gridEdge);
+        config.setStyleOverride("NumNeighborsConsidered", numNeighbors);
+        config.setStyleOverride("NumThreads", numThreads);
+        config.setStyleOverride(simulationType + "Engine", engine.equals("Cell") ? "" : engine);
+        myCellManager = new CellManagerFactory().createCellManager(config);
+    }
+
+    @TearDown
+    public void closeCellManager () {
+        myCellManager.close();
+    }
+
+    @Benchmark
+    public int updateAllCells () {
+        myCellManager.updateAllCells();
+        return myCellManager.getNumChangedCells();
+    }
+
+    /**
+     * Steps the model before every invocation of areAllCellsStable, so that each one finds the
+     * next states of a new step still to be calculated
+     */
+    @State(Scope.Benchmark)
+    public static class SteppedModel {
+        @Setup(Level.Invocation)
+        public void step (ManagerBenchmark benchmark) {
+            benchmark.myCellManager.updateAllCells();
+        }
+    }
+
+    @Benchmark
+    public boolean areAllCellsStable (SteppedModel model) {
+        return myCellManager.areAllCellsStable();
+    }
+
+    @Benchmark
+    public List<List<IState>> getAllStates () {
+        return myCellManager.getAllStates();
+    }
+
+    @Benchmark
+    public List<List<CellColor>> getAllCellColors () {
+        return myCellManager.getAllCellColors();
+    }
+}
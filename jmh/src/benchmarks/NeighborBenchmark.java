@@ -0,0 +1,108 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import grid_displays.Position;
+import grids.CellGrid;
+import grids.FiniteGrid;
+import grids.FlatCellStorage;
+import grids.NeighborTable;
+import grids.Neighborhood;
+import grids.ToroidalGrid;
+import simulation_cells.GameOfLifeCell;
+import states.GameOfLifeState;
+
+
+/**
+ * Measures one pass of neighbor lookups over every cell of a square grid: building a fresh list
+ * with CellGrid.getNeighbors, building a fresh set from that list as managers used to, and moving
+ * a single Neighborhood view over the precomputed neighbor table as they do now. The neighbor
+ * lookup depends only on the grid, so every manager shares the cost measured here. Running it
+ * with the gc profiler reports the bytes each pass allocates, as gc.alloc.rate.norm
+ *
+ * Usage: java -jar jmh/target/benchmarks.jar NeighborBenchmark -prof gc -rf json -rff out.json
+ *
+ * @author David Maydew
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NeighborBenchmark {
+
+    @Param({ "50", "500", "4000" })
+    private int size;
+
+    @Param({ "Finite", "Toroidal" })
+    private String gridEdge;
+
+    @Param({ "4", "6", "8" })
+    private int numNeighbors;
+
+    private CellGrid<GameOfLifeCell> myCellGrid;
+    private Neighborhood<GameOfLifeCell> myNeighborhood;
+
+    @Setup
+    public void createCellGrid () {
+        List<List<GameOfLifeCell>> cells = new ArrayList<List<GameOfLifeCell>>(size);
+        for (int x = 0; x < size; x++) {
+            List<GameOfLifeCell> cellRow = new ArrayList<GameOfLifeCell>(size);
+            for (int y = 0; y < size; y++) {
+                cellRow.add(new GameOfLifeCell(GameOfLifeState.DEAD));
+            }
+            cells.add(cellRow);
+        }
+        FlatCellStorage<GameOfLifeCell> storage = new FlatCellStorage<GameOfLifeCell>(cells);
+        if (gridEdge.equals("Finite")) {
+            myCellGrid = new FiniteGrid<GameOfLifeCell>(storage);
+        }
+        else {
+            myCellGrid = new ToroidalGrid<GameOfLifeCell>(storage);
+        }
+        NeighborTable neighborTable = myCellGrid.getNeighborTable(numNeighbors, 1, true);
+        myNeighborhood = new Neighborhood<GameOfLifeCell>(myCellGrid, neighborTable);
+    }
+
+    @Benchmark
+    public void getNeighbors (Blackhole blackhole) {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                blackhole.consume(myCellGrid.getNeighbors(new Position(x, y), numNeighbors, 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getNeighborSets (Blackhole blackhole) {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                blackhole.consume(new HashSet<GameOfLifeCell>(myCellGrid
+                        .getNeighbors(new Position(x, y), numNeighbors, 1)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void moveNeighborhood (Blackhole blackhole) {
+        for (int index = 0; index < myCellGrid.getNumCells(); index++) {
+            blackhole.consume(myNeighborhood.moveTo(index));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package cellsociety_team08;
+
+import java.util.ResourceBundle;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Creates the back-end model for a configuration, without depending on any part of the user
+ * interface, so that it can be shared by the JavaFX simulation and the headless runner
+ *
+ * @author David Maydew
+ *
+ */
+public class CellManagerFactory {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    /**
+     * Dynamic instantiation of CellManager using Reflection. An optional [SimulationType]Engine
+     * style property selects an alternative engine, e.g. GameOfLifeEngine=Bitboard creates a
+     * GameOfLifeBitboardManager
+     *
+     * @param config of the simulation to be modeled
+     * @return an initialized model of the simulation
+     * @throws SimulationException if there is no manager for the simulation type, or the
+     *         configuration contains invalid data for it
+     */
+    public ICellManager createCellManager (Configuration config) throws SimulationException {
+        String engineKey = config.getSimulationType() + "Engine";
+        String engine = "";
+        if (config.hasStyle(engineKey)) {
+            engine = config.getStyle(engineKey);
+        }
+        ICellManager cellManager = null;
+        try {
+            Class<?> cellManagerClass = Class.forName("simulation_managers." +
+                                                      config.getSimulationType() + engine +
+                                                      "Manager");
+            cellManager = (ICellManager)cellManagerClass.newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new SimulationException(myErrorResources.getString("InvalidSimulation"), e);
+        }
+        cellManager.initialize(config);
+        return cellManager;
+    }
+}
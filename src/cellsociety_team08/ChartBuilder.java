@@ -2,15 +2,14 @@ package cellsociety_team08;
 
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
 import simulation_managers.ICellManager;
+import states.CellColor;
 import states.IState;
 
 /**
@@ -24,12 +23,12 @@ public class ChartBuilder extends SimulationBuilder {
     private static final int RGB_CONST = 255;
     
     private ICellManager myCellManager;
+    private IState[] myCellStates;
     private LineChart myLineChart;
     private Map<String, Integer> myMap;
     private Map<String, XYChart.Series> mySeriesMap;
-    private Map<String, Color> myColorMap;
+    private Map<String, CellColor> myColorMap;
     private Set<String> myStates;
-    private int myTimeCount = 0;
     
     /**
      * Constructor
@@ -74,33 +73,27 @@ public class ChartBuilder extends SimulationBuilder {
         mySeriesMap = new HashMap();
         myStates = new HashSet();
         myColorMap = new HashMap();
-        getCounts();
+        myCellStates = myCellManager.getStates();
+        int[] stateCounts = new int[myCellStates.length];
+        myCellManager.countStates(stateCounts);
+        readCounts(stateCounts);
         for (String state : myStates) {
             createSeries(state);
         }
     }
 
     /**
-     * Calculates the count of states
+     * Reads the count of states, skipping the states no cell is in
      * 
      */
-    private void getCounts () {
-        List<List<IState>> cellStates = myCellManager.getAllStates();
-        Map<IState, Integer> countMap = new HashMap();
-
-        for (List<IState> row : cellStates) {
-            for (IState col : row) {
-                if (countMap.containsKey(col)) {
-                    countMap.merge(col, 2, (v, vv) -> ++v);
-                }
-                else {
-                    countMap.put(col, 1);
-                }
-            }
-        }
+    private void readCounts (int[] stateCounts) {
         myMap = new HashMap();
-        for (IState state : countMap.keySet()) {
-            myMap.put(state.toString(), countMap.get(state));
+        for (int i = 0; i < myCellStates.length; i++) {
+            if (stateCounts[i] == 0) {
+                continue;
+            }
+            IState state = myCellStates[i];
+            myMap.put(state.toString(), stateCounts[i]);
             myStates.add(state.toString());
             myColorMap.put(state.toString(), state.getColor());
         }
@@ -109,13 +102,15 @@ public class ChartBuilder extends SimulationBuilder {
     /**
      * A function that can be called outside this class
      * that updates the chart
+     *
+     * @param stateCounts number of cells in each state, counted by the model's countStates
+     * @param step generation of the model that was counted
      */
-    public void updateChart () {
-        getCounts();
+    public void updateChart (int[] stateCounts, long step) {
+        readCounts(stateCounts);
         for (String state : myStates) {
-            addData(state, mySeriesMap.get(state));
+            addData(state, mySeriesMap.get(state), step);
         }
-        incrementTime();
     }
 
     /**
@@ -137,15 +132,16 @@ public class ChartBuilder extends SimulationBuilder {
      * 
      * @param state
      * @param mySeries
+     * @param step
      */
-    private void addData (String state, XYChart.Series mySeries) {
+    private void addData (String state, XYChart.Series mySeries, long step) {
         if (mySeries == null) {
             mySeries = createSeries(state);
         }
         if (!myMap.containsKey(state)) {
             myMap.put(state, 0);
         }
-        mySeries.getData().add(new XYChart.Data(myTimeCount, myMap.get(state)));
+        mySeries.getData().add(new XYChart.Data(step, myMap.get(state)));
     }
 
     private LineChart getChart () {
@@ -160,10 +156,6 @@ public class ChartBuilder extends SimulationBuilder {
         return mySeriesMap;
     }
 
-    private void incrementTime () {
-        myTimeCount++;
-    }
-
     /**
      * Private method that converts Color object to
      * its corresponding hexademical value
@@ -171,7 +163,7 @@ public class ChartBuilder extends SimulationBuilder {
      * @param color
      * @return
      */
-    private String toHex (Color color) {
+    private String toHex (CellColor color) {
         String hex = String.format("#%02X%02X%02X",
                                    (int) (color.getRed() * RGB_CONST),
                                    (int) (color.getGreen() * RGB_CONST),
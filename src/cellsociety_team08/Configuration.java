@@ -18,6 +18,9 @@ public class Configuration {
     private String myAuthorName;
     private ResourceBundle myErrorResources =
             ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+    private ResourceBundle myStyleResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "style");
+    private final Map<String, String> myStyleOverrides = new HashMap<String, String>();
 
     private final Map<String, Number> myParameters = new HashMap<String, Number>();
     private List<List<Integer>> myInitialStates;
@@ -115,6 +118,35 @@ public class Configuration {
         }
     }
 
+    /**
+     * Gets a style property, preferring a value overridden for this configuration to the one in
+     * the style resource file
+     * 
+     * @param key name of the style property
+     * @return value of the style property
+     */
+    public String getStyle (String key) {
+        if (myStyleOverrides.containsKey(key)) {
+            return myStyleOverrides.get(key);
+        }
+        return myStyleResources.getString(key);
+    }
+
+    public boolean hasStyle (String key) {
+        return myStyleOverrides.containsKey(key) || myStyleResources.containsKey(key);
+    }
+
+    /**
+     * Overrides a style property for this configuration only, e.g. to change the number of
+     * threads from the command line
+     * 
+     * @param key name of the style property
+     * @param value to be used instead of the one in the style resource file
+     */
+    public void setStyleOverride (String key, String value) {
+        myStyleOverrides.put(key, value);
+    }
+
     public boolean isRandomStates () {
         return myRandomStates;
     }
@@ -0,0 +1,132 @@
+package cellsociety_team08;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import simulation_cells.RandomStreams;
+import simulation_managers.ICellManager;
+import states.IState;
+
+
+/**
+ * Runs a simulation without a display, for servers and batch jobs. Loads the configuration, steps
+ * the model as fast as possible and prints a summary of the cell states every so often, stopping
+ * early once the model has ended, as the display would
+ *
+ * Usage: java -cp ... cellsociety_team08.HeadlessRunner config.xml [--steps N] [--threads T]
+ * [--every K] [--seed S]
+ *
+ * Runs with the same seed, whether from the option or the configuration, produce the same
+ * results for any number of threads
+ *
+ * @author David Maydew
+ *
+ */
+public class HeadlessRunner {
+    private static final String USAGE =
+            "Usage: HeadlessRunner config.xml [--steps N] [--threads T] [--every K] [--seed S]";
+    private static final int DEFAULT_STEPS = 1000;
+    private static final int NUM_SUMMARIES = 10;
+
+    private int mySteps = DEFAULT_STEPS;
+    private int mySummaryInterval;
+    private Configuration myConfiguration;
+
+    public static void main (String[] args) {
+        HeadlessRunner runner = new HeadlessRunner();
+        try {
+            runner.readArguments(args);
+            runner.run();
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        catch (SimulationException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the arguments do not match the usage
+     */
+    private void readArguments (String[] args) throws SimulationException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            throw new IllegalArgumentException();
+        }
+        myConfiguration = new XMLProcessor().parse(new File(args[0]));
+        for (int i = 1; i < args.length; i += 2) {
+            String value = args[i + 1];
+            if (args[i].equals("--steps")) {
+                mySteps = Integer.parseInt(value);
+            }
+            else if (args[i].equals("--threads")) {
+                myConfiguration.setStyleOverride("NumThreads", value);
+            }
+            else if (args[i].equals("--every")) {
+                mySummaryInterval = Integer.parseInt(value);
+            }
+            else if (args[i].equals("--seed")) {
+                myConfiguration.getParametersMap().put(RandomStreams.SEED_KEY,
+                                                       Long.parseLong(value));
+            }
+            else {
+                throw new IllegalArgumentException();
+            }
+        }
+        if (mySummaryInterval <= 0) {
+            mySummaryInterval = Math.max(1, mySteps / NUM_SUMMARIES);
+        }
+    }
+
+    private void run () throws SimulationException {
+        ICellManager cellManager = new CellManagerFactory().createCellManager(myConfiguration);
+        System.out.println(myConfiguration.getSimulationType() + " " + cellManager.getMaxX() +
+                           "x" + cellManager.getMaxY());
+        printSummary(0, cellManager, 0);
+        try {
+            runSteps(cellManager);
+        }
+        finally {
+            cellManager.close();
+        }
+    }
+
+    private void runSteps (ICellManager cellManager) {
+        long startTime = System.nanoTime();
+        for (int step = 1; step <= mySteps; step++) {
+            cellManager.updateAllCells();
+            boolean stable = cellManager.endsWhenUnchanged() ? cellManager.getNumChangedCells() == 0
+                                                             : cellManager.areAllCellsStable();
+            if (stable || step % mySummaryInterval == 0 || step == mySteps) {
+                long now = System.nanoTime();
+                int numSteps = (step - 1) % mySummaryInterval + 1;
+                printSummary(step, cellManager, (now - startTime) / 1e6 / numSteps);
+                startTime = System.nanoTime();
+            }
+            if (stable) {
+                System.out.println("Stable after step " + step);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prints the step, the mean time per step since the last summary, the number of cells changed
+     * by the last step and the number of cells in each state
+     */
+    private void printSummary (int step, ICellManager cellManager, double millisPerStep) {
+        IState[] states = cellManager.getStates();
+        int[] counts = new int[states.length];
+        cellManager.countStates(counts);
+        Map<String, Integer> stateCounts = new TreeMap<String, Integer>();
+        for (int i = 0; i < states.length; i++) {
+            if (counts[i] > 0) {
+                stateCounts.put(states[i].toString(), counts[i]);
+            }
+        }
+        System.out.printf("step %d: %.2f ms/step, %d changed, %s%n", step, millisPerStep,
+                          cellManager.getNumChangedCells(), stateCounts);
+    }
+}
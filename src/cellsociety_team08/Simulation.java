@@ -3,30 +3,32 @@ package cellsociety_team08;
 import java.io.File;
 import java.util.ResourceBundle;
 import grid_displays.GridDisplay;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import grid_displays.GridSnapshot;
+import javafx.animation.AnimationTimer;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Region;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 import simulation_managers.ICellManager;
 
 
 /**
  * Center class that houses both front-end and back-end
- * that runs Animation
+ * that runs Animation. The model is stepped by a SimulationRunner on its own thread, and the
+ * latest snapshot it publishes is drawn once per frame of the display
  *
  */
 public class Simulation {
     public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
-    private static final int FRAMES_PER_SECOND = 1;
-    private static final int MILLISECOND_DELAY = 1000 / FRAMES_PER_SECOND;
+    private static final double STEPS_PER_SECOND = 1;
+    // above this, speeding up steps as fast as possible
+    private static final double MAX_STEPS_PER_SECOND = 1024;
     private static final double GRID_SIZE = 500;
-    private static final int SPEEDCONTROL = 1;
+    private static final int SPEEDCONTROL = 2;
+    // fraction of the screen the view moves by
+    private static final double PANCONTROL = 0.25;
 
     private ResourceBundle myStyleResources;
     private ResourceBundle myResources;
@@ -35,7 +37,9 @@ public class Simulation {
     private Stage mySimulationStage;
     private Scene myScene;
     private String myLanguage;
-    private Timeline myAnimation;
+    private SimulationRunner myRunner;
+    private AnimationTimer myRenderLoop;
+    private long myLastStepShown;
     private ICellManager myCellManager;
     private GridDisplay myGridDisplay;
     private WindowBuilder myWindowBuilder;
@@ -58,18 +62,24 @@ public class Simulation {
         try {
             Configuration config = parseXML();
             myGridDisplay = createGridDisplay();
-            myCellManager = createCellManager(config);
-            myCellManager.initialize(config);
-            myGridDisplay.initialize(config, myCellManager);
+            myCellManager = new CellManagerFactory().createCellManager(config);
+            initializeGridDisplay(config);
             Region simulationGrid = myGridDisplay.getDisplay();
             myWindowBuilder = new WindowBuilder(this, getLanguage());
             myChartBuilder = new ChartBuilder(this, getLanguage(), getCellManager());
             buildSimulation(config.getSimulationType(), simulationGrid);
-            myAnimation = new Timeline();
-            KeyFrame frame = new KeyFrame(Duration.millis(MILLISECOND_DELAY),
-                                          e -> update());
-            myAnimation.setCycleCount(Animation.INDEFINITE);
-            myAnimation.getKeyFrames().add(frame);
+            double repaintThreshold = Double.parseDouble(config.getStyle("RepaintThreshold"));
+            myRunner = new SimulationRunner(myCellManager,
+                                            myGridDisplay.createPicture(repaintThreshold),
+                                            STEPS_PER_SECOND);
+            myLastStepShown = -1;
+            myRenderLoop = new AnimationTimer() {
+                @Override
+                public void handle (long now) {
+                    update();
+                }
+            };
+            myRenderLoop.start();
         }
         catch (SimulationException e) {
             showError(e.getMessage());
@@ -78,26 +88,21 @@ public class Simulation {
     }
 
     /**
-     * Dynamic instantiation of CellManager using Reflection
+     * Shows the model in the grid display, closing the model if the display cannot show it
      * 
      * @param config
-     * @return
      * @throws SimulationException
      */
-    private ICellManager createCellManager (Configuration config) throws SimulationException {
-        Class<?> cellManagerClass;
-        ICellManager cellManager = null;
+    private void initializeGridDisplay (Configuration config) throws SimulationException {
         try {
-            cellManagerClass = Class.forName("simulation_managers." +
-                                             config.getSimulationType() + "Manager");
-            cellManager = (ICellManager)cellManagerClass.newInstance();
+            myGridDisplay.initialize(config, myCellManager);
         }
-        catch (ReflectiveOperationException e) {
-            throw new SimulationException(myErrorResources.getString("InvalidSimulation"), e);
+        catch (SimulationException e) {
+            myCellManager.close();
+            throw e;
         }
-        return cellManager;
     }
-    
+
     /**
      * Dynamic instantiation of GridDisplay using Reflection
      * 
@@ -149,14 +154,22 @@ public class Simulation {
     }
 
     /**
-     * Calls update mandated by Timeline
+     * Called every frame of the display to draw the latest snapshot of the model, if there is a
+     * new one. Snapshots that only redraw a step already shown, after the view was moved or
+     * zoomed, are not charted or checked for the end again
      * 
      */
     private void update () {
-        checkEndOfSimulation();
-        getCellManager().updateAllCells();
-        getGridDisplay().updateGridDisplay();
-        getChartBuilder().updateChart();
+        GridSnapshot snapshot = getRunner().takeLatestSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        getGridDisplay().showSnapshot(snapshot);
+        if (snapshot.getStep() > myLastStepShown) {
+            myLastStepShown = snapshot.getStep();
+            getChartBuilder().updateChart(snapshot.getStateCounts(), snapshot.getStep());
+            checkEndOfSimulation(snapshot);
+        }
     }
     
     /**
@@ -181,42 +194,79 @@ public class Simulation {
     }
 
     public void startSimulation () {
-        getTimeline().play();
+        getRunner().start();
     }
 
     public void stopSimulation () {
-        getTimeline().stop();
+        getRunner().stop();
     }
 
     public void stepSimulation () {
-        getTimeline().stop();
-        update();
+        getRunner().step();
     }
 
     public void resetSimulation () {
-        getTimeline().stop();
+        getRunner().close();
+        myRenderLoop.stop();
         getSimulationStage().hide();
         initialize();
     }
 
+    /**
+     * Multiplies the number of steps per second, until the model steps as fast as it can
+     * 
+     */
     public void speedUp () {
-        getTimeline().stop();
-        getTimeline().setRate(getTimeline().getRate() + SPEEDCONTROL);
-        getTimeline().play();
+        double stepsPerSecond = getRunner().getStepsPerSecond();
+        if (stepsPerSecond > 0) {
+            stepsPerSecond *= SPEEDCONTROL;
+            getRunner().setStepsPerSecond(stepsPerSecond > MAX_STEPS_PER_SECOND ? 0
+                                                                                : stepsPerSecond);
+        }
     }
 
+    /**
+     * Divides the number of steps per second, down to the starting rate
+     * 
+     */
     public void speedDown () {
-        getTimeline().stop();
-        double newRate = getTimeline().getRate() - SPEEDCONTROL;
-        if (newRate > 0) {
-            getTimeline().setRate(newRate);
+        double stepsPerSecond = getRunner().getStepsPerSecond();
+        if (stepsPerSecond <= 0) {
+            getRunner().setStepsPerSecond(MAX_STEPS_PER_SECOND);
+        }
+        else {
+            getRunner().setStepsPerSecond(Math.max(STEPS_PER_SECOND,
+                                                   stepsPerSecond / SPEEDCONTROL));
         }
-        getTimeline().play();
     }
 
-    public void checkEndOfSimulation () {
-        if (myCellManager.areAllCellsStable()) {
-            getTimeline().stop();
+    /**
+     * Moves the view of the grid, if the display shows only part of it
+     * 
+     * @param down number of steps to move down by, or up if negative
+     * @param right number of steps to move right by, or left if negative
+     */
+    public void moveView (int down, int right) {
+        getRunner().moveView(down * PANCONTROL, right * PANCONTROL);
+    }
+
+    /**
+     * Zooms the view of the grid, if the display can be zoomed
+     * 
+     * @param levels number of times to double the size of each cell, or halve it if negative
+     */
+    public void zoomView (int levels) {
+        getRunner().zoomView(levels);
+    }
+
+    /**
+     * Ends the simulation once the runner finds that the model has ended. The runner stops itself
+     * after such a step, so this only tells the user
+     * 
+     * @param snapshot latest snapshot of the model
+     */
+    public void checkEndOfSimulation (GridSnapshot snapshot) {
+        if (snapshot.hasEnded()) {
             displayEndMessage();
         }
     }
@@ -257,8 +307,8 @@ public class Simulation {
         return myWindowBuilder;
     }
 
-    public Timeline getTimeline () {
-        return myAnimation;
+    public SimulationRunner getRunner () {
+        return myRunner;
     }
 
     public String getLanguage () {
@@ -0,0 +1,255 @@
+package cellsociety_team08;
+
+import java.util.concurrent.TimeUnit;
+import grid_displays.GridSnapshot;
+import grid_displays.IGridPicture;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Steps a model on its own thread, either as fast as it can or at a target number of steps per
+ * second, so that a slow model never stalls the user interface. After each step the picture of
+ * the model is brought up to date, and whenever the display has taken the last snapshot a new one
+ * is filled from the picture and published through a triple buffer. The display then shows the
+ * latest snapshot at its own refresh rate, skipping the generations in between
+ *
+ * The model and the picture must only be touched by this thread once the runner is created,
+ * except for moving and zooming the picture's view through the runner
+ *
+ * @author David Maydew
+ *
+ */
+public class SimulationRunner implements Runnable {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final ICellManager myCellManager;
+    private final IGridPicture myPicture;
+    private final TripleBuffer<GridSnapshot> mySnapshots;
+    private final Thread myThread;
+    private boolean myHasUnpublishedStep;
+    private long myStep;
+    private boolean myEnded;
+    private boolean myRunning;
+    private int myRequestedSteps;
+    private boolean myRedrawRequested;
+    private boolean myClosed;
+    private double myStepsPerSecond;
+    private long myNextStepTime;
+
+    /**
+     * Creates the thread for a model, which publishes a snapshot of the model as it is and then
+     * waits until it is asked to step
+     *
+     * @param cellManager model to be stepped
+     * @param picture picture of the model that snapshots are filled from
+     * @param stepsPerSecond target number of steps per second, or 0 to step as fast as possible
+     */
+    public SimulationRunner (ICellManager cellManager,
+                             IGridPicture picture,
+                             double stepsPerSecond) {
+        myCellManager = cellManager;
+        myPicture = picture;
+        myStepsPerSecond = stepsPerSecond;
+        mySnapshots = new TripleBuffer<GridSnapshot>(picture.createSnapshot(),
+                                                     picture.createSnapshot(),
+                                                     picture.createSnapshot());
+        myThread = new Thread(this, "SimulationRunner");
+        myThread.setDaemon(true);
+        myThread.start();
+    }
+
+    @Override
+    public void run () {
+        myPicture.drawAll();
+        publishSnapshot(true);
+        try {
+            while (awaitWork()) {
+                if (takeRedrawRequest()) {
+                    publishSnapshot(true);
+                }
+                if (takeStep()) {
+                    runStep();
+                }
+                if (myHasUnpublishedStep && (!mySnapshots.hasUnread() || !isRunning())) {
+                    publishSnapshot(false);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            // closed while waiting
+        }
+        finally {
+            myCellManager.close();
+        }
+    }
+
+    /**
+     * Waits until a step is due, the picture must be redrawn, or the last step must be published
+     * because the runner has stopped
+     *
+     * @return false if the runner has been closed
+     */
+    private synchronized boolean awaitWork () throws InterruptedException {
+        while (!myClosed && !myRedrawRequested && !isStepDue() &&
+               (myRunning || !myHasUnpublishedStep)) {
+            if (myRunning) {
+                TimeUnit.NANOSECONDS.timedWait(this, myNextStepTime - System.nanoTime());
+            }
+            else {
+                wait();
+            }
+        }
+        return !myClosed;
+    }
+
+    private boolean isStepDue () {
+        return myRequestedSteps > 0 ||
+               myRunning && (myStepsPerSecond <= 0 || System.nanoTime() >= myNextStepTime);
+    }
+
+    /**
+     * @return whether to step now, in which case the next step is scheduled at the target rate
+     */
+    private synchronized boolean takeStep () {
+        if (myRequestedSteps > 0) {
+            myRequestedSteps--;
+            return true;
+        }
+        if (!isStepDue()) {
+            return false;
+        }
+        if (myStepsPerSecond > 0) {
+            myNextStepTime = Math.max(myNextStepTime + (long)(NANOS_PER_SECOND / myStepsPerSecond),
+                                      System.nanoTime());
+        }
+        return true;
+    }
+
+    private synchronized boolean takeRedrawRequest () {
+        boolean requested = myRedrawRequested;
+        myRedrawRequested = false;
+        return requested;
+    }
+
+    /**
+     * Steps the model and brings the picture up to date. Stops once the model has ended, which is
+     * when a step changes no cells unless the model has its own stability check
+     */
+    private void runStep () {
+        myCellManager.updateAllCells();
+        myStep++;
+        myPicture.update();
+        myHasUnpublishedStep = true;
+        myEnded = myCellManager.endsWhenUnchanged() ? myCellManager.getNumChangedCells() == 0
+                                                    : myCellManager.areAllCellsStable();
+        if (myEnded) {
+            stop();
+        }
+    }
+
+    /**
+     * Fills the back snapshot from the picture and publishes it. If the display has not taken the
+     * snapshot this one replaces, it never sees that snapshot's changes, so the whole picture is
+     * marked to be repainted
+     *
+     * @param repaintAll whether the whole picture must be repainted anyway
+     */
+    private void publishSnapshot (boolean repaintAll) {
+        GridSnapshot snapshot = mySnapshots.getBack();
+        myPicture.fillSnapshot(snapshot, repaintAll || mySnapshots.hasUnread());
+        snapshot.setStep(myStep);
+        snapshot.setNumChangedCells(myCellManager.getNumChangedCells());
+        snapshot.setEnded(myEnded);
+        myCellManager.countStates(snapshot.getStateCounts());
+        myHasUnpublishedStep = false;
+        mySnapshots.publish();
+    }
+
+    /**
+     * Called by the display
+     *
+     * @return the latest snapshot, or null if there is none newer than the last one taken
+     */
+    public GridSnapshot takeLatestSnapshot () {
+        return mySnapshots.takeLatest();
+    }
+
+    /**
+     * Starts stepping continuously
+     */
+    public synchronized void start () {
+        myRunning = true;
+        myNextStepTime = System.nanoTime();
+        notifyAll();
+    }
+
+    /**
+     * Stops stepping after the current step
+     */
+    public synchronized void stop () {
+        myRunning = false;
+        notifyAll();
+    }
+
+    /**
+     * Stops stepping continuously and asks for a single step
+     */
+    public synchronized void step () {
+        myRunning = false;
+        myRequestedSteps++;
+        notifyAll();
+    }
+
+    public synchronized boolean isRunning () {
+        return myRunning;
+    }
+
+    public synchronized double getStepsPerSecond () {
+        return myStepsPerSecond;
+    }
+
+    /**
+     * @param stepsPerSecond target number of steps per second, or 0 to step as fast as possible
+     */
+    public synchronized void setStepsPerSecond (double stepsPerSecond) {
+        myStepsPerSecond = stepsPerSecond;
+        myNextStepTime = System.nanoTime();
+        notifyAll();
+    }
+
+    /**
+     * Moves the view of the picture, redrawing it even while the runner is stopped
+     *
+     * @param down number of screens to move down by, or up if negative
+     * @param right number of screens to move right by, or left if negative
+     */
+    public void moveView (double down, double right) {
+        if (myPicture.moveView(down, right)) {
+            redraw();
+        }
+    }
+
+    /**
+     * Zooms the view of the picture, redrawing it even while the runner is stopped
+     *
+     * @param levels number of times to double the size of each cell, or halve it if negative
+     */
+    public void zoomView (int levels) {
+        if (myPicture.zoomView(levels)) {
+            redraw();
+        }
+    }
+
+    private synchronized void redraw () {
+        myRedrawRequested = true;
+        notifyAll();
+    }
+
+    /**
+     * Stops the thread for good, after the current step, and then closes the model
+     */
+    public synchronized void close () {
+        myClosed = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,66 @@
+package cellsociety_team08;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Lock-free exchange of values from one producer thread to one consumer thread through three
+ * buffers: the producer fills the back buffer and publishes it as the latest one, and the
+ * consumer takes the latest buffer as its front one, so neither ever waits for the other and the
+ * consumer skips any buffer that was replaced before it looked
+ *
+ * @author David Maydew
+ *
+ * @param <T> type of the buffers, which are reused rather than copied
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    // set on the middle index while it holds a buffer the consumer has not taken yet
+    private static final int UNREAD = 4;
+
+    private final List<T> myBuffers;
+    private final AtomicInteger myMiddle = new AtomicInteger(1);
+    private int myBack = 0;
+    private int myFront = 2;
+
+    public TripleBuffer (T first, T second, T third) {
+        myBuffers = Arrays.asList(first, second, third);
+    }
+
+    /**
+     * @return the buffer the producer fills next, which no other thread reads until published
+     */
+    public T getBack () {
+        return myBuffers.get(myBack);
+    }
+
+    /**
+     * Makes the back buffer the latest one, taking the buffer it replaces as the new back buffer.
+     * Only called by the producer
+     */
+    public void publish () {
+        myBack = myMiddle.getAndSet(myBack | UNREAD) & INDEX_MASK;
+    }
+
+    /**
+     * @return whether a published buffer has not been taken by the consumer yet
+     */
+    public boolean hasUnread () {
+        return (myMiddle.get() & UNREAD) != 0;
+    }
+
+    /**
+     * Only called by the consumer
+     *
+     * @return the buffer published last, or null if it has already been taken
+     */
+    public T takeLatest () {
+        if (!hasUnread()) {
+            return null;
+        }
+        myFront = myMiddle.getAndSet(myFront) & INDEX_MASK;
+        return myBuffers.get(myFront);
+    }
+}
@@ -127,7 +127,33 @@ public class WindowBuilder extends SimulationBuilder {
         Button speedDown = createButton(getResources().getString("SpeedDownButton"),
                                         BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
                                         e -> getSimulation().speedDown());
-        vbox.getChildren().addAll(title, speedUp, speedDown);
+
+        Text viewTitle = new Text("View");
+        viewTitle.setFont(Font.font("Calibri", FontWeight.BOLD, FONT_SIZE));
+        viewTitle.setFill(Color.WHEAT);
+        viewTitle.setStyle("-fx-font: 18 georgia; -fx-base: #ccd9ff;");
+
+        // Creates buttons for moving and zooming the view of large grids
+        Button zoomIn = createButton(getResources().getString("ZoomInButton"),
+                                     BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
+                                     e -> getSimulation().zoomView(1));
+        Button zoomOut = createButton(getResources().getString("ZoomOutButton"),
+                                      BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
+                                      e -> getSimulation().zoomView(-1));
+        Button up = createButton(getResources().getString("UpButton"),
+                                 BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
+                                 e -> getSimulation().moveView(-1, 0));
+        Button down = createButton(getResources().getString("DownButton"),
+                                   BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
+                                   e -> getSimulation().moveView(1, 0));
+        Button left = createButton(getResources().getString("LeftButton"),
+                                   BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
+                                   e -> getSimulation().moveView(0, -1));
+        Button right = createButton(getResources().getString("RightButton"),
+                                    BUTTON_WIDTH, BUTTON_HEIGHT, V_BUTTON_STYLE,
+                                    e -> getSimulation().moveView(0, 1));
+        vbox.getChildren().addAll(title, speedUp, speedDown, viewTitle, zoomIn, zoomOut, up, down,
+                                  left, right);
         return vbox;
     }
 }
@@ -0,0 +1,121 @@
+package grid_displays;
+
+import java.util.Arrays;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Draws every cell into a single canvas. The cells being drawn are sorted by color so that all of
+ * the cells of one color are filled as a single path, and their outlines are stroked as one path
+ *
+ * @author David Maydew
+ *
+ */
+public class CanvasGridRenderer implements IGridRenderer {
+    private static final int COLOR_SHIFT = 32;
+    private static final long INDEX_MASK = 0xffffffffL;
+
+    private GridDisplay myDisplay;
+    private Canvas myCanvas;
+    private int myMaxY;
+    private double myCellWidth;
+    private double myCellHeight;
+    private boolean myOutline;
+    // color of each cell in the upper half, and its index in the lower half
+    private long[] myKeys;
+
+    @Override
+    public Node createView (GridDisplay display,
+                            int maxX,
+                            int maxY,
+                            double cellWidth,
+                            double cellHeight,
+                            boolean outline) {
+        myDisplay = display;
+        myMaxY = maxY;
+        myCellWidth = cellWidth;
+        myCellHeight = cellHeight;
+        myOutline = outline;
+        myKeys = new long[maxX * maxY];
+        double width = 0;
+        double height = 0;
+        for (int index = 0; index < myKeys.length; index++) {
+            double[] points = getCellPoints(index);
+            for (int i = 0; i < points.length; i += 2) {
+                width = Math.max(width, points[i]);
+                height = Math.max(height, points[i + 1]);
+            }
+        }
+        myCanvas = new Canvas(width, height);
+        return myCanvas;
+    }
+
+    @Override
+    public void paintAllCells (int[] colors) {
+        for (int index = 0; index < myKeys.length; index++) {
+            myKeys[index] = (long)colors[index] << COLOR_SHIFT | index;
+        }
+        GraphicsContext graphics = myCanvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, myCanvas.getWidth(), myCanvas.getHeight());
+        paintKeyedCells(graphics, myKeys.length);
+    }
+
+    @Override
+    public void paintCells (int[] cells, int numCells, int[] colors) {
+        for (int i = 0; i < numCells; i++) {
+            myKeys[i] = (long)colors[cells[i]] << COLOR_SHIFT | cells[i];
+        }
+        paintKeyedCells(myCanvas.getGraphicsContext2D(), numCells);
+    }
+
+    /**
+     * Fills the first numKeys cells of the keys, one path per color, then strokes their outlines
+     */
+    private void paintKeyedCells (GraphicsContext graphics, int numKeys) {
+        Arrays.sort(myKeys, 0, numKeys);
+        int start = 0;
+        while (start < numKeys) {
+            int color = (int)(myKeys[start] >> COLOR_SHIFT);
+            int end = start;
+            graphics.beginPath();
+            while (end < numKeys && (int)(myKeys[end] >> COLOR_SHIFT) == color) {
+                addCellPath(graphics, (int)(myKeys[end] & INDEX_MASK));
+                end++;
+            }
+            graphics.setFill(ShapeGridRenderer.toPaint(color));
+            graphics.fill();
+            start = end;
+        }
+        if (myOutline) {
+            graphics.beginPath();
+            for (int i = 0; i < numKeys; i++) {
+                addCellPath(graphics, (int)(myKeys[i] & INDEX_MASK));
+            }
+            graphics.setStroke(Color.BLACK);
+            graphics.stroke();
+        }
+    }
+
+    private void addCellPath (GraphicsContext graphics, int index) {
+        double[] points = getCellPoints(index);
+        graphics.moveTo(points[0], points[1]);
+        for (int i = 2; i < points.length; i += 2) {
+            graphics.lineTo(points[i], points[i + 1]);
+        }
+        graphics.closePath();
+    }
+
+    private double[] getCellPoints (int index) {
+        return myDisplay.createCellPoints(new Position(index / myMaxY, index % myMaxY),
+                                          myCellWidth, myCellHeight);
+    }
+
+    @Override
+    public IGridPicture createPicture (ICellManager cellManager, double repaintThreshold) {
+        return new FullGridPicture(cellManager, repaintThreshold);
+    }
+}
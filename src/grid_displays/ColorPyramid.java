@@ -0,0 +1,246 @@
+package grid_displays;
+
+import java.util.Arrays;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Mipmap-style pyramid of the colors of a grid. At level L each texel is the average color of a
+ * block of 2^L by 2^L cells, clipped to the edge of the grid, so level 0 would be the grid itself.
+ * Only the coarse levels from a minimum level up are kept, so that the pyramid's size depends on
+ * how much of the grid fits on screen rather than on the number of cells. Texels over changed
+ * cells are marked, and only averaged again from the model when the pyramid is next brought up to
+ * date, each level above the minimum being reduced from the four texels below it
+ *
+ * @author David Maydew
+ *
+ */
+public class ColorPyramid {
+    private static final int ALPHA_SHIFT = 24;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xff;
+
+    private final ICellManager myCellManager;
+    private final int myMaxX;
+    private final int myMaxY;
+    private final int myMinLevel;
+    // colors and changed marks of each level kept, from the minimum level up
+    private final int[][] myColors;
+    private final boolean[][] myMarks;
+    // changed texels of the minimum level, replaced by their parents while levels are reduced
+    private final int[] myChangedTexels;
+    private int myNumChanged;
+    private boolean myStale = true;
+    // sums of the average being taken, weighted by number of cells
+    private long myAlpha;
+    private long myRed;
+    private long myGreen;
+    private long myBlue;
+    private long myWeight;
+
+    /**
+     * Creates a pyramid that is filled in when first brought up to date
+     *
+     * @param cellManager model whose colors are averaged
+     * @param minLevel finest level kept, at least 1
+     * @param maxLevel coarsest level kept, or less than minLevel to keep no levels
+     */
+    public ColorPyramid (ICellManager cellManager, int minLevel, int maxLevel) {
+        myCellManager = cellManager;
+        myMaxX = cellManager.getMaxX();
+        myMaxY = cellManager.getMaxY();
+        myMinLevel = minLevel;
+        int numLevels = Math.max(maxLevel - minLevel + 1, 0);
+        myColors = new int[numLevels][];
+        myMarks = new boolean[numLevels][];
+        for (int i = 0; i < numLevels; i++) {
+            int numTexels = getRows(minLevel + i) * getColumns(minLevel + i);
+            myColors[i] = new int[numTexels];
+            myMarks[i] = new boolean[numTexels];
+        }
+        myChangedTexels = new int[numLevels > 0 ? myColors[0].length : 0];
+    }
+
+    /**
+     * @return number of rows of texels at a level
+     */
+    public int getRows (int level) {
+        return ((myMaxX - 1) >> level) + 1;
+    }
+
+    /**
+     * @return number of columns of texels at a level
+     */
+    public int getColumns (int level) {
+        return ((myMaxY - 1) >> level) + 1;
+    }
+
+    /**
+     * @return finest level kept, below which colors must be averaged from the model
+     */
+    public int getMinLevel () {
+        return myMinLevel;
+    }
+
+    /**
+     * @param level between the minimum and maximum levels kept
+     * @return ARGB color of a texel as of the last call to update
+     */
+    public int getColor (int level, int row, int column) {
+        return myColors[level - myMinLevel][row * getColumns(level) + column];
+    }
+
+    /**
+     * Marks the texels over a cell to be averaged again
+     */
+    public void markChanged (int x, int y) {
+        if (myStale || myColors.length == 0) {
+            return;
+        }
+        int texel = (x >> myMinLevel) * getColumns(myMinLevel) + (y >> myMinLevel);
+        if (!myMarks[0][texel]) {
+            myMarks[0][texel] = true;
+            myChangedTexels[myNumChanged++] = texel;
+        }
+    }
+
+    /**
+     * Marks every texel to be averaged again, e.g. when the model does not list its changes
+     */
+    public void invalidate () {
+        myStale = true;
+    }
+
+    /**
+     * Averages again the texels over cells that changed since the last update, or every texel if
+     * the pyramid was invalidated
+     */
+    public void update () {
+        if (myColors.length == 0) {
+            return;
+        }
+        if (myStale) {
+            rebuild();
+            return;
+        }
+        int columns = getColumns(myMinLevel);
+        for (int i = 0; i < myNumChanged; i++) {
+            int texel = myChangedTexels[i];
+            myColors[0][texel] = averageCells(myMinLevel, texel / columns, texel % columns);
+            myMarks[0][texel] = false;
+        }
+        for (int i = 1; i < myColors.length; i++) {
+            reduceChangedTexels(myMinLevel + i);
+        }
+        myNumChanged = 0;
+    }
+
+    /**
+     * Replaces the changed texels of the level below with their parents at the given level, each
+     * listed once, and reduces those. A parent is never listed after the child it replaces, so
+     * the list can be rewritten in place
+     */
+    private void reduceChangedTexels (int level) {
+        boolean[] marks = myMarks[level - myMinLevel];
+        int childColumns = getColumns(level - 1);
+        int columns = getColumns(level);
+        int numParents = 0;
+        for (int i = 0; i < myNumChanged; i++) {
+            int child = myChangedTexels[i];
+            int parent = (child / childColumns >> 1) * columns + (child % childColumns >> 1);
+            if (!marks[parent]) {
+                marks[parent] = true;
+                myChangedTexels[numParents++] = parent;
+            }
+        }
+        myNumChanged = numParents;
+        for (int i = 0; i < myNumChanged; i++) {
+            int parent = myChangedTexels[i];
+            reduceTexel(level, parent / columns, parent % columns);
+            marks[parent] = false;
+        }
+    }
+
+    /**
+     * Averages every texel of the minimum level from the model, then reduces each level above it
+     */
+    private void rebuild () {
+        int columns = getColumns(myMinLevel);
+        for (int texel = 0; texel < myColors[0].length; texel++) {
+            myColors[0][texel] = averageCells(myMinLevel, texel / columns, texel % columns);
+        }
+        for (int i = 1; i < myColors.length; i++) {
+            int level = myMinLevel + i;
+            for (int row = 0; row < getRows(level); row++) {
+                for (int column = 0; column < getColumns(level); column++) {
+                    reduceTexel(level, row, column);
+                }
+            }
+        }
+        Arrays.fill(myMarks[0], false);
+        myNumChanged = 0;
+        myStale = false;
+    }
+
+    /**
+     * Averages a texel from the up to four texels below it, weighted by how many cells each
+     * covers
+     */
+    private void reduceTexel (int level, int row, int column) {
+        int childLevel = level - 1;
+        for (int childRow = 2 * row; childRow < Math.min(2 * row + 2, getRows(childLevel));
+             childRow++) {
+            for (int childColumn = 2 * column;
+                 childColumn < Math.min(2 * column + 2, getColumns(childLevel));
+                 childColumn++) {
+                int weight = Math.min(1 << childLevel, myMaxX - (childRow << childLevel)) *
+                             Math.min(1 << childLevel, myMaxY - (childColumn << childLevel));
+                addColor(getColor(childLevel, childRow, childColumn), weight);
+            }
+        }
+        myColors[level - myMinLevel][row * getColumns(level) + column] = takeAverage();
+    }
+
+    /**
+     * Averages the colors of a block of cells straight from the model, for any level
+     *
+     * @return ARGB color of the texel at the given level, row and column
+     */
+    public int averageCells (int level, int row, int column) {
+        int endX = Math.min((row + 1) << level, myMaxX);
+        int endY = Math.min((column + 1) << level, myMaxY);
+        for (int x = row << level; x < endX; x++) {
+            for (int y = column << level; y < endY; y++) {
+                addColor(myCellManager.getCellArgb(x * myMaxY + y), 1);
+            }
+        }
+        return takeAverage();
+    }
+
+    private void addColor (int argb, int weight) {
+        myAlpha += (long)(argb >>> ALPHA_SHIFT) * weight;
+        myRed += (long)(argb >> RED_SHIFT & CHANNEL_MASK) * weight;
+        myGreen += (long)(argb >> GREEN_SHIFT & CHANNEL_MASK) * weight;
+        myBlue += (long)(argb & CHANNEL_MASK) * weight;
+        myWeight += weight;
+    }
+
+    /**
+     * @return average of the colors added since the last average, rounded to the nearest ARGB
+     *         color
+     */
+    private int takeAverage () {
+        long half = myWeight / 2;
+        int argb = (int)((myAlpha + half) / myWeight) << ALPHA_SHIFT |
+                   (int)((myRed + half) / myWeight) << RED_SHIFT |
+                   (int)((myGreen + half) / myWeight) << GREEN_SHIFT |
+                   (int)((myBlue + half) / myWeight);
+        myAlpha = 0;
+        myRed = 0;
+        myGreen = 0;
+        myBlue = 0;
+        myWeight = 0;
+        return argb;
+    }
+}
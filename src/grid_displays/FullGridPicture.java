@@ -0,0 +1,117 @@
+package grid_displays;
+
+import simulation_managers.ICellManager;
+
+
+/**
+ * Picture with the color of every cell of the grid, so the whole grid is always shown. Cells
+ * whose color changed are collected until the next snapshot, so that the display only repaints
+ * those unless too many of them changed
+ *
+ * @author David Maydew
+ *
+ */
+public class FullGridPicture implements IGridPicture {
+    private final ICellManager myCellManager;
+    // colors of the latest generation, which snapshots are copied from
+    private final int[] myColors;
+    private final int[] myChangedCells;
+    // cells whose color changed since the last snapshot was filled
+    private final int[] myPendingCells;
+    private final boolean[] myPendingMarks;
+    private int myNumPending;
+
+    /**
+     * @param cellManager model to be drawn
+     * @param repaintThreshold fraction of the grid that may change between snapshots before the
+     *        display repaints every cell
+     */
+    public FullGridPicture (ICellManager cellManager, double repaintThreshold) {
+        myCellManager = cellManager;
+        int numCells = cellManager.getMaxX() * cellManager.getMaxY();
+        int maxChanged = (int)(repaintThreshold * numCells);
+        myColors = new int[numCells];
+        myChangedCells = new int[maxChanged];
+        myPendingCells = new int[maxChanged];
+        myPendingMarks = new boolean[numCells];
+    }
+
+    @Override
+    public GridSnapshot createSnapshot () {
+        return new GridSnapshot(myColors.length, myPendingCells.length,
+                                myCellManager.getStates().length);
+    }
+
+    @Override
+    public void drawAll () {
+        myCellManager.fillCellColors(myColors);
+        clearPendingCells();
+        myNumPending = -1;
+    }
+
+    @Override
+    public void update () {
+        int numChanged = myCellManager.getChangedCells(myChangedCells);
+        if (numChanged < 0) {
+            drawAll();
+        }
+        else {
+            myCellManager.fillCellColors(myColors, myChangedCells, numChanged);
+            addPendingCells(numChanged);
+        }
+    }
+
+    /**
+     * Adds the first numChanged changed cells to the cells pending for the next snapshot,
+     * switching to repainting every cell once they do not fit
+     */
+    private void addPendingCells (int numChanged) {
+        for (int i = 0; i < numChanged && myNumPending >= 0; i++) {
+            int index = myChangedCells[i];
+            if (myPendingMarks[index]) {
+                continue;
+            }
+            if (myNumPending == myPendingCells.length) {
+                clearPendingCells();
+                myNumPending = -1;
+            }
+            else {
+                myPendingMarks[index] = true;
+                myPendingCells[myNumPending++] = index;
+            }
+        }
+    }
+
+    private void clearPendingCells () {
+        for (int i = 0; i < myNumPending; i++) {
+            myPendingMarks[myPendingCells[i]] = false;
+        }
+        myNumPending = 0;
+    }
+
+    @Override
+    public void fillSnapshot (GridSnapshot snapshot, boolean repaintAll) {
+        System.arraycopy(myColors, 0, snapshot.getColors(), 0, myColors.length);
+        if (repaintAll || myNumPending < 0) {
+            snapshot.setNumChanged(-1);
+        }
+        else {
+            System.arraycopy(myPendingCells, 0, snapshot.getChangedCells(), 0, myNumPending);
+            snapshot.setNumChanged(myNumPending);
+        }
+        clearPendingCells();
+    }
+
+    /**
+     * The whole grid is always shown, so the view never moves
+     */
+    @Override
+    public boolean moveView (double down, double right) {
+        return false;
+    }
+
+    @Override
+    public boolean zoomView (int levels) {
+        return false;
+    }
+}
@@ -1,21 +1,20 @@
 package grid_displays;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.ResourceBundle;
 import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.shape.Shape;
 import simulation_managers.ICellManager;
 
 
 /**
  * Abstract class that manages the display of a grid of cells with unspecified shapes. Should be
- * extended to define which shape to use to display each cell
+ * extended to define which shape to use to display each cell. The RenderBackend style property
+ * chooses how the cells are drawn: Shapes adds one JavaFX shape per cell, which is simple but slow
+ * for large grids, while Canvas draws every cell into a single canvas or image. Subclasses may
+ * add backends of their own
  *
  * @author David Maydew
  *
@@ -25,11 +24,13 @@ public abstract class GridDisplay {
     public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
     private ResourceBundle myResources =
             ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "style");
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
 
     private Region myDisplay;
     private Pane myInnerDisplay;
     private ICellManager myCellManager;
-    private List<List<Shape>> myCells;
+    private IGridRenderer myRenderer;
 
     /**
      * Creates an empty grid display with the given width and height
@@ -58,47 +59,72 @@ public abstract class GridDisplay {
      *
      * @param configuration of the active simulation
      * @param cellManager interface for communicating with the model
+     * @throws SimulationException if this display cannot draw its shape with the RenderBackend
+     *         style property
      */
-    public void initialize (Configuration configuration, ICellManager cellManager) {
+    public void initialize (Configuration configuration,
+                            ICellManager cellManager) throws SimulationException {
         setCellManager(cellManager);
-        setCells(createCells());
-        updateGridDisplay();
+        String backend = "Shapes";
+        if (configuration.hasStyle("RenderBackend")) {
+            backend = configuration.getStyle("RenderBackend");
+        }
+        myRenderer = createRenderer(backend);
+        int maxX = getCellManager().getMaxX();
+        int maxY = getCellManager().getMaxY();
+        double cellWidth = calculateDimension("CellWidth", getDisplayWidth() / maxY);
+        double cellHeight = calculateDimension("CellHeight", getDisplayHeight() / maxX);
+        boolean outline = Boolean.parseBoolean(myResources.getString("Outline"));
+        getInnerDisplay().getChildren()
+                .add(myRenderer.createView(this, maxX, maxY, cellWidth, cellHeight, outline));
     }
 
     /**
-     * Updates the grid to show the current color representations of all cells in the model
+     * Creates the picture of the model that is drawn by this display's renderer. The display is
+     * empty until the first snapshot of the picture is shown
+     *
+     * @param repaintThreshold fraction of the grid that may change between snapshots before every
+     *        cell is repainted
+     * @return picture to be kept up to date by the thread that steps the model
      */
-    public void updateGridDisplay () {
-        List<List<Color>> updatedColors = getCellManager().getAllCellColors();
-        for (int x = 0; x < updatedColors.size(); x++) {
-            for (int y = 0; y < updatedColors.get(0).size(); y++) {
-                Paint updatedPaint = updatedColors.get(x).get(y);
-                getCell(x, y).setFill(updatedPaint);
-            }
+    public IGridPicture createPicture (double repaintThreshold) {
+        return myRenderer.createPicture(getCellManager(), repaintThreshold);
+    }
+
+    /**
+     * Creates the renderer for a RenderBackend style property; subclasses may override this to
+     * draw their shape in a faster way
+     *
+     * @param backend value of the RenderBackend style property
+     * @return renderer that draws the cells in the given way
+     * @throws SimulationException if the backend is unknown, or cannot draw this display's shape
+     */
+    protected IGridRenderer createRenderer (String backend) throws SimulationException {
+        if (backend.equals("Shapes")) {
+            return new ShapeGridRenderer();
+        }
+        else if (backend.equals("Canvas")) {
+            return new CanvasGridRenderer();
+        }
+        else {
+            throw new SimulationException(myErrorResources.getString("InvalidRenderBackend"));
         }
     }
 
     /**
-     * @return 2d list representing all of the shapes, appropriately positioned, that are to be
-     *         displayed on the screen
+     * Updates the grid to show a snapshot of the model, repainting only the cells that changed
+     * since the snapshot shown before it unless every cell is marked to be repainted
+     *
+     * @param snapshot taken after some generation of the model given to initialize
      */
-    private List<List<Shape>> createCells () {
-        double cellWidth =
-                calculateDimension("CellWidth", getDisplayWidth() / getCellManager().getMaxY());
-        double cellHeight =
-                calculateDimension("CellHeight", getDisplayHeight() / getCellManager().getMaxX());
-        List<List<Shape>> cells = new ArrayList<List<Shape>>();
-        for (int x = 0; x < getCellManager().getMaxX(); x++) {
-            List<Shape> cellRow = new ArrayList<Shape>();
-            for (int y = 0; y < getCellManager().getMaxY(); y++) {
-                Shape newCell = createNewCell(new Position(x, y), cellWidth, cellHeight);
-                styleCell(newCell);
-                getInnerDisplay().getChildren().add(newCell);
-                cellRow.add(newCell);
-            }
-            cells.add(cellRow);
+    public void showSnapshot (GridSnapshot snapshot) {
+        if (snapshot.getNumChanged() < 0) {
+            myRenderer.paintAllCells(snapshot.getColors());
+        }
+        else {
+            myRenderer.paintCells(snapshot.getChangedCells(), snapshot.getNumChanged(),
+                                  snapshot.getColors());
         }
-        return cells;
     }
 
     private double calculateDimension (String dimensionKey, double defaultval) {
@@ -111,22 +137,16 @@ public abstract class GridDisplay {
     }
 
     /**
-     * Styles a given cell based on style properties
-     */
-    private void styleCell (Shape cell) {
-        if (Boolean.parseBoolean(myResources.getString("Outline"))) {
-            cell.setStroke(Color.BLACK);
-        }
-    }
-
-    /**
-     * Abstract method to allow subclasses to create a specific shape type and location to use in
+     * Abstract method to allow subclasses to define a specific shape type and location to use in
      * the display
      *
      * @param position of the current cell
-     * @return a shape with its position appropriate calculated
+     * @return the corners of the cell's shape, with its position appropriately calculated, as
+     *         interleaved x and y coordinates
      */
-    protected abstract Shape createNewCell (Position position, double cellWidth, double cellHeight);
+    protected abstract double[] createCellPoints (Position position,
+                                                  double cellWidth,
+                                                  double cellHeight);
 
     /**
      * a and b must be of the same length to work appropriately
@@ -173,19 +193,11 @@ public abstract class GridDisplay {
         myCellManager = cellManager;
     }
 
-    private Shape getCell (int x, int y) {
-        return myCells.get(x).get(y);
-    }
-
-    private void setCells (List<List<Shape>> cells) {
-        myCells = cells;
-    }
-
-    private double getDisplayWidth () {
+    protected double getDisplayWidth () {
         return getDisplay().getPrefWidth();
     }
 
-    private double getDisplayHeight () {
+    protected double getDisplayHeight () {
         return getDisplay().getPrefHeight();
     }
 
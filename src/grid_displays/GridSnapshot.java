@@ -0,0 +1,97 @@
+package grid_displays;
+
+/**
+ * Picture of a model after some generation, filled by the thread that steps the model and then
+ * handed to the display, which only reads it. Snapshots are reused, so a snapshot must not be
+ * changed once it has been handed over until the display is done with it
+ *
+ * @author David Maydew
+ *
+ */
+public class GridSnapshot {
+    private final int[] myColors;
+    private final int[] myChangedCells;
+    private final int[] myStateCounts;
+    private int myNumChanged;
+    private long myStep;
+    private int myNumChangedCells;
+    private boolean myEnded;
+
+    /**
+     * @param numColors number of colors in the picture: one per cell of the model, or one per
+     *        pixel when only part of the grid is shown
+     * @param maxChanged most cells that can be listed as changed before every cell is repainted
+     * @param numStates number of states a cell of the model can be in
+     */
+    public GridSnapshot (int numColors, int maxChanged, int numStates) {
+        myColors = new int[numColors];
+        myChangedCells = new int[maxChanged];
+        myStateCounts = new int[numStates];
+    }
+
+    /**
+     * @return ARGB color of every cell or pixel of the picture, by row-major index
+     */
+    public int[] getColors () {
+        return myColors;
+    }
+
+    /**
+     * @return buffer with the cells whose color changed since the snapshot shown before this one
+     */
+    public int[] getChangedCells () {
+        return myChangedCells;
+    }
+
+    /**
+     * @return number of cells listed in getChangedCells, or -1 if every cell should be repainted
+     */
+    public int getNumChanged () {
+        return myNumChanged;
+    }
+
+    public void setNumChanged (int numChanged) {
+        myNumChanged = numChanged;
+    }
+
+    /**
+     * @return number of generations the model had been stepped by
+     */
+    public long getStep () {
+        return myStep;
+    }
+
+    public void setStep (long step) {
+        myStep = step;
+    }
+
+    /**
+     * @return number of cells that changed state in the model's last step
+     */
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    public void setNumChangedCells (int numChangedCells) {
+        myNumChangedCells = numChangedCells;
+    }
+
+    /**
+     * @return whether the model had ended by the step it was pictured at, so that it is no longer
+     *         stepped
+     */
+    public boolean hasEnded () {
+        return myEnded;
+    }
+
+    public void setEnded (boolean ended) {
+        myEnded = ended;
+    }
+
+    /**
+     * @return number of cells in each state, in the order of the model's getStates
+     */
+    public int[] getStateCounts () {
+        return myStateCounts;
+    }
+}
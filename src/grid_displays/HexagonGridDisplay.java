@@ -1,9 +1,5 @@
 package grid_displays;
 
-import javafx.scene.shape.Polygon;
-import javafx.scene.shape.Shape;
-
-
 /**
  * Handles the display and positioning of a 2d grid of interlocking hexagons
  *
@@ -20,7 +16,7 @@ public class HexagonGridDisplay extends GridDisplay {
      * Creates and positions a hexagon based on geometric calculations of hexagons
      */
     @Override
-    protected Shape createNewCell (Position position, double cellWidth, double cellHeight) {
+    protected double[] createCellPoints (Position position, double cellWidth, double cellHeight) {
         int x = position.getXCoord();
         int y = position.getYCoord();
         double[] xCoords =
@@ -34,7 +30,7 @@ public class HexagonGridDisplay extends GridDisplay {
             shiftElements(yCoords, 0.5 * cellHeight);
         }
 
-        return new Polygon(interleave(xCoords, yCoords));
+        return interleave(xCoords, yCoords);
 
     }
 }
@@ -0,0 +1,56 @@
+package grid_displays;
+
+/**
+ * Picture of a model kept up to date by the thread that steps the model, and copied into the
+ * snapshots that the display shows. Apart from moveView and zoomView, which the display calls to
+ * ask for a different part of the grid, it is only used by the thread that steps the model
+ *
+ * @author David Maydew
+ *
+ */
+public interface IGridPicture {
+
+    /**
+     * @return a new snapshot with room for the picture
+     */
+    GridSnapshot createSnapshot ();
+
+    /**
+     * Draws the model as it is, before the first snapshot is filled
+     */
+    void drawAll ();
+
+    /**
+     * Brings the picture up to date after the model has been stepped, from the model's list of
+     * changed cells if it gives one
+     */
+    void update ();
+
+    /**
+     * Copies the picture into a snapshot, along with the cells that changed since the last one
+     *
+     * @param snapshot filled with the picture
+     * @param repaintAll whether the display must repaint the whole picture, e.g. because it never
+     *        saw the snapshot filled before this one
+     */
+    void fillSnapshot (GridSnapshot snapshot, boolean repaintAll);
+
+    /**
+     * Asks for the picture to show a part of the grid further down and to the right
+     *
+     * @param down number of screens to move down by, or up if negative
+     * @param right number of screens to move right by, or left if negative
+     * @return whether the part of the grid shown changes, in which case the picture must be
+     *         filled into a new snapshot
+     */
+    boolean moveView (double down, double right);
+
+    /**
+     * Asks for the picture to show the grid at a different size
+     *
+     * @param levels number of times to double the size of each cell, or halve it if negative
+     * @return whether the part of the grid shown changes, in which case the picture must be
+     *         filled into a new snapshot
+     */
+    boolean zoomView (int levels);
+}
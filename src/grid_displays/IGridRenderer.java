@@ -0,0 +1,61 @@
+package grid_displays;
+
+import javafx.scene.Node;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Draws the cells of a GridDisplay in some form of JavaFX scene content, e.g. one node per cell
+ * or a single image. Colors are passed as ARGB ints, in the same order as the cell indices of the
+ * model (x * maxY + y)
+ *
+ * @author David Maydew
+ *
+ */
+public interface IGridRenderer {
+
+    /**
+     * Creates the content used to draw every cell of the grid
+     *
+     * @param display whose geometry gives the outline of each cell
+     * @param maxX number of rows in the grid
+     * @param maxY number of columns in the grid
+     * @param cellWidth width of each cell
+     * @param cellHeight height of each cell
+     * @param outline whether cells are drawn with a black outline
+     * @return node to be shown in the display
+     */
+    Node createView (GridDisplay display,
+                     int maxX,
+                     int maxY,
+                     double cellWidth,
+                     double cellHeight,
+                     boolean outline);
+
+    /**
+     * Redraws every cell with its color
+     *
+     * @param colors ARGB color of every cell, by index
+     */
+    void paintAllCells (int[] colors);
+
+    /**
+     * Redraws only the given cells with their colors
+     *
+     * @param cells indices of the cells to be redrawn
+     * @param numCells number of indices in cells
+     * @param colors ARGB color of every cell, by index
+     */
+    void paintCells (int[] cells, int numCells, int[] colors);
+
+    /**
+     * Creates the picture that the thread stepping the model keeps up to date and fills the
+     * snapshots painted by this renderer with
+     *
+     * @param cellManager model to be drawn
+     * @param repaintThreshold fraction of the grid that may change between snapshots before every
+     *        cell is repainted
+     * @return picture of the model
+     */
+    IGridPicture createPicture (ICellManager cellManager, double repaintThreshold);
+}
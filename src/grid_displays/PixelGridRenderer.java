@@ -0,0 +1,74 @@
+package grid_displays;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Draws a grid of squares as an image with one pixel per cell, written in a single call to the
+ * image's PixelWriter and scaled up to the cell size without smoothing. Cells are drawn without
+ * outlines
+ *
+ * @author David Maydew
+ *
+ */
+public class PixelGridRenderer implements IGridRenderer {
+    private WritableImage myImage;
+    private int myWidth;
+    private int myHeight;
+
+    /**
+     * Rows of the grid are rows of the image, so that cell indices are also pixel indices
+     */
+    @Override
+    public Node createView (GridDisplay display,
+                            int maxX,
+                            int maxY,
+                            double cellWidth,
+                            double cellHeight,
+                            boolean outline) {
+        return createImageView(maxY, maxX, maxY * cellWidth, maxX * cellHeight);
+    }
+
+    /**
+     * @param width number of pixels in each row of the image
+     * @param height number of pixels in each column of the image
+     * @param fitWidth width the image is scaled to
+     * @param fitHeight height the image is scaled to
+     * @return view of a new image, scaled without smoothing
+     */
+    protected Node createImageView (int width, int height, double fitWidth, double fitHeight) {
+        myWidth = width;
+        myHeight = height;
+        myImage = new WritableImage(myWidth, myHeight);
+        ImageView view = new ImageView(myImage);
+        view.setFitWidth(fitWidth);
+        view.setFitHeight(fitHeight);
+        view.setSmooth(false);
+        return view;
+    }
+
+    @Override
+    public void paintAllCells (int[] colors) {
+        myImage.getPixelWriter().setPixels(0, 0, myWidth, myHeight,
+                                           PixelFormat.getIntArgbInstance(), colors, 0, myWidth);
+    }
+
+    @Override
+    public void paintCells (int[] cells, int numCells, int[] colors) {
+        PixelWriter writer = myImage.getPixelWriter();
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            writer.setArgb(index % myWidth, index / myWidth, colors[index]);
+        }
+    }
+
+    @Override
+    public IGridPicture createPicture (ICellManager cellManager, double repaintThreshold) {
+        return new FullGridPicture(cellManager, repaintThreshold);
+    }
+}
@@ -0,0 +1,75 @@
+package grid_displays;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Polygon;
+import javafx.scene.shape.Shape;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Draws each cell as its own JavaFX polygon. Simple, but every cell is a node of the scene graph,
+ * so it is only suitable for small grids
+ *
+ * @author David Maydew
+ *
+ */
+public class ShapeGridRenderer implements IGridRenderer {
+    private static final double ARGB_MAX = 255.0;
+
+    private List<Shape> myCells;
+
+    @Override
+    public Node createView (GridDisplay display,
+                            int maxX,
+                            int maxY,
+                            double cellWidth,
+                            double cellHeight,
+                            boolean outline) {
+        Group view = new Group();
+        myCells = new ArrayList<Shape>(maxX * maxY);
+        for (int x = 0; x < maxX; x++) {
+            for (int y = 0; y < maxY; y++) {
+                Shape newCell =
+                        new Polygon(display.createCellPoints(new Position(x, y), cellWidth,
+                                                             cellHeight));
+                if (outline) {
+                    newCell.setStroke(Color.BLACK);
+                }
+                view.getChildren().add(newCell);
+                myCells.add(newCell);
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public void paintAllCells (int[] colors) {
+        for (int index = 0; index < myCells.size(); index++) {
+            myCells.get(index).setFill(toPaint(colors[index]));
+        }
+    }
+
+    @Override
+    public void paintCells (int[] cells, int numCells, int[] colors) {
+        for (int i = 0; i < numCells; i++) {
+            myCells.get(cells[i]).setFill(toPaint(colors[cells[i]]));
+        }
+    }
+
+    /**
+     * @return JavaFX color with the same components as the given ARGB color
+     */
+    static Color toPaint (int argb) {
+        return Color.rgb(argb >> 16 & 0xff, argb >> 8 & 0xff, argb & 0xff,
+                         (argb >>> 24) / ARGB_MAX);
+    }
+
+    @Override
+    public IGridPicture createPicture (ICellManager cellManager, double repaintThreshold) {
+        return new FullGridPicture(cellManager, repaintThreshold);
+    }
+}
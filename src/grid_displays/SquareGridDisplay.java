@@ -1,11 +1,13 @@
 package grid_displays;
 
-import javafx.scene.shape.Rectangle;
-import javafx.scene.shape.Shape;
+import cellsociety_team08.SimulationException;
 
 
 /**
- * Handles the display and positioning of a 2d grid of interlocking squares
+ * Handles the display and positioning of a 2d grid of interlocking squares. With the Canvas
+ * render backend, the grid is drawn as an image with one pixel per cell, scaled up to the cell
+ * size. With the Viewport render backend, only the part of the grid on screen is drawn, at a zoom
+ * that can be changed
  *
  * @author David Maydew
  *
@@ -17,10 +19,23 @@ public class SquareGridDisplay extends GridDisplay {
     }
 
     @Override
-    protected Shape createNewCell (Position position, double cellWidth, double cellHeight) {
+    protected IGridRenderer createRenderer (String backend) throws SimulationException {
+        if (backend.equals("Canvas")) {
+            return new PixelGridRenderer();
+        }
+        else if (backend.equals("Viewport")) {
+            return new ViewportGridRenderer(getDisplayWidth(), getDisplayHeight());
+        }
+        return super.createRenderer(backend);
+    }
+
+    @Override
+    protected double[] createCellPoints (Position position, double cellWidth, double cellHeight) {
         double xOffset = position.getYCoord() * cellWidth;
         double yOffset = position.getXCoord() * cellHeight;
-        return new Rectangle(xOffset, yOffset, cellWidth, cellHeight);
+        return new double[] { xOffset, yOffset, xOffset + cellWidth, yOffset,
+                              xOffset + cellWidth, yOffset + cellHeight, xOffset,
+                              yOffset + cellHeight };
     }
 
 }
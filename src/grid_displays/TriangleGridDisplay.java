@@ -1,9 +1,5 @@
 package grid_displays;
 
-import javafx.scene.shape.Polygon;
-import javafx.scene.shape.Shape;
-
-
 /**
  * Handles the display and positioning of a 2d grid of interlocking triangles
  *
@@ -22,7 +18,7 @@ public class TriangleGridDisplay extends GridDisplay {
      * Creates and positions a triangle based on geometric calculations of triangle
      */
     @Override
-    protected Shape createNewCell (Position position, double width, double height) {
+    protected double[] createCellPoints (Position position, double width, double height) {
         int x = position.getXCoord();
         int y = position.getYCoord();
         double[] xPoints;
@@ -43,6 +39,6 @@ public class TriangleGridDisplay extends GridDisplay {
                 shiftElements(xPoints, width * OFFSET);
             }
         }
-        return new Polygon(interleave(xPoints, yPoints));
+        return interleave(xPoints, yPoints);
     }
 }
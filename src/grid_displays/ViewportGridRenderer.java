@@ -0,0 +1,49 @@
+package grid_displays;
+
+import javafx.scene.Node;
+import simulation_managers.ICellManager;
+
+
+/**
+ * Draws a grid of squares as an image the size of the display, showing only the part of the grid
+ * on screen at the current zoom, so that very large grids can be drawn with memory that depends
+ * on the number of pixels rather than the number of cells. The picture is drawn by a
+ * ViewportPicture on the thread that steps the model, and moved and zoomed through it
+ *
+ * @author David Maydew
+ *
+ */
+public class ViewportGridRenderer extends PixelGridRenderer {
+    // the display's scroll pane has a one pixel border on each side
+    private static final int BORDER_WIDTH = 2;
+
+    private final int myWidth;
+    private final int myHeight;
+
+    /**
+     * @param displayWidth width of the display the image is shown in
+     * @param displayHeight height of the display the image is shown in
+     */
+    public ViewportGridRenderer (double displayWidth, double displayHeight) {
+        myWidth = (int)displayWidth - BORDER_WIDTH;
+        myHeight = (int)displayHeight - BORDER_WIDTH;
+    }
+
+    /**
+     * The cell size is set by zooming the picture, so only the size of the display is used
+     */
+    @Override
+    public Node createView (GridDisplay display,
+                            int maxX,
+                            int maxY,
+                            double cellWidth,
+                            double cellHeight,
+                            boolean outline) {
+        return createImageView(myWidth, myHeight, myWidth, myHeight);
+    }
+
+    @Override
+    public IGridPicture createPicture (ICellManager cellManager, double repaintThreshold) {
+        return new ViewportPicture(cellManager, myWidth, myHeight);
+    }
+}
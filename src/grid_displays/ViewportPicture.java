@@ -0,0 +1,267 @@
+package grid_displays;
+
+import simulation_managers.ICellManager;
+
+
+/**
+ * Picture of only the part of a square grid that fits on screen, so that its memory depends on
+ * the number of pixels rather than the number of cells. When zoomed in each cell is a block of
+ * pixels; when zoomed out each pixel shows the average color of a block of cells, read from a
+ * ColorPyramid for the coarsest zoom levels or averaged straight from the model for the finer
+ * ones. The view units on screen (cells, or blocks of cells when zoomed out) are redrawn only
+ * when the model lists a change to one of their cells
+ *
+ * @author David Maydew
+ *
+ */
+public class ViewportPicture implements IGridPicture {
+    // cells are at most 2^MAX_ZOOM pixels wide
+    private static final int MAX_ZOOM = 5;
+    // levels of the pyramid kept below the one at which the whole grid fits on screen
+    private static final int FINER_PYRAMID_LEVELS = 1;
+    // shown where the screen is past the edge of the grid
+    private static final int BACKGROUND = 0;
+
+    private final ICellManager myCellManager;
+    private final int myMaxX;
+    private final int myMaxY;
+    private final int myWidth;
+    private final int myHeight;
+    private final int myFitLevel;
+    private final ColorPyramid myPyramid;
+    private final int[] myPixels;
+    private final int[] myChangedCells;
+    // view units whose cells changed since they were last drawn
+    private final int[] myChangedUnits;
+    private final boolean[] myUnitMarks;
+    private int myNumChangedUnits;
+    private boolean myRedrawAll;
+    // view being drawn: log2 of the pixels per cell, and the cell at the top left pixel
+    private int myZoom;
+    private int myTop;
+    private int myLeft;
+    // view asked for by the display, guarded by this picture's lock
+    private int myRequestedZoom;
+    private double myCenterX;
+    private double myCenterY;
+
+    /**
+     * Creates a picture of the whole grid, zoomed as far in as it fits on screen
+     *
+     * @param cellManager model to be drawn
+     * @param width number of pixels in each row of the screen
+     * @param height number of pixels in each column of the screen
+     */
+    public ViewportPicture (ICellManager cellManager, int width, int height) {
+        myCellManager = cellManager;
+        myMaxX = cellManager.getMaxX();
+        myMaxY = cellManager.getMaxY();
+        myWidth = width;
+        myHeight = height;
+        int fitLevel = 0;
+        while ((myMaxX - 1 >> fitLevel) >= height || (myMaxY - 1 >> fitLevel) >= width) {
+            fitLevel++;
+        }
+        myFitLevel = fitLevel;
+        myPyramid = new ColorPyramid(cellManager, Math.max(fitLevel - FINER_PYRAMID_LEVELS, 1),
+                                     fitLevel);
+        myPixels = new int[width * height];
+        myChangedCells = new int[width * height];
+        myChangedUnits = new int[width * height];
+        myUnitMarks = new boolean[width * height];
+        myRequestedZoom = -fitLevel;
+        while (fitLevel == 0 && myRequestedZoom < MAX_ZOOM &&
+               (myMaxX << myRequestedZoom + 1) <= height &&
+               (myMaxY << myRequestedZoom + 1) <= width) {
+            myRequestedZoom++;
+        }
+        myCenterX = myMaxX / 2.0;
+        myCenterY = myMaxY / 2.0;
+        myZoom = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Snapshots hold one color per pixel, and are always repainted whole
+     */
+    @Override
+    public GridSnapshot createSnapshot () {
+        return new GridSnapshot(myPixels.length, 0, myCellManager.getStates().length);
+    }
+
+    @Override
+    public void drawAll () {
+        myPyramid.invalidate();
+        redrawAll();
+    }
+
+    /**
+     * Marks the changed cells in the pyramid and on screen. More changes than there are pixels
+     * are not listed, and make the whole picture be drawn again
+     */
+    @Override
+    public void update () {
+        int numChanged = myCellManager.getChangedCells(myChangedCells);
+        if (numChanged < 0) {
+            drawAll();
+            return;
+        }
+        for (int i = 0; i < numChanged; i++) {
+            int x = myChangedCells[i] / myMaxY;
+            int y = myChangedCells[i] % myMaxY;
+            myPyramid.markChanged(x, y);
+            markChangedUnit(x, y);
+        }
+    }
+
+    private void markChangedUnit (int x, int y) {
+        if (myRedrawAll) {
+            return;
+        }
+        int level = getLevel();
+        int row = (x - myTop) >> level;
+        int column = (y - myLeft) >> level;
+        if (row < 0 || column < 0 || row >= getUnitRows() || column >= getUnitColumns()) {
+            return;
+        }
+        int unit = row * getUnitColumns() + column;
+        if (!myUnitMarks[unit]) {
+            myUnitMarks[unit] = true;
+            myChangedUnits[myNumChangedUnits++] = unit;
+        }
+    }
+
+    private void redrawAll () {
+        for (int i = 0; i < myNumChangedUnits; i++) {
+            myUnitMarks[myChangedUnits[i]] = false;
+        }
+        myNumChangedUnits = 0;
+        myRedrawAll = true;
+    }
+
+    @Override
+    public void fillSnapshot (GridSnapshot snapshot, boolean repaintAll) {
+        applyView();
+        if (getLevel() >= myPyramid.getMinLevel()) {
+            myPyramid.update();
+        }
+        if (myRedrawAll) {
+            for (int row = 0; row < getUnitRows(); row++) {
+                for (int column = 0; column < getUnitColumns(); column++) {
+                    drawUnit(row, column);
+                }
+            }
+            myRedrawAll = false;
+        }
+        else {
+            for (int i = 0; i < myNumChangedUnits; i++) {
+                int unit = myChangedUnits[i];
+                drawUnit(unit / getUnitColumns(), unit % getUnitColumns());
+                myUnitMarks[unit] = false;
+            }
+            myNumChangedUnits = 0;
+        }
+        System.arraycopy(myPixels, 0, snapshot.getColors(), 0, myPixels.length);
+        snapshot.setNumChanged(-1);
+    }
+
+    /**
+     * Fills the pixels of a view unit with the color of its cell, or the average color of its
+     * block of cells
+     */
+    private void drawUnit (int row, int column) {
+        int level = getLevel();
+        int x = (myTop >> level) + row;
+        int y = (myLeft >> level) + column;
+        int color = BACKGROUND;
+        if (x >= 0 && y >= 0 && x < myPyramid.getRows(level) && y < myPyramid.getColumns(level)) {
+            if (level >= myPyramid.getMinLevel()) {
+                color = myPyramid.getColor(level, x, y);
+            }
+            else {
+                color = myPyramid.averageCells(level, x, y);
+            }
+        }
+        int scale = Math.max(myZoom, 0);
+        int endRow = Math.min((row + 1) << scale, myHeight);
+        int endColumn = Math.min((column + 1) << scale, myWidth);
+        for (int pixelRow = row << scale; pixelRow < endRow; pixelRow++) {
+            for (int pixelColumn = column << scale; pixelColumn < endColumn; pixelColumn++) {
+                myPixels[pixelRow * myWidth + pixelColumn] = color;
+            }
+        }
+    }
+
+    /**
+     * Switches to the view last asked for by the display, redrawing everything if it moved
+     */
+    private void applyView () {
+        int zoom;
+        double centerX;
+        double centerY;
+        synchronized (this) {
+            zoom = myRequestedZoom;
+            centerX = myCenterX;
+            centerY = myCenterY;
+        }
+        int top = getViewOrigin(centerX, myHeight, zoom);
+        int left = getViewOrigin(centerY, myWidth, zoom);
+        if (zoom != myZoom || top != myTop || left != myLeft) {
+            myZoom = zoom;
+            myTop = top;
+            myLeft = left;
+            redrawAll();
+        }
+    }
+
+    /**
+     * @return first cell on screen along one axis, on a block boundary when zoomed out so that
+     *         every pixel shows a whole texel
+     */
+    private static int getViewOrigin (double center, int screenSize, int zoom) {
+        double origin = center - Math.scalb(screenSize / 2.0, -zoom);
+        if (zoom >= 0) {
+            return (int)Math.floor(origin);
+        }
+        return (int)Math.floor(Math.scalb(origin, zoom)) << -zoom;
+    }
+
+    /**
+     * @return pyramid level of the view units, 0 when zoomed in
+     */
+    private int getLevel () {
+        return Math.max(-myZoom, 0);
+    }
+
+    private int getUnitRows () {
+        return myZoom >= 0 ? (myHeight - 1 >> myZoom) + 1 : myHeight;
+    }
+
+    private int getUnitColumns () {
+        return myZoom >= 0 ? (myWidth - 1 >> myZoom) + 1 : myWidth;
+    }
+
+    /**
+     * Moves the center of the view, keeping it inside the grid
+     */
+    @Override
+    public synchronized boolean moveView (double down, double right) {
+        double cellsPerPixel = Math.scalb(1.0, -myRequestedZoom);
+        double centerX = Math.max(0, Math.min(myMaxX, myCenterX + down * myHeight * cellsPerPixel));
+        double centerY = Math.max(0, Math.min(myMaxY, myCenterY + right * myWidth * cellsPerPixel));
+        boolean moved = centerX != myCenterX || centerY != myCenterY;
+        myCenterX = centerX;
+        myCenterY = centerY;
+        return moved;
+    }
+
+    /**
+     * Zooms about the center of the view, no further out than the whole grid fits on screen
+     */
+    @Override
+    public synchronized boolean zoomView (int levels) {
+        int zoom = Math.max(-myFitLevel, Math.min(MAX_ZOOM, myRequestedZoom + levels));
+        boolean zoomed = zoom != myRequestedZoom;
+        myRequestedZoom = zoom;
+        return zoomed;
+    }
+}
@@ -1,9 +1,12 @@
 package grids;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import grid_displays.Position;
 import simulation_cells.Cell;
 
@@ -16,21 +19,29 @@ import simulation_cells.Cell;
  * @param <E> The type of cell to be stored in this grid
  */
 public abstract class CellGrid<E extends Cell> {
-    private List<List<E>> myCells;
+    private ICellStorage<E> myStorage;
+    private Map<String, NeighborTable> myNeighborTables = new HashMap<String, NeighborTable>();
 
     public CellGrid (List<List<E>> cellGrid) {
-        myCells = cellGrid;
+        this(new ListCellStorage<E>(cellGrid));
+    }
+
+    public CellGrid (ICellStorage<E> storage) {
+        myStorage = storage;
     }
 
     public List<E> getAllCellsInOrder () {
-        List<E> allCells = new LinkedList<E>();
-        for (List<E> row : getMyCells()) {
-            allCells.addAll(row);
+        List<E> allCells = new ArrayList<E>(getNumCells());
+        for (int index = 0; index < getNumCells(); index++) {
+            allCells.add(getCell(index));
         }
         return allCells;
     }
 
     /**
+     * Builds a new list of neighbors on every call. Repeated lookups should use a Neighborhood over
+     * getNeighborTable instead, which does not allocate
+     *
      * @param basePosition the base position of the cell whose neighbors are to be returned
      * @param numNeighborsConsidered 4 for cardinal, 6 for hexagonal, 8 for all including diagonals
      * @param rangeMultiplier number of cell levels away to consider a neighbor
@@ -40,56 +51,184 @@ public abstract class CellGrid<E extends Cell> {
                                  int numNeighborsConsidered,
                                  int rangeMultiplier) {
         List<E> neighbors = new LinkedList<E>();
-        int[] xCoordinateShifts = { -1, 0, 1, 0, 1, 1, -1, -1 };
-        int[] yCoordinateShifts = { 0, 1, 0, -1, 1, -1, 1, -1 };
+        int numDirections = GridTopology.checkedNumNeighbors(numNeighborsConsidered);
         for (int level = 1; level < rangeMultiplier + 1; level++) {
-            int checkedMaxNeighbors = Math.min(numNeighborsConsidered, xCoordinateShifts.length);
-            for (int i = 0; i < checkedMaxNeighbors; i++) {
-                int neighborX = basePosition.getXCoord() + xCoordinateShifts[i] * level;
-                int neighborY = basePosition.getYCoord() + yCoordinateShifts[i] * level;
+            for (int i = 0; i < numDirections; i++) {
+                int neighborX = basePosition.getXCoord() + GridTopology.getXShift(i) * level;
+                int neighborY = basePosition.getYCoord() + GridTopology.getYShift(i) * level;
                 addCellToList(neighbors, new Position(neighborX, neighborY));
             }
         }
         return neighbors;
     }
 
+    /**
+     * Returns the neighbor topology of every cell in this grid, building it on first use and
+     * caching it for the lifetime of the grid
+     *
+     * @param numNeighborsConsidered 4 for cardinal, 6 for hexagonal, 8 for all including diagonals
+     * @param rangeMultiplier number of cell levels away to consider a neighbor
+     * @param distinct whether a cell that is reached more than once (possible on small toroidal
+     *        grids or with a range above 1) should only be listed once
+     * @return table of the neighbors of every cell, each ordered by distance from the base cell
+     */
+    public synchronized NeighborTable getNeighborTable (int numNeighborsConsidered,
+                                                        int rangeMultiplier,
+                                                        boolean distinct) {
+        String key = numNeighborsConsidered + "," + rangeMultiplier + "," + distinct;
+        if (!myNeighborTables.containsKey(key)) {
+            myNeighborTables.put(key, buildNeighborTable(numNeighborsConsidered, rangeMultiplier,
+                                                         distinct));
+        }
+        return myNeighborTables.get(key);
+    }
+
+    private NeighborTable buildNeighborTable (int numNeighborsConsidered,
+                                              int rangeMultiplier,
+                                              boolean distinct) {
+        int numDirections = GridTopology.checkedNumNeighbors(numNeighborsConsidered);
+        int[] offsets = new int[getNumCells() + 1];
+        int[] indices = new int[getNumCells() * numDirections * rangeMultiplier];
+        int count = 0;
+        for (int index = 0; index < getNumCells(); index++) {
+            offsets[index] = count;
+            int x = index / getMaxY();
+            int y = index % getMaxY();
+            for (int level = 1; level < rangeMultiplier + 1; level++) {
+                for (int i = 0; i < numDirections; i++) {
+                    int neighbor = toIndex(x + GridTopology.getXShift(i) * level,
+                                           y + GridTopology.getYShift(i) * level);
+                    if (neighbor >= 0 &&
+                        !(distinct && contains(indices, offsets[index], count, neighbor))) {
+                        indices[count++] = neighbor;
+                    }
+                }
+            }
+        }
+        offsets[getNumCells()] = count;
+        return new NeighborTable(offsets, Arrays.copyOf(indices, count));
+    }
+
+    /**
+     * Walks the rays from a cell in every direction out to the given range, one level at a time,
+     * and writes the index of every cell reached into the given array, in the same order as
+     * getNeighborTable lists them without making them distinct. Builds no table, so it can be used
+     * with any range
+     *
+     * @param cellIndex row-major index of the base cell
+     * @param numNeighborsConsidered 4 for cardinal, 6 for hexagonal, 8 for all including diagonals
+     * @param range number of cell levels away to walk
+     * @param cellIndices to be filled with the cells reached, at least numNeighborsConsidered *
+     *        range long
+     * @return number of cells reached
+     */
+    public int scanRays (int cellIndex,
+                         int numNeighborsConsidered,
+                         int range,
+                         int[] cellIndices) {
+        int x = cellIndex / getMaxY();
+        int y = cellIndex % getMaxY();
+        int numDirections = GridTopology.checkedNumNeighbors(numNeighborsConsidered);
+        int count = 0;
+        for (int level = 1; level < range + 1; level++) {
+            for (int i = 0; i < numDirections; i++) {
+                int neighbor = toIndex(x + GridTopology.getXShift(i) * level,
+                                       y + GridTopology.getYShift(i) * level);
+                if (neighbor >= 0) {
+                    cellIndices[count++] = neighbor;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean contains (int[] values, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Handles adding the cell (or lack thereof) at a given position to a running list of cells.
      *
      * @param cells running list of cells to add to
      * @param position of the cell to add to the running list
      */
-    protected abstract void addCellToList (List<E> cells, Position position);
+    protected void addCellToList (List<E> cells, Position position) {
+        int index = toIndex(position.getXCoord(), position.getYCoord());
+        if (index >= 0) {
+            cells.add(getCell(index));
+        }
+    }
+
+    /**
+     * Maps a pair of coordinates, which may lie outside of the grid, to the row-major index of the
+     * cell found there
+     *
+     * @return the index of the cell at the given coordinates, or -1 if there is no such cell
+     */
+    protected abstract int toIndex (int x, int y);
 
+    /**
+     * @return every cell in the grid, in row-major order
+     */
     public Collection<E> getAllCells () {
-        Collection<E> allCells = new HashSet<E>();
-        for (List<E> row : getMyCells()) {
-            allCells.addAll(row);
+        Collection<E> allCells = new ArrayList<E>(getNumCells());
+        for (int index = 0; index < getNumCells(); index++) {
+            allCells.add(getCell(index));
         }
         return allCells;
     }
 
     public List<List<E>> getCellsInGrid () {
-        return getMyCells();
+        return getStorage().getCellsInGrid();
     }
 
     /**
      * @return The specific cell at the given position
      */
     protected E getCell (Position position) {
-        return getMyCells().get(position.getXCoord()).get(position.getYCoord());
+        return getCell(position.getXCoord(), position.getYCoord());
+    }
+
+    /**
+     * @return The specific cell at the given coordinates
+     */
+    public E getCell (int x, int y) {
+        return getStorage().getCell(x, y);
+    }
+
+    /**
+     * @return The specific cell at the given row-major index
+     */
+    public E getCell (int index) {
+        return getStorage().getCell(index);
+    }
+
+    /**
+     * Notifies the grid that the cell at the given index may have changed state
+     */
+    public void refreshState (int index) {
+        getStorage().refreshState(index);
+    }
+
+    public int getNumCells () {
+        return getMaxX() * getMaxY();
     }
 
     public int getMaxX () {
-        return getMyCells().size();
+        return getStorage().getMaxX();
     }
 
     public int getMaxY () {
-        return getMyCells().get(0).size();
+        return getStorage().getMaxY();
     }
 
-    private List<List<E>> getMyCells () {
-        return myCells;
+    protected ICellStorage<E> getStorage () {
+        return myStorage;
     }
 
 }
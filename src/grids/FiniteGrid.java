@@ -1,7 +1,6 @@
 package grids;
 
 import java.util.List;
-import grid_displays.Position;
 import simulation_cells.Cell;
 
 
@@ -18,19 +17,21 @@ public class FiniteGrid<E extends Cell> extends CellGrid<E> {
         super(cellGrid);
     }
 
+    public FiniteGrid (ICellStorage<E> storage) {
+        super(storage);
+    }
+
     /**
-     * Adds the cell based on the given position to a running list, based on a finite grid where if
-     * the position is outside of the grid bounds, no cell is added
+     * Finds the index of the cell at the given coordinates based on a finite grid, where if the
+     * position is outside of the grid bounds, there is no cell
      */
     @Override
-    protected void addCellToList (List<E> cells, Position position) {
-        int xCoord = position.getXCoord();
-        int yCoord = position.getYCoord();
+    protected int toIndex (int xCoord, int yCoord) {
         if (xCoord >= 0 && xCoord < getMaxX() &&
             yCoord >= 0 && yCoord < getMaxY()) {
-            cells.add(getCell(position));
+            return xCoord * getMaxY() + yCoord;
         }
-
+        return -1;
     }
 
 }
@@ -0,0 +1,96 @@
+package grids;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import simulation_cells.Cell;
+import states.IState;
+
+
+/**
+ * Stores cells in a single row-major array so that every access is a constant time index, and
+ * keeps a parallel plane with the ordinal of each cell's current state so that state lookups do not
+ * need to dereference the cell at all
+ *
+ * @author David Maydew
+ *
+ * @param <E> The type of cell to be stored
+ */
+public class FlatCellStorage<E extends Cell> implements ICellStorage<E> {
+    private final Cell[] myCells;
+    private final byte[] myStates;
+    private final int myMaxX;
+    private final int myMaxY;
+
+    /**
+     * Copies the given 2d list of cells into a flat array
+     *
+     * @param cellGrid rectangular 2d list of cells, indexed [x][y]
+     */
+    public FlatCellStorage (List<List<E>> cellGrid) {
+        myMaxX = cellGrid.size();
+        myMaxY = cellGrid.get(0).size();
+        myCells = new Cell[myMaxX * myMaxY];
+        myStates = new byte[myCells.length];
+        int index = 0;
+        for (List<E> row : cellGrid) {
+            for (E cell : row) {
+                myCells[index] = cell;
+                refreshState(index);
+                index++;
+            }
+        }
+    }
+
+    @Override
+    public E getCell (int x, int y) {
+        return getCell(x * myMaxY + y);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getCell (int index) {
+        return (E)myCells[index];
+    }
+
+    @Override
+    public void refreshState (int index) {
+        myStates[index] = (byte)ordinalOf(myCells[index].getState());
+    }
+
+    /**
+     * @return the ordinal of the state that the cell at the given index was in when it was last
+     *         refreshed
+     */
+    public int getStateOrdinal (int index) {
+        return myStates[index];
+    }
+
+    private int ordinalOf (IState state) {
+        return ((Enum<?>)state).ordinal();
+    }
+
+    /**
+     * @return 2d list view of the cells, with each row backed by the flat array
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<List<E>> getCellsInGrid () {
+        List<E> allCells = Arrays.asList((E[])myCells);
+        List<List<E>> rows = new ArrayList<List<E>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            rows.add(allCells.subList(x * myMaxY, (x + 1) * myMaxY));
+        }
+        return rows;
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+}
@@ -0,0 +1,172 @@
+package grids;
+
+/**
+ * Neighbor layout of a grid of a given size: the directions in which the neighbors of a cell are
+ * found, in the order every grid lists them, and how the edges of the grid are treated. Finds the
+ * neighbors of a cell arithmetically, so that managers that keep their cells in primitive planes
+ * instead of a CellGrid list the same neighbors in the same order as CellGrid does
+ *
+ * @author David Maydew
+ *
+ */
+public class GridTopology {
+    // cardinal directions first, then the two diagonals of a hexagonal grid, then the other two
+    private static final int[] X_COORDINATE_SHIFTS = { -1, 0, 1, 0, 1, 1, -1, -1 };
+    private static final int[] Y_COORDINATE_SHIFTS = { 0, 1, 0, -1, 1, -1, 1, -1 };
+
+    private final int myMaxX;
+    private final int myMaxY;
+    private final boolean myToroidal;
+    private final int myNumNeighborsConsidered;
+
+    /**
+     * @param maxX number of rows
+     * @param maxY number of columns
+     * @param toroidal whether coordinates off one edge of the grid wrap around to the opposite
+     *        edge, instead of having no cell
+     * @param numNeighborsConsidered 4 for cardinal, 6 for hexagonal, 8 for all including diagonals
+     */
+    public GridTopology (int maxX, int maxY, boolean toroidal, int numNeighborsConsidered) {
+        myMaxX = maxX;
+        myMaxY = maxY;
+        myToroidal = toroidal;
+        myNumNeighborsConsidered = checkedNumNeighbors(numNeighborsConsidered);
+    }
+
+    /**
+     * Reads the value of the GridEdge style property
+     *
+     * @return true for a Toroidal grid, false for a Finite one
+     */
+    public static boolean isToroidalEdge (String gridEdge) {
+        if (gridEdge.equals("Finite")) {
+            return false;
+        }
+        else if (gridEdge.equals("Toroidal")) {
+            return true;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the number of neighbors considered, capped at the number of directions there are
+     */
+    public static int checkedNumNeighbors (int numNeighborsConsidered) {
+        return Math.min(numNeighborsConsidered, X_COORDINATE_SHIFTS.length);
+    }
+
+    /**
+     * @return change in x coordinate from a cell to its neighbor in the given direction
+     */
+    public static int getXShift (int direction) {
+        return X_COORDINATE_SHIFTS[direction];
+    }
+
+    /**
+     * @return change in y coordinate from a cell to its neighbor in the given direction
+     */
+    public static int getYShift (int direction) {
+        return Y_COORDINATE_SHIFTS[direction];
+    }
+
+    /**
+     * Maps a pair of coordinates, which may lie outside of the grid, to the row-major index of the
+     * cell found there
+     *
+     * @return the index of the cell at the given coordinates, or -1 if there is no such cell
+     */
+    public int toIndex (int x, int y) {
+        if (x < 0 || x >= myMaxX || y < 0 || y >= myMaxY) {
+            if (!myToroidal) {
+                return -1;
+            }
+            x = Math.floorMod(x, myMaxX);
+            y = Math.floorMod(y, myMaxY);
+        }
+        return x * myMaxY + y;
+    }
+
+    /**
+     * Fills the given array with the indices of the neighbors of a cell, every direction one cell
+     * away, then every direction two cells away, and so on, in the same order as
+     * CellGrid.getNeighborTable lists them
+     *
+     * @param range number of cell levels away to consider a neighbor
+     * @param distinct whether a cell that is reached more than once, which only happens on
+     *        toroidal grids under 2 * range + 1 wide, should only be listed once
+     * @param cellIndices to be filled with the neighbors, at least getNumNeighborsConsidered() *
+     *        range long
+     * @return number of neighbors found
+     */
+    public int fillNeighbors (int x, int y, int range, boolean distinct, int[] cellIndices) {
+        return fillCells(x, y, range, 1, distinct, cellIndices);
+    }
+
+    /**
+     * Fills the given array with the indices of the cells that have the given cell among their
+     * neighbors one cell away, found by stepping back along each direction in turn. Each cell is
+     * only listed once
+     *
+     * @param cellIndices to be filled with the cells, at least getNumNeighborsConsidered() long
+     * @return number of cells found
+     */
+    public int fillReverseNeighbors (int x, int y, int[] cellIndices) {
+        return fillCells(x, y, 1, -1, true, cellIndices);
+    }
+
+    /**
+     * @param sign 1 to step along each direction, -1 to step back along it
+     */
+    private int fillCells (int x, int y, int range, int sign, boolean distinct, int[] cellIndices) {
+        boolean mayRepeat = distinct && myToroidal &&
+                            (myMaxX < 2 * range + 1 || myMaxY < 2 * range + 1);
+        int numCells = 0;
+        for (int level = sign; level * sign < range + 1; level += sign) {
+            for (int i = 0; i < myNumNeighborsConsidered; i++) {
+                int cell = toIndex(x + X_COORDINATE_SHIFTS[i] * level,
+                                   y + Y_COORDINATE_SHIFTS[i] * level);
+                if (cell >= 0 && !(mayRepeat && contains(cellIndices, numCells, cell))) {
+                    cellIndices[numCells++] = cell;
+                }
+            }
+        }
+        return numCells;
+    }
+
+    /**
+     * @return index offsets from a cell to each of its neighbors, in neighbor order, which hold
+     *         for every cell at least one cell away from each edge of the grid
+     */
+    public int[] getInteriorOffsets () {
+        int[] offsets = new int[myNumNeighborsConsidered];
+        for (int i = 0; i < myNumNeighborsConsidered; i++) {
+            offsets[i] = X_COORDINATE_SHIFTS[i] * myMaxY + Y_COORDINATE_SHIFTS[i];
+        }
+        return offsets;
+    }
+
+    private boolean contains (int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getNumNeighborsConsidered () {
+        return myNumNeighborsConsidered;
+    }
+
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    public boolean isToroidal () {
+        return myToroidal;
+    }
+}
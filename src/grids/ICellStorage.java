@@ -0,0 +1,49 @@
+package grids;
+
+import java.util.List;
+import simulation_cells.Cell;
+
+
+/**
+ * Backing store for the cells managed by a CellGrid. Cells can be addressed either by their 2d
+ * coordinates or by their row-major index, where index = x * getMaxY() + y
+ *
+ * @author David Maydew
+ *
+ * @param <E> The type of cell to be stored
+ */
+public interface ICellStorage<E extends Cell> {
+
+    /**
+     * @return the cell at the given coordinates
+     */
+    E getCell (int x, int y);
+
+    /**
+     * @return the cell at the given row-major index
+     */
+    E getCell (int index);
+
+    /**
+     * Records the current state of the cell at the given index. Storages that keep a separate state
+     * plane use this to stay in sync after a cell has been updated
+     *
+     * @param index row-major index of the cell whose state changed
+     */
+    void refreshState (int index);
+
+    /**
+     * @return 2d list view of all of the cells in this storage
+     */
+    List<List<E>> getCellsInGrid ();
+
+    /**
+     * @return number of rows stored
+     */
+    int getMaxX ();
+
+    /**
+     * @return number of columns stored
+     */
+    int getMaxY ();
+}
@@ -0,0 +1,68 @@
+package grids;
+
+import java.util.Arrays;
+
+
+/**
+ * Set of cell indices that can add a member, remove a member and pick a member at random in
+ * constant time. The members are kept packed at the front of an array, and removing one moves the
+ * last member into its place, so their order changes as the pool changes
+ *
+ * @author David Maydew
+ *
+ */
+public class IndexPool {
+    private static final int ABSENT = -1;
+
+    private final int[] myMembers;
+    private final int[] myPositions;
+    private int mySize;
+
+    /**
+     * @param numCells one more than the largest index the pool can hold
+     */
+    public IndexPool (int numCells) {
+        myMembers = new int[numCells];
+        myPositions = new int[numCells];
+        Arrays.fill(myPositions, ABSENT);
+    }
+
+    /**
+     * Adds the index to the pool, unless it is already there
+     */
+    public void add (int index) {
+        if (!contains(index)) {
+            myMembers[mySize] = index;
+            myPositions[index] = mySize++;
+        }
+    }
+
+    /**
+     * Removes the index from the pool, if it is there
+     */
+    public void remove (int index) {
+        int position = myPositions[index];
+        if (position != ABSENT) {
+            int last = myMembers[--mySize];
+            myMembers[position] = last;
+            myPositions[last] = position;
+            myPositions[index] = ABSENT;
+        }
+    }
+
+    public boolean contains (int index) {
+        return myPositions[index] != ABSENT;
+    }
+
+    /**
+     * @param position between 0 and size() - 1, e.g. chosen at random
+     * @return the member stored at that position
+     */
+    public int get (int position) {
+        return myMembers[position];
+    }
+
+    public int size () {
+        return mySize;
+    }
+}
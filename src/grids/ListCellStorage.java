@@ -0,0 +1,53 @@
+package grids;
+
+import java.util.List;
+import simulation_cells.Cell;
+
+
+/**
+ * Stores cells in the 2d list they were created in. Access time depends on the type of list used
+ * for each row
+ *
+ * @author David Maydew
+ *
+ * @param <E> The type of cell to be stored
+ */
+public class ListCellStorage<E extends Cell> implements ICellStorage<E> {
+    private List<List<E>> myCells;
+
+    public ListCellStorage (List<List<E>> cellGrid) {
+        myCells = cellGrid;
+    }
+
+    @Override
+    public E getCell (int x, int y) {
+        return myCells.get(x).get(y);
+    }
+
+    @Override
+    public E getCell (int index) {
+        return getCell(index / getMaxY(), index % getMaxY());
+    }
+
+    /**
+     * The state of every cell is only stored in the cell itself, so there is nothing to refresh
+     */
+    @Override
+    public void refreshState (int index) {
+    }
+
+    @Override
+    public List<List<E>> getCellsInGrid () {
+        return myCells;
+    }
+
+    @Override
+    public int getMaxX () {
+        return myCells.size();
+    }
+
+    @Override
+    public int getMaxY () {
+        return myCells.get(0).size();
+    }
+}
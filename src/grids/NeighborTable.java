@@ -0,0 +1,88 @@
+package grids;
+
+import java.util.Arrays;
+
+
+/**
+ * Immutable, precomputed neighbor topology for every cell of a grid, stored in compressed sparse
+ * row form: the neighbors of the cell with row-major index i are the cell indices stored in
+ * getNeighborIndex(getStart(i)) through getNeighborIndex(getEnd(i) - 1), ordered by distance from
+ * the base cell
+ *
+ * @author David Maydew
+ *
+ */
+public class NeighborTable {
+    private final int[] myOffsets;
+    private final int[] myIndices;
+
+    /**
+     * @param offsets array of length numCells + 1, where offsets[i] is the position in indices of
+     *        the first neighbor of cell i
+     * @param indices row-major indices of the neighbors of every cell, back to back
+     */
+    public NeighborTable (int[] offsets, int[] indices) {
+        myOffsets = offsets;
+        myIndices = indices;
+    }
+
+    /**
+     * @return position in the table of the first neighbor of the given cell
+     */
+    public int getStart (int cellIndex) {
+        return myOffsets[cellIndex];
+    }
+
+    /**
+     * @return position in the table one past the last neighbor of the given cell
+     */
+    public int getEnd (int cellIndex) {
+        return myOffsets[cellIndex + 1];
+    }
+
+    /**
+     * @return number of neighbors of the given cell
+     */
+    public int getNumNeighbors (int cellIndex) {
+        return getEnd(cellIndex) - getStart(cellIndex);
+    }
+
+    /**
+     * @param tablePosition position in the table, between getStart and getEnd of some cell
+     * @return row-major index of the neighbor stored at that position
+     */
+    public int getNeighborIndex (int tablePosition) {
+        return myIndices[tablePosition];
+    }
+
+    /**
+     * @return number of cells described by this table
+     */
+    public int getNumCells () {
+        return myOffsets.length - 1;
+    }
+
+    /**
+     * Builds the reverse of this table, in which the neighbors of a cell are the cells that list it
+     * as one of their neighbors here
+     *
+     * @return table of the cells that each cell is a neighbor of, ordered by index
+     */
+    public NeighborTable transpose () {
+        int[] offsets = new int[myOffsets.length];
+        for (int position = 0; position < myIndices.length; position++) {
+            offsets[myIndices[position] + 1]++;
+        }
+        for (int index = 0; index < getNumCells(); index++) {
+            offsets[index + 1] += offsets[index];
+        }
+        int[] next = Arrays.copyOf(offsets, getNumCells());
+        int[] indices = new int[myIndices.length];
+        for (int index = 0; index < getNumCells(); index++) {
+            for (int position = getStart(index); position < getEnd(index); position++) {
+                indices[next[myIndices[position]]++] = index;
+            }
+        }
+        return new NeighborTable(offsets, indices);
+    }
+}
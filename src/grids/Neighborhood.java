@@ -0,0 +1,60 @@
+package grids;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import simulation_cells.Cell;
+
+
+/**
+ * Reusable list view of the neighbors of one cell, backed by a precomputed NeighborTable. Moving
+ * the view to another cell is constant time and does not allocate, so a single view can be used
+ * for a whole pass over the grid. The contents of the view change whenever it is moved, so it
+ * should not be held on to past the calculation it was requested for
+ *
+ * @author David Maydew
+ *
+ * @param <E> type of cell
+ */
+public class Neighborhood<E extends Cell> extends AbstractList<E> implements RandomAccess {
+    private final CellGrid<E> myGrid;
+    private final NeighborTable myTable;
+    private int myStart;
+    private int mySize;
+
+    public Neighborhood (CellGrid<E> grid, NeighborTable table) {
+        myGrid = grid;
+        myTable = table;
+    }
+
+    /**
+     * Points this view at the neighbors of another cell
+     *
+     * @param cellIndex row-major index of the base cell
+     * @return this view, for chaining
+     */
+    public Neighborhood<E> moveTo (int cellIndex) {
+        myStart = myTable.getStart(cellIndex);
+        mySize = myTable.getNumNeighbors(cellIndex);
+        return this;
+    }
+
+    @Override
+    public E get (int i) {
+        return myGrid.getCell(getCellIndex(i));
+    }
+
+    /**
+     * @return row-major index of the i-th neighbor in this view
+     */
+    public int getCellIndex (int i) {
+        if (i < 0 || i >= mySize) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        return myTable.getNeighborIndex(myStart + i);
+    }
+
+    @Override
+    public int size () {
+        return mySize;
+    }
+}
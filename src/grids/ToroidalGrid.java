@@ -1,7 +1,6 @@
 package grids;
 
 import java.util.List;
-import grid_displays.Position;
 import simulation_cells.Cell;
 
 
@@ -18,15 +17,19 @@ public class ToroidalGrid<E extends Cell> extends CellGrid<E> {
         super(cellGrid);
     }
 
+    public ToroidalGrid (ICellStorage<E> storage) {
+        super(storage);
+    }
+
     /**
-     * Adds the cell based on the given position to a running list, based on a toroidal grid where
-     * if the position is outside of the grid bounds, the coordinates wrap around from the opposite
-     * side of the grid and access that cell
+     * Finds the index of the cell at the given coordinates based on a toroidal grid, where if the
+     * position is outside of the grid bounds, the coordinates wrap around from the opposite side of
+     * the grid
      */
     @Override
-    protected void addCellToList (List<E> cells, Position position) {
-        int wrappedXCoord = (position.getXCoord() % getMaxX() + getMaxX()) % getMaxX();
-        int wrappedYCoord = (position.getYCoord() % getMaxY() + getMaxY()) % getMaxY();
-        cells.add(getCell(new Position(wrappedXCoord, wrappedYCoord)));
+    protected int toIndex (int xCoord, int yCoord) {
+        int wrappedXCoord = (xCoord % getMaxX() + getMaxX()) % getMaxX();
+        int wrappedYCoord = (yCoord % getMaxY() + getMaxY()) % getMaxY();
+        return wrappedXCoord * getMaxY() + wrappedYCoord;
     }
 }
@@ -0,0 +1,83 @@
+package grids;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import simulation_cells.Cell;
+
+
+/**
+ * Reusable list view of the cells a cell can see out to some range, found by walking the rays
+ * from the cell in every direction with CellGrid.scanRays. Unlike a Neighborhood it needs no
+ * table, so it takes no memory per cell whatever the range. The rays are only walked once the
+ * view is first read after being moved, so moving it for a cell whose rules never look at its
+ * neighbors costs nothing, and it does not allocate once it has been used with the largest
+ * range. The contents of the view change whenever it is moved, so it should not be held on to
+ * past the calculation it was requested for
+ *
+ * @author David Maydew
+ *
+ * @param <E> type of cell
+ */
+public class VisionScan<E extends Cell> extends AbstractList<E> implements RandomAccess {
+    private static final int NOT_SCANNED = -1;
+
+    private final CellGrid<E> myGrid;
+    private final int myNumNeighborsConsidered;
+    private int[] myCellIndices = new int[0];
+    private int myCellIndex;
+    private int myRange;
+    // number of cells seen, or NOT_SCANNED until the rays have been walked
+    private int mySize;
+
+    /**
+     * @param numNeighborsConsidered 4 for cardinal, 6 for hexagonal, 8 for all including diagonals
+     */
+    public VisionScan (CellGrid<E> grid, int numNeighborsConsidered) {
+        myGrid = grid;
+        myNumNeighborsConsidered = numNeighborsConsidered;
+    }
+
+    /**
+     * Points this view at the cells another cell can see
+     *
+     * @param cellIndex row-major index of the base cell
+     * @param range number of cells away the base cell can see
+     * @return this view, for chaining
+     */
+    public VisionScan<E> moveTo (int cellIndex, int range) {
+        myCellIndex = cellIndex;
+        myRange = range;
+        mySize = NOT_SCANNED;
+        return this;
+    }
+
+    private void scan () {
+        if (myCellIndices.length < myNumNeighborsConsidered * myRange) {
+            myCellIndices = new int[myNumNeighborsConsidered * myRange];
+        }
+        mySize = myGrid.scanRays(myCellIndex, myNumNeighborsConsidered, myRange, myCellIndices);
+    }
+
+    @Override
+    public E get (int i) {
+        return myGrid.getCell(getCellIndex(i));
+    }
+
+    /**
+     * @return row-major index of the i-th cell in this view
+     */
+    public int getCellIndex (int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        return myCellIndices[i];
+    }
+
+    @Override
+    public int size () {
+        if (mySize == NOT_SCANNED) {
+            scan();
+        }
+        return mySize;
+    }
+}
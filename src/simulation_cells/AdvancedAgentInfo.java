@@ -33,6 +33,7 @@ public class AdvancedAgentInfo extends BasicAgentInfo {
     }
 
     public void copyInfo (AdvancedAgentInfo info) {
+        setSugar(info.getSugar());
         setAge(info.getAge());
         setSugarMetabolism(info.getSugarMetabolism());
         setVision(info.getVision());
@@ -46,7 +47,7 @@ public class AdvancedAgentInfo extends BasicAgentInfo {
     }
 
     public void initializeGender () {
-        myGender = (Math.random() <= GENDER_RATIO) ? Gender.F : Gender.M;
+        myGender = (RandomStreams.current().nextDouble() <= GENDER_RATIO) ? Gender.F : Gender.M;
     }
 
     public void setGender (Gender g) {
@@ -74,7 +75,14 @@ public class AdvancedAgentInfo extends BasicAgentInfo {
     }
 
     public boolean canReproduceWith (AdvancedAgentInfo info) {
-        return isFertile() && info.isFertile() && getGender() != info.getGender();
+        return canReproduceAtAgeWith(getAge(), info);
+    }
+
+    /**
+     * Whether this agent could reproduce with another if it were the given age
+     */
+    public boolean canReproduceAtAgeWith (int age, AdvancedAgentInfo info) {
+        return isFertileAtAge(age) && info.isFertile() && getGender() != info.getGender();
     }
 
     public void setAge (int age) {
@@ -95,7 +103,14 @@ public class AdvancedAgentInfo extends BasicAgentInfo {
     }
 
     public boolean isFertile () {
-        return getAge() <= myFertileLimitsUpper && getAge() >= myFertileLimitsLower &&
+        return isFertileAtAge(getAge());
+    }
+
+    /**
+     * Whether this agent would be fertile at the given age with its current sugar
+     */
+    public boolean isFertileAtAge (int age) {
+        return age <= myFertileLimitsUpper && age >= myFertileLimitsLower &&
                getSugar() >= myInitialSugar;
     }
 
@@ -55,7 +55,7 @@ public abstract class AgentInfo {
     }
 
     public int generateRandomInteger (int lowerBound, int upperBound) {
-        return (int)(Math.random() * (upperBound - lowerBound) + lowerBound);
+        return (int)(RandomStreams.current().nextDouble() * (upperBound - lowerBound) + lowerBound);
     }
 
     public void subtractSugarMetabolism () {
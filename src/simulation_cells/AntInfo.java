@@ -3,7 +3,7 @@ package simulation_cells;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
 
 
 /**
@@ -38,24 +38,25 @@ public class AntInfo {
     }
 
     /**
-     * Public method to be used by AntCell that sorts Neighbors
+     * Public method to be used by AntCell that sorts Neighbors from the most to the least of
+     * the pheromone the ant is following, keeping neighbors with equal amounts in order
      * 
      * @param neighbors
      * @return
      */
-    public ArrayList<ForagingAntCell> sortNeighbors (Set<ForagingAntCell> neighbors) {
+    public ArrayList<ForagingAntCell> sortNeighbors (List<ForagingAntCell> neighbors) {
         ArrayList<ForagingAntCell> sortedNeighbors = new ArrayList<ForagingAntCell>(neighbors);
         if (getHasFood()) {
             Collections.sort(sortedNeighbors,
                              (ForagingAntCell o1,
-                              ForagingAntCell o2) -> (int)(o2.getNestPheromone() -
-                                                            o1.getNestPheromone()));
+                              ForagingAntCell o2) -> Double.compare(o2.getNestPheromone(),
+                                                                    o1.getNestPheromone()));
         }
         else {
             Collections.sort(sortedNeighbors,
                              (ForagingAntCell o1,
-                              ForagingAntCell o2) -> (int)(o2.getFoodPheromone() -
-                                                            o1.getFoodPheromone()));
+                              ForagingAntCell o2) -> Double.compare(o2.getFoodPheromone(),
+                                                                    o1.getFoodPheromone()));
         }
         return sortedNeighbors;
     }
@@ -82,7 +83,7 @@ public class AntInfo {
             if (nextCell.getNumberOfAnts() > nextCell.getMaxAntsinCell()) {
                 continue;
             }
-            if (Math.random() <= probability) {
+            if (RandomStreams.current().nextDouble() <= probability) {
                 return nextCell;
             }
             else {
@@ -1,17 +1,22 @@
 package simulation_cells;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Random;
-import javafx.scene.paint.Color;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import states.CellColor;
 import states.IState;
 
 
 public abstract class Cell {
+    private static final long UNCLAIMED = Long.MIN_VALUE;
+    private static final AtomicLongFieldUpdater<Cell> CLAIM_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(Cell.class, "myClaim");
 
     private IState myState;
     private IState myNextState;
+    private volatile long myClaim = UNCLAIMED;
 
     public Cell (IState state) {
         myState = state;
@@ -42,22 +47,103 @@ public abstract class Cell {
         myNextState = null;
     }
 
-    protected boolean nextAlreadyCalculated () {
+    public boolean nextAlreadyCalculated () {
         return getNextState() != null;
     }
 
-    public Color getColor () {
+    /**
+     * Claims this cell for the agent with the given key, unless an agent with a higher key has
+     * already claimed it. Safe to call from several threads at once
+     *
+     * @param key unique priority of the claiming agent
+     */
+    public void claim (long key) {
+        long current = myClaim;
+        while (key > current && !CLAIM_UPDATER.compareAndSet(this, current, key)) {
+            current = myClaim;
+        }
+    }
+
+    public boolean isClaimedBy (long key) {
+        return myClaim == key;
+    }
+
+    public void releaseClaim () {
+        myClaim = UNCLAIMED;
+    }
+
+    public CellColor getColor () {
         return myState.getColor();
     }
 
     /**
-     * Randomly pick an element from a collection of objects
+     * @return the color of getColor packed as an ARGB int. Cells whose color is not that of their
+     *         state should override this to look it up without creating a color
+     */
+    public int getArgb () {
+        return getColor().toArgb();
+    }
+
+    /**
+     * Randomly picks one of the elements that pass the filter, each with the same chance, by
+     * reservoir sampling in a single pass over the list. Nothing is copied, so the neighbor views
+     * handed out by the managers can be sampled without allocating
      *
-     * @param <E>
+     * @return the chosen element, or null if no element passes the filter
+     */
+    public static <E> E getRandomElement (List<E> elements, Predicate<? super E> filter) {
+        SplittableRandom random = RandomStreams.current();
+        E chosen = null;
+        int numMatches = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            E element = elements.get(i);
+            if (filter.test(element) && random.nextInt(++numMatches) == 0) {
+                chosen = element;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Picks the element with the highest score among those that pass the filter, in a single pass
+     * over the list, breaking ties at random by reservoir sampling
+     *
+     * @return the chosen element, or null if no element passes the filter
+     */
+    public static <E> E getRandomMaximum (List<E> elements,
+                                          Predicate<? super E> filter,
+                                          ToDoubleFunction<? super E> score) {
+        SplittableRandom random = RandomStreams.current();
+        E chosen = null;
+        double maxScore = Double.NEGATIVE_INFINITY;
+        int numTies = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            E element = elements.get(i);
+            if (!filter.test(element)) {
+                continue;
+            }
+            double elementScore = score.applyAsDouble(element);
+            if (chosen == null || elementScore > maxScore) {
+                chosen = element;
+                maxScore = elementScore;
+                numTies = 1;
+            }
+            else if (elementScore == maxScore && random.nextInt(++numTies) == 0) {
+                chosen = element;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * @return whether any element of the list passes the filter
      */
-    public <E> E getRandomElement (Collection<E> elements) {
-        int randomIndex = new Random().nextInt(elements.size());
-        List<E> cellList = new ArrayList<E>(elements);
-        return cellList.get(randomIndex);
+    public static <E> boolean anyMatch (List<E> elements, Predicate<? super E> filter) {
+        for (int i = 0; i < elements.size(); i++) {
+            if (filter.test(elements.get(i))) {
+                return true;
+            }
+        }
+        return false;
     }
 }
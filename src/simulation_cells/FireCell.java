@@ -1,6 +1,6 @@
 package simulation_cells;
 
-import java.util.Set;
+import java.util.List;
 import states.FireState;
 
 
@@ -29,15 +29,15 @@ public class FireCell extends Cell {
      *
      * @param neighbors up to 4 adjacent cells
      */
-    public void calculateNextState (Set<FireCell> set) {
+    public void calculateNextState (List<FireCell> set) {
         if (getState() == FireState.EMPTY || getState() == FireState.BURNING) {
             setNextState(FireState.EMPTY);
         }
         else {
             setNextState(FireState.TREE);
-            for (FireCell cell : set) {
-                if (cell.getState() == FireState.BURNING &&
-                    Math.random() < getCatchFireProb()) {
+            for (int i = 0; i < set.size(); i++) {
+                if (set.get(i).getState() == FireState.BURNING &&
+                    RandomStreams.current().nextDouble() < getCatchFireProb()) {
                     setNextState(FireState.BURNING);
                     break;
                 }
@@ -60,7 +60,7 @@ public class FireCell extends Cell {
      * @param set up to 4 adjacent cells
      * @return whether or not this cell is satisfied
      */
-    public boolean isStable (Set<FireCell> set) {
+    public boolean isStable (List<FireCell> set) {
         calculateNextState(set);
         return getState() == getNextState();
     }
@@ -1,22 +1,25 @@
 package simulation_cells;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Iterator;
-import java.util.Set;
-import javafx.scene.paint.Color;
+import java.util.List;
+import states.CellColor;
+import states.ColorPalette;
 import states.ForagingAntState;
 
 
 public class ForagingAntCell extends Cell {
 
+    public static final double GRAD_FACTOR = 2.0;
+    public static final double SOURCE_PHEROMONE_VALUE = 10000.0;
+    public static final int ANT_POPULATION = 50;
+
     private static final int COLOR_MIN = 50;
     private static final int RGB_MAX = 255;
     private static final double N_POWER = 10.0;
     private static final double K_FACTOR = 0.001;
-    private static final double GRAD_FACTOR = 2.0;
-    private static final double SOURCE_PHEROMONE_VALUE = 10000.0;
-    private static final int ANT_POPULATION = 50;
+    private static final int[] ANT_GRADIENT = ColorPalette.gradient(CellColor.RED);
 
     private int myAntLifetime;
     private double myEvapRatio;
@@ -33,11 +36,11 @@ public class ForagingAntCell extends Cell {
         super(state);
         myAntLifetime = antlifetime;
         myEvapRatio = evapRatio;
-        myAnts = new HashSet<AntInfo>();
+        myAnts = new LinkedHashSet<AntInfo>();
         isFood = state == ForagingAntState.FOODSOURCE;
         isNest = state == ForagingAntState.NEST;
         this.myMaxAntsinCell = maxAntsinCell;
-        myPheromone = new PheromoneInfo();
+        myPheromone = new PheromoneInfo(evapRatio);
 
         if (state == ForagingAntState.NEST) {
             for (int i = 0; i < ANT_POPULATION; i++) {
@@ -52,13 +55,12 @@ public class ForagingAntCell extends Cell {
 
     
     /**
-     * Implements calculateNextState in the superclass
+     * Implements calculateNextState in the superclass. The pheromones of every cell have already
+     * been refilled and evaporated by the manager
      * 
      * @param neighbors
      */
-    public void calculateNextState (Set<ForagingAntCell> neighbors) {
-        resetPheromones();
-        getMyPheromone().evaporate();
+    public void calculateNextState (List<ForagingAntCell> neighbors) {
         moveAnts(neighbors);
         if (isFood) {
             setNextState(ForagingAntState.FOODSOURCE);
@@ -82,7 +84,7 @@ public class ForagingAntCell extends Cell {
      * 
      * @param neighbors
      */
-    public void moveAnts (Set<ForagingAntCell> neighbors) {
+    public void moveAnts (List<ForagingAntCell> neighbors) {
         for (Iterator<AntInfo> iterator = getMyAnts().iterator(); iterator.hasNext();) {
             AntInfo ant = iterator.next();
             ant.incrementAge();
@@ -178,7 +180,7 @@ public class ForagingAntCell extends Cell {
      * 
      */
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         if (getState() == ForagingAntState.FOODSOURCE || getState() == ForagingAntState.NEST ||
             getState() == ForagingAntState.PHEROMONE) {
             return getState().getColor();
@@ -187,7 +189,26 @@ public class ForagingAntCell extends Cell {
             double ratio = getNumberOfAnts() * 1.0 / getMaxAntsinCell();
             ratio = ratio > 1.00 ? 1 : ratio;
             Math.max(COLOR_MIN * 1.0 / RGB_MAX, 1 - ratio);
-            return new Color(1.0, 0, 0, ratio);
+            return new CellColor(1.0, 0, 0, ratio);
         }
     }
+
+    /**
+     * Same color as getColor, without creating a color for cells with ants
+     */
+    @Override
+    public int getArgb () {
+        if (getState() == ForagingAntState.FOODSOURCE || getState() == ForagingAntState.NEST ||
+            getState() == ForagingAntState.PHEROMONE) {
+            return getState().getColor().toArgb();
+        }
+        return toAntArgb(getNumberOfAnts(), getMaxAntsinCell());
+    }
+
+    /**
+     * @return ARGB color of a cell with ants, shaded by how full it is
+     */
+    public static int toAntArgb (int numAnts, int maxAnts) {
+        return ColorPalette.shade(ANT_GRADIENT, Math.min(numAnts * 1.0 / maxAnts, 1));
+    }
 }
@@ -1,7 +1,6 @@
 package simulation_cells;
 
-import java.util.Collection;
-import java.util.Set;
+import java.util.List;
 import states.GameOfLifeState;
 
 
@@ -15,20 +14,20 @@ public class GameOfLifeCell extends Cell {
     /**
      * Count the number of live neighbors
      *
-     * @param cells:collection
+     * @param cells:list
      *        of neighboring cells
      */
-    public int countLiveNeighbors (Collection<GameOfLifeCell> cells) {
+    public int countLiveNeighbors (List<GameOfLifeCell> cells) {
         int liveNeighbors = 0;
-        for (GameOfLifeCell cell : cells) {
-            if (cell.getState() == GameOfLifeState.ALIVE) {
+        for (int i = 0; i < cells.size(); i++) {
+            if (cells.get(i).getState() == GameOfLifeState.ALIVE) {
                 liveNeighbors++;
             }
         }
         return liveNeighbors;
     }
 
-    public void calculateNextState (Set<GameOfLifeCell> neighbors) {
+    public void calculateNextState (List<GameOfLifeCell> neighbors) {
         if (nextAlreadyCalculated()) {
             return;
         }
@@ -50,7 +49,7 @@ public class GameOfLifeCell extends Cell {
         return liveNeighbors < REPRODUCTION_NUMBER - 1 || liveNeighbors > REPRODUCTION_NUMBER;
     }
 
-    public boolean isStable (Set<GameOfLifeCell> neighbors) {
+    public boolean isStable (List<GameOfLifeCell> neighbors) {
         calculateNextState(neighbors);
         return getState() == getNextState();
     }
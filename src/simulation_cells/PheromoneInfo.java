@@ -15,9 +15,16 @@ public class PheromoneInfo {
     private double myEvapRatio;
 
     public PheromoneInfo () {
+        this(DEFAULT_EVAP_RATIO);
+    }
+
+    /**
+     * @param evapRatio fraction of each pheromone that evaporates every generation
+     */
+    public PheromoneInfo (double evapRatio) {
         myFoodPheromone = 0;
         myNestPheromone = 0;
-        myEvapRatio = DEFAULT_EVAP_RATIO;
+        myEvapRatio = evapRatio;
     }
 
     private double calcMultiplier () {
@@ -30,6 +37,25 @@ public class PheromoneInfo {
         setNestPheromone(getNestPheromone() * calcMultiplier());
     }
 
+    /**
+     * Replaces a fraction of a cell's pheromone with the average pheromone of its neighbors
+     *
+     * @param pheromone of the cell
+     * @param neighborSum total pheromone of its neighbors
+     * @param numNeighbors number of neighbors summed
+     * @param diffusionRatio fraction of the pheromone that is replaced
+     * @return the diffused pheromone, which is unchanged if the cell has no neighbors
+     */
+    public static double diffuse (double pheromone,
+                                  double neighborSum,
+                                  int numNeighbors,
+                                  double diffusionRatio) {
+        if (numNeighbors == 0) {
+            return pheromone;
+        }
+        return pheromone * (1 - diffusionRatio) + diffusionRatio * neighborSum / numNeighbors;
+    }
+
     public void setFoodPheromone (double foodPheromone) {
         myFoodPheromone = foodPheromone;
     }
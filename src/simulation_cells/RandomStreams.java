@@ -0,0 +1,84 @@
+package simulation_cells;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+
+/**
+ * Source of all randomness in a simulation, seeded from the optional "seed" parameter of its
+ * configuration. The cells of each pass over the grid are split into partitions of a fixed size,
+ * and every partition draws from its own stream, which is derived only from the seed, the pass
+ * and the partition. A run with the same seed therefore makes the same random choices no matter
+ * how many threads share the work. Cells and agents draw from the stream of whichever partition
+ * their thread is working on through current()
+ *
+ * @author David Maydew
+ *
+ */
+public class RandomStreams {
+    public static final String SEED_KEY = "seed";
+    public static final int CELLS_PER_PARTITION = 1024;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final ThreadLocal<SplittableRandom> CURRENT_STREAM =
+            ThreadLocal.withInitial(SplittableRandom::new);
+
+    private final long mySeed;
+
+    /**
+     * @param seed from which every stream is derived
+     */
+    public RandomStreams (long seed) {
+        mySeed = seed;
+    }
+
+    /**
+     * @param parameters of a configuration, which may contain a seed
+     * @return streams derived from the configured seed, or from an unpredictable one if there is
+     *         none
+     */
+    public static RandomStreams fromParameters (Map<String, Number> parameters) {
+        if (parameters.containsKey(SEED_KEY)) {
+            return new RandomStreams(parameters.get(SEED_KEY).longValue());
+        }
+        return new RandomStreams(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @return the stream of the partition the calling thread is working on
+     */
+    public static SplittableRandom current () {
+        return CURRENT_STREAM.get();
+    }
+
+    /**
+     * Makes the stream of the given partition of the given pass the current one for the calling
+     * thread
+     *
+     * @param pass number of the pass over the grid, counted from the start of the simulation
+     * @param partition number of the partition within the pass
+     */
+    public void enter (long pass, int partition) {
+        CURRENT_STREAM.set(stream(pass, partition));
+    }
+
+    /**
+     * @return a new stream for the given partition of the given pass
+     */
+    public SplittableRandom stream (long pass, int partition) {
+        return new SplittableRandom(mix(mix(mySeed + pass * GOLDEN_GAMMA) + partition));
+    }
+
+    public long getSeed () {
+        return mySeed;
+    }
+
+    /**
+     * @return well distributed hash of the given value (the finalizer of SplitMix64)
+     */
+    public static long mix (long value) {
+        long hash = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -2,8 +2,7 @@ package simulation_cells;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.function.Supplier;
 import states.SegregationState;
 
 
@@ -29,29 +28,26 @@ public class SegregationCell extends Cell {
     }
 
     /**
-     * Determines whether or not this SegregationCell is satisfied by calculating its nextState and
-     * seeing
-     * if it is different than the current state
+     * Determines whether an agent of this cell's type would be satisfied with the given neighbors
      *
-     * @param neighbors up to 8 adjacent cells
-     * @param emptyCells a Collection of emptyCells that will be updated if they are filled for the
-     *        next generation
-     * @return whether or not this cell is satisfied
+     * @param sameNeighbors number of neighbors of the same type as this cell
+     * @param nonEmptyNeighbors number of neighbors that are not empty
+     * @return whether the fraction of neighbors of the same type reaches the threshold
      */
-    public boolean isStable (Set<SegregationCell> neighbors, Set<SegregationCell> emptyCells) {
-        calculateNextState(neighbors, emptyCells);
-        return getState() == getNextState();
+    public boolean isSatisfied (int sameNeighbors, int nonEmptyNeighbors) {
+        double sameNeighborRatio =
+                (nonEmptyNeighbors > 0) ? (double)sameNeighbors / nonEmptyNeighbors : 0.0;
+        return sameNeighborRatio >= getThreshold();
     }
 
     /**
-     * Calculates and sets the next state of this SegregationCell based on its neighbors
+     * Calculates and sets the next state of this SegregationCell
      *
-     * @param neighbors up to 8 adjacent cells
-     * @param emptyCells a Collection of emptyCells that will be updated if they are filled for the
-     *        next generation
+     * @param satisfied whether this cell is satisfied with its neighbors, as found by isSatisfied
+     * @param emptyCells takes a random empty cell out of those still free this generation, or
+     *        gives null if there is none; only asked when this cell is dissatisfied
      */
-    public void calculateNextState (Set<SegregationCell> neighbors,
-                                    Set<SegregationCell> emptyCells) {
+    public void calculateNextState (boolean satisfied, Supplier<SegregationCell> emptyCells) {
         if (nextAlreadyCalculated()) {
             return;
         }
@@ -59,41 +55,52 @@ public class SegregationCell extends Cell {
         if (getState() == SegregationState.EMPTY) {
             return;
         }
-        else {
-            boolean dissatisfied = calcSameNeighborRatio(neighbors) < getThreshold();
-            if (dissatisfied) {
-                swapWithEmptyCell(emptyCells);
-            }
+        else if (!satisfied) {
+            swapWithEmptyCell(emptyCells);
         }
     }
 
-    private double calcSameNeighborRatio (Set<SegregationCell> neighbors) {
-        double nonEmptyNeighbors = 0;
-        double sameStateNeighbors = 0;
-        for (Cell cell : neighbors) {
-            if (cell.getState() != SegregationState.EMPTY) {
-                nonEmptyNeighbors++;
-                if (cell.getState() == getState()) {
-                    sameStateNeighbors++;
-                }
-            }
+    /**
+     * Without changing any cell, choose a random empty cell this cell would swap with if it were
+     * calculated now
+     *
+     * @param satisfied whether this cell is satisfied with its neighbors, as found by isSatisfied
+     * @param emptyCells picks a random cell out of those that were empty at the start of this
+     *        generation, without taking it, or gives null if there is none
+     * @return the chosen empty cell, no cells if this cell is satisfied, or null if this cell is
+     *         empty or the chosen empty cell has already been taken
+     */
+    public List<SegregationCell> proposeTargets (boolean satisfied,
+                                                 Supplier<SegregationCell> emptyCells) {
+        List<SegregationCell> targets = new ArrayList<SegregationCell>();
+        if (getState() == SegregationState.EMPTY) {
+            return null;
+        }
+        if (satisfied) {
+            return targets;
+        }
+        SegregationCell emptyCell = emptyCells.get();
+        if (emptyCell == null) {
+            return targets;
+        }
+        if (emptyCell.nextAlreadyCalculated() &&
+            emptyCell.getNextState() != SegregationState.EMPTY) {
+            return null;
         }
-        return (nonEmptyNeighbors > 0) ? sameStateNeighbors / nonEmptyNeighbors : 0.0;
+        targets.add(emptyCell);
+        return targets;
     }
 
     /**
-     * Swaps the next generation of this cell with a random cell from the given list
+     * Swaps the next generation of this cell with an empty cell, if one is left
      *
-     * @param emptyCells mutable collection of empty cells that can be swapped with
+     * @param emptyCells takes a random empty cell out of those still free this generation
      */
-    private void swapWithEmptyCell (Set<SegregationCell> emptyCells) {
-        if (emptyCells.size() > 0) {
-            int randomIndex = new Random().nextInt(emptyCells.size());
-            List<Cell> cellList = new ArrayList<Cell>(emptyCells);
-            Cell randomCell = cellList.get(randomIndex);
-            randomCell.setNextState(getState());
+    private void swapWithEmptyCell (Supplier<SegregationCell> emptyCells) {
+        SegregationCell emptyCell = emptyCells.get();
+        if (emptyCell != null) {
+            emptyCell.setNextState(getState());
             setNextState(SegregationState.EMPTY);
-            emptyCells.remove(randomCell);
         }
     }
 
@@ -1,14 +1,15 @@
 package simulation_cells;
 
-import java.util.ArrayList;
 import java.util.List;
-import javafx.scene.paint.Color;
+import states.CellColor;
+import states.ColorPalette;
 import states.SugarscapeState;
 
 
 public abstract class SugarscapeCell extends Cell {
     private static final int COLOR_MIN = 50;
     private static final int RGB_MAX = 255;
+    private static final int[] PATCH_GRADIENT = ColorPalette.gradient(CellColor.rgb(0, 255, 0));
     private AgentInfo myAgentInfo;
     private PatchInfo myPatchInfo;
 
@@ -36,42 +37,50 @@ public abstract class SugarscapeCell extends Cell {
         return getState() == SugarscapeState.PATCH;
     }
 
-    public List<SugarscapeCell> getEligibleOpenNeighbors (List<? extends SugarscapeCell> neighbrs) {
-        List<SugarscapeCell> vacantNeighbors = new ArrayList<SugarscapeCell>();
-        for (SugarscapeCell cell : neighbrs) {
-            if ((cell.isVacant() && !cell.nextAlreadyCalculated()) ||
-                (cell.isVacant() && cell.getNextState() == SugarscapeState.PATCH)) {
-                vacantNeighbors.add(cell);
-            }
-        }
-        return vacantNeighbors;
+    /**
+     * @return whether an agent can move into this cell, because it is vacant and no agent has
+     *         claimed it for the next generation
+     */
+    public boolean isEligibleOpen () {
+        return isVacant() && (!nextAlreadyCalculated() || getNextState() == SugarscapeState.PATCH);
     }
 
-    public Cell findNeighborWithMaxSugar (List<SugarscapeCell> neighbors) {
-        double maxSugar = Double.NEGATIVE_INFINITY;
-        List<SugarscapeCell> maxSugarNeighbors = new ArrayList<SugarscapeCell>();
-        for (SugarscapeCell cell : neighbors) {
-            if (cell.getPatchInfo().getSugar() == maxSugar) {
-                maxSugarNeighbors.add(cell);
-            }
-            else if (cell.getPatchInfo().getSugar() > maxSugar) {
-                maxSugarNeighbors.clear();
-                maxSugarNeighbors.add(cell);
-                maxSugar = cell.getPatchInfo().getSugar();
-            }
-        }
-        return getRandomElement(maxSugarNeighbors);
+    /**
+     * @return a random one of the eligible open neighbors with the most sugar, or null if there is
+     *         none
+     */
+    public static <E extends SugarscapeCell> E findOpenNeighborWithMaxSugar (List<E> neighbors) {
+        return getRandomMaximum(neighbors, SugarscapeCell::isEligibleOpen,
+                                cell -> cell.getPatchInfo().getSugar());
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         if (getState() == SugarscapeState.AGENT) {
             return SugarscapeState.AGENT.getColor();
         }
         else {
             double ratio = getPatchInfo().getSugar() * 1.0 / getPatchInfo().getMaxSugar();
 //            double redAndBlue = Math.max(COLOR_MIN * 1.0 / RGB_MAX, 1 - ratio);
-            return new Color(0, 1.0, 0, ratio);
+            return new CellColor(0, 1.0, 0, ratio);
         }
     }
+
+    /**
+     * Same color as getColor, without creating a color for patches
+     */
+    @Override
+    public int getArgb () {
+        if (getState() == SugarscapeState.AGENT) {
+            return SugarscapeState.AGENT.getColor().toArgb();
+        }
+        return toPatchArgb(getPatchInfo().getSugar(), getPatchInfo().getMaxSugar());
+    }
+
+    /**
+     * @return ARGB color of a patch without an agent, shaded by its fraction of its max sugar
+     */
+    public static int toPatchArgb (int sugar, int maxSugar) {
+        return ColorPalette.shade(PATCH_GRADIENT, sugar * 1.0 / maxSugar);
+    }
 }
@@ -1,10 +1,7 @@
 package simulation_cells;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import states.SugarscapeState;
 
 
@@ -54,21 +51,43 @@ public class SugarscapeCellAdvanced extends SugarscapeCell {
         }
 
         getAdvancedAgentInfo().incrementAge();
-        List<SugarscapeCell> vacantNeighbors = getEligibleOpenNeighbors(neighbors);
-        List<SugarscapeCellAdvanced> fertileNeighbors = findEligibleFertileNeighbors(neighbors);
-        if (!hasConditionToReproduce(fertileNeighbors, vacantNeighbors)) {
-            handleAgent(vacantNeighbors);
+        if (!hasConditionToReproduce(neighbors)) {
+            handleAgent(neighbors);
         }
         else {
-            handleAdvancedAgent(fertileNeighbors, vacantNeighbors);
+            handleAdvancedAgent(neighbors);
         }
     }
 
-    public void handleAgent (List<SugarscapeCell> vacantNeighbors) {
-        if (vacantNeighbors.size() > 0) {
-            SugarscapeCellAdvanced neighborWithMaxSugar =
-                    (SugarscapeCellAdvanced)findNeighborWithMaxSugar(
-                                                                      vacantNeighbors);
+    /**
+     * Without changing any cell, choose the neighbors this agent would act on if it were
+     * calculated now, after aging a turn: a fertile partner and a vacant cell for their child if it
+     * can reproduce, otherwise the vacant neighbor with the most sugar to move to
+     */
+    public List<SugarscapeCellAdvanced> proposeTargets (List<SugarscapeCellAdvanced> neighbors) {
+        List<SugarscapeCellAdvanced> targets = new ArrayList<SugarscapeCellAdvanced>();
+        if (getState() != SugarscapeState.AGENT || getAdvancedAgentInfo().isDead()) {
+            return targets;
+        }
+        if (!anyMatch(neighbors, SugarscapeCell::isEligibleOpen)) {
+            return targets;
+        }
+        int age = getAdvancedAgentInfo().getAge() + 1;
+        SugarscapeCellAdvanced mate =
+                getRandomElement(neighbors, cell -> isEligibleMate(cell, age));
+        if (mate != null) {
+            targets.add(mate);
+            targets.add(getRandomElement(neighbors, SugarscapeCell::isEligibleOpen));
+        }
+        else {
+            targets.add(findOpenNeighborWithMaxSugar(neighbors));
+        }
+        return targets;
+    }
+
+    public void handleAgent (List<SugarscapeCellAdvanced> neighbors) {
+        SugarscapeCellAdvanced neighborWithMaxSugar = findOpenNeighborWithMaxSugar(neighbors);
+        if (neighborWithMaxSugar != null) {
             neighborWithMaxSugar.setNextState(SugarscapeState.AGENT);
             neighborWithMaxSugar.copyAdvancedAgentInfo(getAdvancedAgentInfo());
             neighborWithMaxSugar.agentMeetsPatch();
@@ -91,27 +110,30 @@ public class SugarscapeCellAdvanced extends SugarscapeCell {
         getPatchInfo().reset();
     }
 
-    public void handleAdvancedAgent (List<SugarscapeCellAdvanced> fertileNeighbors,
-                                     List<SugarscapeCell> vacantNeighbors) {
-        SugarscapeCellAdvanced chosenCell = getRandomElement(fertileNeighbors);
-        Set<SugarscapeCellAdvanced> parents =
-                new HashSet<SugarscapeCellAdvanced>(Arrays.asList(this, chosenCell));
-        for (SugarscapeCellAdvanced cell : parents) {
-            cell.setNextState(SugarscapeState.AGENT);
-            cell.reproduce();
-            cell.agentMeetsPatch();
-        }
+    public void handleAdvancedAgent (List<SugarscapeCellAdvanced> neighbors) {
+        int age = getAdvancedAgentInfo().getAge();
+        SugarscapeCellAdvanced chosenCell =
+                getRandomElement(neighbors, cell -> isEligibleMate(cell, age));
+        becomeParent();
+        chosenCell.becomeParent();
 
         SugarscapeCellAdvanced chosenEmptyCell =
-                (SugarscapeCellAdvanced)getRandomElement(vacantNeighbors);
+                getRandomElement(neighbors, SugarscapeCell::isEligibleOpen);
         chosenEmptyCell.setNextState(SugarscapeState.AGENT);
         chosenEmptyCell.reproducedFrom(this, chosenCell);
     }
 
-    public boolean hasConditionToReproduce (List<SugarscapeCellAdvanced> fertileNeighbors,
-                                            List<SugarscapeCell> vacantNeighbors) {
-        return getAdvancedAgentInfo().isFertile() && fertileNeighbors.size() != 0 &&
-               vacantNeighbors.size() != 0;
+    public boolean hasConditionToReproduce (List<SugarscapeCellAdvanced> neighbors) {
+        int age = getAdvancedAgentInfo().getAge();
+        return getAdvancedAgentInfo().isFertile() &&
+               anyMatch(neighbors, cell -> isEligibleMate(cell, age)) &&
+               anyMatch(neighbors, SugarscapeCell::isEligibleOpen);
+    }
+
+    private void becomeParent () {
+        setNextState(SugarscapeState.AGENT);
+        reproduce();
+        agentMeetsPatch();
     }
 
     public void reproduce () {
@@ -122,14 +144,12 @@ public class SugarscapeCellAdvanced extends SugarscapeCell {
         getAdvancedAgentInfo().reproducedFrom(m.getAdvancedAgentInfo(), f.getAdvancedAgentInfo());
     }
 
-    public List<SugarscapeCellAdvanced> findEligibleFertileNeighbors (List<SugarscapeCellAdvanced> neighbors) {
-        List<SugarscapeCellAdvanced> fertileNeighbors = new ArrayList<SugarscapeCellAdvanced>();
-        for (SugarscapeCellAdvanced cell : neighbors) {
-            if (cell.getState() == SugarscapeState.AGENT && !cell.nextAlreadyCalculated() &&
-                getAdvancedAgentInfo().canReproduceWith(cell.getAdvancedAgentInfo())) {
-                fertileNeighbors.add(cell);
-            }
-        }
-        return fertileNeighbors;
+    /**
+     * @return whether this agent, at the given age, can reproduce with the agent in the given
+     *         neighbor, which must not have calculated its next state yet
+     */
+    private boolean isEligibleMate (SugarscapeCellAdvanced cell, int age) {
+        return cell.getState() == SugarscapeState.AGENT && !cell.nextAlreadyCalculated() &&
+               getAdvancedAgentInfo().canReproduceAtAgeWith(age, cell.getAdvancedAgentInfo());
     }
 }
@@ -15,6 +15,8 @@ public class SugarscapeCellBasic extends SugarscapeCell {
 
     public void copyAgentInfo (AgentInfo info) {
         getAgentInfo().setSugar(info.getSugar());
+        getAgentInfo().setVision(info.getVision());
+        getAgentInfo().setSugarMetabolism(info.getSugarMetabolism());
     }
 
     public void calculateNextState (List<SugarscapeCellBasic> neighbors) {
@@ -31,15 +33,28 @@ public class SugarscapeCellBasic extends SugarscapeCell {
         }
     }
 
+    /**
+     * Without changing any cell, choose the vacant neighbor with the most sugar that this agent
+     * would move to if it were calculated now
+     */
+    public List<SugarscapeCellBasic> proposeTargets (List<SugarscapeCellBasic> neighbors) {
+        List<SugarscapeCellBasic> targets = new ArrayList<SugarscapeCellBasic>();
+        if (getState() == SugarscapeState.AGENT && !getAgentInfo().isDead()) {
+            SugarscapeCellBasic neighborWithMaxSugar = findOpenNeighborWithMaxSugar(neighbors);
+            if (neighborWithMaxSugar != null) {
+                targets.add(neighborWithMaxSugar);
+            }
+        }
+        return targets;
+    }
+
     public void handleAgent (List<SugarscapeCellBasic> neighbors) {
         if (getAgentInfo().isDead()) {
             setNextState(SugarscapeState.PATCH);
             return;
         }
-        List<SugarscapeCell> vacantNeighbors = getEligibleOpenNeighbors(neighbors);
-        if (vacantNeighbors.size() > 0) {
-            SugarscapeCellBasic neighborWithMaxSugar =
-                    (SugarscapeCellBasic)findNeighborWithMaxSugar(vacantNeighbors);
+        SugarscapeCellBasic neighborWithMaxSugar = findOpenNeighborWithMaxSugar(neighbors);
+        if (neighborWithMaxSugar != null) {
             neighborWithMaxSugar.setNextState(SugarscapeState.AGENT);
             neighborWithMaxSugar.copyAgentInfo(getAgentInfo());
             neighborWithMaxSugar.agentMeetsPatch();
@@ -62,21 +77,4 @@ public class SugarscapeCellBasic extends SugarscapeCell {
         getAgentInfo().subtractSugarMetabolism();
         getPatchInfo().reset();
     }
-
-    @Override
-    public Cell findNeighborWithMaxSugar (List<SugarscapeCell> neighbors) {
-        double maxSugar = Double.NEGATIVE_INFINITY;
-        List<SugarscapeCell> maxSugarNeighbors = new ArrayList<SugarscapeCell>();
-        for (SugarscapeCell cell : neighbors) {
-            if (cell.getPatchInfo().getSugar() == maxSugar) {
-                maxSugarNeighbors.add(cell);
-            }
-            else if (cell.getPatchInfo().getSugar() > maxSugar) {
-                maxSugarNeighbors.clear();
-                maxSugarNeighbors.add(cell);
-                maxSugar = cell.getPatchInfo().getSugar();
-            }
-        }
-        return getRandomElement(maxSugarNeighbors);
-    }
 }
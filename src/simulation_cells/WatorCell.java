@@ -1,11 +1,26 @@
 package simulation_cells;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.function.Predicate;
 import states.WatorState;
 
 
 public class WatorCell extends Cell {
+    /**
+     * Whether a neighbor can be swapped with because its next state hasn't been calculated yet or
+     * will remain Empty
+     */
+    private static final Predicate<WatorCell> ELIGIBLE_EMPTY =
+            cell -> cell.getState() == WatorState.EMPTY &&
+                    (!cell.nextAlreadyCalculated() ||
+                     cell.getNextState() == WatorState.EMPTY);
+
+    /**
+     * Whether a neighbor is eligible prey because it is currently a Prey and hasn't calculated its
+     * next State yet
+     */
+    private static final Predicate<WatorCell> ELIGIBLE_PREY =
+            cell -> cell.getState() == WatorState.PREY && !cell.nextAlreadyCalculated();
 
     private PreyInfo myPreyInfo;
     private PredatorInfo myPredatorInfo;
@@ -36,67 +51,36 @@ public class WatorCell extends Cell {
         return myPredatorInfo;
     }
 
-    /**
-     * Given a collection of cells, return the ones that are eligible to be swapped with because
-     * their next state hasn't been calculated yet or will remain Empty
-     */
-    private Set<WatorCell> findEligibleEmptyNeighbors (Set<WatorCell> neighbors) {
-        Set<WatorCell> emptyCells = new HashSet<WatorCell>();
-        for (WatorCell cell : neighbors) {
-            if (cell.getState() == WatorState.EMPTY &&
-                (!cell.nextAlreadyCalculated() || cell.getNextState() == WatorState.EMPTY)) {
-                emptyCells.add(cell);
-            }
-        }
-        return emptyCells;
-    }
-
-    /**
-     * Given a collection of cells, return the ones that are eligible prey because they are
-     * currently a Prey and haven't calculated their next State yet
-     */
-    private Set<WatorCell> findEligiblePreyNeighbors (Set<WatorCell> neighbors) {
-        Set<WatorCell> preyCells = new HashSet<WatorCell>();
-        for (WatorCell cell : neighbors) {
-            if (cell.getState() == WatorState.PREY && !cell.nextAlreadyCalculated()) {
-                preyCells.add(cell);
-            }
-        }
-        return preyCells;
-    }
-
-    public boolean isStable (Set<WatorCell> neighbors) {
+    public boolean isStable (List<WatorCell> neighbors) {
         calculateNextState(neighbors);
         return getState() == getNextState();
     }
 
-    public void calculateNextState (Set<WatorCell> neighbors) {
+    public void calculateNextState (List<WatorCell> neighbors) {
         if (nextAlreadyCalculated()) {
             return;
         }
         if (getState() == WatorState.EMPTY) {
             setNextState(WatorState.EMPTY);
         }
-        Set<WatorCell> emptyNeighbors = findEligibleEmptyNeighbors(neighbors);
-        Set<WatorCell> preyNeighbors = findEligiblePreyNeighbors(neighbors);
         if (getState() == WatorState.PREY) {
-            handlePrey(emptyNeighbors);
+            handlePrey(neighbors);
         }
         else if (getState() == WatorState.PREDATOR) {
-            handlePredator(emptyNeighbors, preyNeighbors);
+            handlePredator(neighbors);
         }
     }
 
-    private void handlePredator (Set<WatorCell> emptyNeighbors, Set<WatorCell> preyNeighbors) {
+    private void handlePredator (List<WatorCell> neighbors) {
         if (getPredatorInfo().isStarving()) {
             setNextState(WatorState.EMPTY);
             return;
         }
-        else if (preyNeighbors.size() != 0) {
-            handleEat(emptyNeighbors, preyNeighbors);
+        else if (anyMatch(neighbors, ELIGIBLE_PREY)) {
+            handleEat(neighbors);
         }
-        else if (emptyNeighbors.size() != 0) {
-            handleMove(emptyNeighbors);
+        else if (anyMatch(neighbors, ELIGIBLE_EMPTY)) {
+            handleMove(neighbors);
 
         }
         else {
@@ -105,9 +89,9 @@ public class WatorCell extends Cell {
         }
     }
 
-    private void handleMove (Set<WatorCell> emptyNeighbors) {
+    private void handleMove (List<WatorCell> neighbors) {
         WatorCell chosenEmptyCell =
-                chooseANeighborAndSetNextState(emptyNeighbors, WatorState.PREDATOR);
+                chooseANeighborAndSetNextState(neighbors, ELIGIBLE_EMPTY, WatorState.PREDATOR);
         if (myPredatorInfo.getPredatorTurnsToBreed() <= 0) {
             myPredatorInfo.resetBreedAndIncreaseStarve();
             chosenEmptyCell.replacedBy(this);
@@ -121,20 +105,26 @@ public class WatorCell extends Cell {
         }
     }
 
-    private WatorCell chooseANeighborAndSetNextState (Set<WatorCell> neighbors,
+    /**
+     * Chooses a random neighbor among those that pass the filter, which must match at least one
+     */
+    private WatorCell chooseANeighborAndSetNextState (List<WatorCell> neighbors,
+                                                      Predicate<WatorCell> filter,
                                                       WatorState newNextState) {
-        WatorCell chosenCell = getRandomElement(neighbors);
+        WatorCell chosenCell = getRandomElement(neighbors, filter);
         chosenCell.setNextState(newNextState);
         return chosenCell;
     }
 
-    private void handleEat (Set<WatorCell> emptyNeighbors, Set<WatorCell> preyNeighbors) {
+    private void handleEat (List<WatorCell> neighbors) {
         setNextState(WatorState.PREDATOR);
-        chooseANeighborAndSetNextState(preyNeighbors, WatorState.EMPTY);
+        chooseANeighborAndSetNextState(neighbors, ELIGIBLE_PREY, WatorState.EMPTY);
         getPredatorInfo().resetTurnsSinceLastAte();
-        if (getPredatorInfo().getPredatorTurnsToBreed() <= 0 && emptyNeighbors.size() != 0) {
+        if (getPredatorInfo().getPredatorTurnsToBreed() <= 0 &&
+            anyMatch(neighbors, ELIGIBLE_EMPTY)) {
             WatorCell chosenEmptyCell =
-                    chooseANeighborAndSetNextState(emptyNeighbors, WatorState.PREDATOR);
+                    chooseANeighborAndSetNextState(neighbors, ELIGIBLE_EMPTY,
+                                                   WatorState.PREDATOR);
             chosenEmptyCell.getPredatorInfo().reset();
             getPredatorInfo().resetBreedAndIncreaseStarve();
         }
@@ -143,8 +133,8 @@ public class WatorCell extends Cell {
         }
     }
 
-    private void handlePrey (Set<WatorCell> emptyNeighbors) {
-        if (emptyNeighbors.size() == 0) {
+    private void handlePrey (List<WatorCell> neighbors) {
+        if (!anyMatch(neighbors, ELIGIBLE_EMPTY)) {
             myPreyInfo.decrementBreedTurns();
             setNextState(getState());
             return;
@@ -157,7 +147,8 @@ public class WatorCell extends Cell {
             myPreyInfo.decrementBreedTurns();
             setNextState(WatorState.EMPTY);
         }
-        WatorCell chosenEmptyCell = chooseANeighborAndSetNextState(emptyNeighbors, WatorState.PREY);
+        WatorCell chosenEmptyCell =
+                chooseANeighborAndSetNextState(neighbors, ELIGIBLE_EMPTY, WatorState.PREY);
         chosenEmptyCell.replacedBy(this);
     }
 
@@ -1,21 +1,31 @@
 package simulation_managers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Set;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 import cellsociety_team08.Configuration;
 import cellsociety_team08.SimulationException;
 import grid_displays.Position;
 import grids.CellGrid;
 import grids.FiniteGrid;
+import grids.FlatCellStorage;
+import grids.GridTopology;
+import grids.ICellStorage;
+import grids.ListCellStorage;
+import grids.NeighborTable;
+import grids.Neighborhood;
 import grids.ToroidalGrid;
-import javafx.scene.paint.Color;
+import grids.VisionScan;
 import simulation_cells.Cell;
+import simulation_cells.RandomStreams;
+import states.CellColor;
 import states.IState;
 
 
@@ -27,10 +37,42 @@ import states.IState;
 public abstract class AbstractCellManager<E extends Cell> implements ICellManager {
 
     public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+    private static final int CELLS_PER_PARTITION = RandomStreams.CELLS_PER_PARTITION;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int CLAIM_TILE_SIZE = 3;
+    private static final int CLAIM_HASH_BITS = 27;
 
+    private Configuration myConfiguration;
+    private RandomStreams myRandomStreams;
+    private long myNumPasses;
     private CellGrid<E> myCellGrid;
-    private ResourceBundle myStyleResources =
-            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "style");
+    private int myNumNeighborsConsidered;
+    private NeighborTable myNeighborTable;
+    private ThreadLocal<Neighborhood<E>> myNeighborhoods;
+    private ThreadLocal<VisionScan<E>> myVisionScans;
+    private BandPool myPool;
+    private int myRowsPerBand;
+    private boolean myUsesClaims;
+    private int myMaxClaimRounds;
+    private List<List<E>> myProposals;
+    private int[] myPendingCells;
+    private long myClaimSeed;
+    private long myClaimStepCount;
+    private long[] myClaimTileRanks = new long[CLAIM_TILE_SIZE * CLAIM_TILE_SIZE];
+    private boolean mySchedulesOwnCells;
+    private boolean myUsesActiveSet;
+    private double myActiveSetThreshold;
+    private NeighborTable myAffectedTable;
+    private int[] myActiveCells;
+    private int[] myNextActiveCells;
+    private int myNumActiveCells;
+    private boolean[] myChangedCells;
+    private boolean[] myQueuedCells;
+    private boolean mySweepsAllCells = true;
+    // cells whose state changed in the last update, listed by the threads that updated them
+    private int[] myChangedCellList;
+    private AtomicInteger myNumListedCells = new AtomicInteger();
+    private int myNumChangedCells;
     private ResourceBundle myErrorResources =
             ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
 
@@ -43,6 +85,9 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
      */
     @Override
     public void initialize (Configuration config) throws SimulationException {
+        myConfiguration = config;
+        myRandomStreams = RandomStreams.fromParameters(config.getParametersMap());
+        myRandomStreams.enter(myNumPasses++, 0);
         List<List<E>> allCells;
         if (!config.isRandomStates()) {
             allCells = createCellsFromStates(config.getInitialStates(), config.getParametersMap());
@@ -60,20 +105,209 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
      * this simulation
      *
      * @param allCells 2d list of cells to be initially put in the grid
+     * @throws SimulationException if a style property of the grid has an unknown value
      */
-    private void createCellGrid (List<List<E>> allCells) {
-        String gridEdge = myStyleResources.getString("GridEdge");
+    private void createCellGrid (List<List<E>> allCells) throws SimulationException {
+        ICellStorage<E> storage = createCellStorage(allCells);
         CellGrid<E> cellGrid = null;
-        if (gridEdge.equals("Finite")) {
-            cellGrid = new FiniteGrid<E>(allCells);
-        }
-        else if (gridEdge.equals("Toroidal")) {
-            cellGrid = new ToroidalGrid<E>(allCells);
+        if (GridTopology.isToroidalEdge(getStyle("GridEdge"))) {
+            cellGrid = new ToroidalGrid<E>(storage);
         }
         else {
-            throw new UnsupportedOperationException();
+            cellGrid = new FiniteGrid<E>(storage);
         }
         setCellGrid(cellGrid);
+        myNumNeighborsConsidered = Integer.parseInt(getStyle("NumNeighborsConsidered"));
+        NeighborTable neighborTable = cellGrid.getNeighborTable(myNumNeighborsConsidered, 1, true);
+        myNeighborTable = neighborTable;
+        myNeighborhoods =
+                ThreadLocal.withInitial(() -> new Neighborhood<E>(getCellGrid(), neighborTable));
+        myVisionScans = ThreadLocal.withInitial(() -> new VisionScan<E>(getCellGrid(),
+                                                                         myNumNeighborsConsidered));
+        setUpClaims();
+        setUpActiveSet(neighborTable);
+        myChangedCellList = new int[cellGrid.getNumCells()];
+        createPool();
+    }
+
+    /**
+     * Reads the StepMode style property; in Claim mode, models that support claims are stepped by
+     * calculateAllNextStatesWithClaims instead of in order
+     *
+     * @throws SimulationException if the step mode is neither Serial nor Claim
+     */
+    private void setUpClaims () throws SimulationException {
+        String stepMode = getStyle("StepMode");
+        if (stepMode.equals("Claim")) {
+            myUsesClaims = supportsClaims();
+        }
+        else if (!stepMode.equals("Serial")) {
+            throw new SimulationException(myErrorResources.getString("InvalidParameter"));
+        }
+        if (myUsesClaims) {
+            myMaxClaimRounds = Integer.parseInt(getStyle("MaxClaimRounds"));
+            myPendingCells = new int[getCellGrid().getNumCells()];
+            myProposals =
+                    new ArrayList<List<E>>(Collections.nCopies(getCellGrid().getNumCells(),
+                                                               (List<E>)null));
+            myClaimSeed = RandomStreams.mix(myRandomStreams.getSeed());
+        }
+    }
+
+    /**
+     * Reads the ActiveSetThreshold style property. Models whose cells only change near earlier
+     * changes then visit only the cells that changed last generation and their neighbors, unless
+     * those are more than the threshold fraction of the grid. A threshold of 0 visits every cell
+     *
+     * @param neighborTable the neighbors each cell reads when its next state is calculated
+     */
+    private void setUpActiveSet (NeighborTable neighborTable) {
+        myActiveSetThreshold = Double.parseDouble(getStyle("ActiveSetThreshold"));
+        mySchedulesOwnCells = schedulesOwnCells();
+        myUsesActiveSet = !mySchedulesOwnCells && changesOnlyNearChanges() && !myUsesClaims &&
+                          myActiveSetThreshold > 0;
+        if (mySchedulesOwnCells) {
+            myActiveCells = new int[getCellGrid().getNumCells()];
+        }
+        if (myUsesActiveSet) {
+            myAffectedTable = neighborTable.transpose();
+            myActiveCells = new int[getCellGrid().getNumCells()];
+            myNextActiveCells = new int[getCellGrid().getNumCells()];
+            myChangedCells = new boolean[getCellGrid().getNumCells()];
+            myQueuedCells = new boolean[getCellGrid().getNumCells()];
+        }
+    }
+
+    /**
+     * Creates the pool that runs the calculate and update phases in row bands, if this model is
+     * order independent and the NumThreads style property allows more than one thread. A value
+     * of 0 uses every available processor
+     */
+    private void createPool () {
+        if (isOrderIndependent() || myUsesClaims) {
+            myPool = BandPool.create(myConfiguration);
+        }
+        if (myPool != null) {
+            myRowsPerBand = myPool.getBandSize(getMaxX());
+        }
+    }
+
+    /**
+     * Shuts down the pool of threads, if this model has one
+     */
+    @Override
+    public void close () {
+        if (myPool != null) {
+            myPool.close();
+        }
+    }
+
+    /**
+     * Whether the next state of every cell depends only on the current states of the grid, so
+     * that cells can be calculated and updated in any order, and concurrently. Models that
+     * override this to return true must not modify other cells or shared state while calculating
+     * a cell's next state
+     */
+    protected boolean isOrderIndependent () {
+        return false;
+    }
+
+    /**
+     * Whether a cell can only change in a generation if it or one of its neighbors changed in the
+     * generation before, so that cells away from any change can be skipped. Should be overridden to
+     * return true by models whose cells are otherwise left alone
+     */
+    protected boolean changesOnlyNearChanges () {
+        return false;
+    }
+
+    /**
+     * Whether this model keeps track of which of its cells can change, so that each generation
+     * only visits the cells listed by scheduleCellsToCalculate and scheduleCellsToUpdate. Takes
+     * the place of the active set
+     */
+    protected boolean schedulesOwnCells () {
+        return false;
+    }
+
+    /**
+     * Lists the cells to be calculated this generation, for models that schedule their own
+     * cells. Called after prepareForNextStateCalc
+     *
+     * @param cells to be filled with cell indices, in increasing order
+     * @return number of cells listed
+     */
+    protected int scheduleCellsToCalculate (int[] cells) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Lists the cells to be updated this generation, for models that schedule their own cells.
+     * Every cell that was calculated, and every cell whose next state was set by the calculation
+     * of another, must be updated
+     *
+     * @param cells holding the cells just calculated, to which any others should be added
+     * @param numCalculated number of cells just calculated
+     * @return number of cells listed
+     */
+    protected int scheduleCellsToUpdate (int[] cells, int numCalculated) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Whether this model can be stepped with claims instead of in order. Each cell proposes the
+     * other cells it will act on, and is only calculated once it holds the claims on itself and
+     * all of those cells, so no two cells calculated at the same time change the same cell. A
+     * model that also proposes every cell whose next state its calculation reads gets the same
+     * result as calculating the cells one at a time in a random order
+     */
+    protected boolean supportsClaims () {
+        return false;
+    }
+
+    /**
+     * Chooses the cells, other than the given cell, that calculating it now will act on. Must not
+     * change any cell, since cells propose concurrently
+     *
+     * @param cell whose next state has not been calculated yet
+     * @param position the object representing the coordinate of the current cell
+     * @return new list of the chosen cells, or null to wait for the next round of claims
+     */
+    protected List<E> proposeTargets (E cell, Position position) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Calculates the next state of a cell that holds the claims on itself and on its targets. The
+     * calculation may only change the cell and its targets
+     *
+     * @param cell the cell to be updated
+     * @param position the object representing the coordinate of the current cell
+     * @param targets the cells proposed by proposeTargets, or an empty list if the cell is being
+     *        settled in place after the last round of claims
+     */
+    protected void calculateClaimedNextState (E cell, Position position, List<E> targets) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates the storage that backs the cell grid, based on the GridStorage style property. Flat
+     * storage keeps every cell in a single row-major array for constant time access
+     *
+     * @param allCells 2d list of cells to be initially put in the storage
+     * @throws SimulationException if the grid storage is neither Flat nor List
+     */
+    private ICellStorage<E> createCellStorage (List<List<E>> allCells) throws SimulationException {
+        String gridStorage = getStyle("GridStorage");
+        if (gridStorage.equals("Flat")) {
+            return new FlatCellStorage<E>(allCells);
+        }
+        else if (gridStorage.equals("List")) {
+            return new ListCellStorage<E>(allCells);
+        }
+        else {
+            throw new SimulationException(myErrorResources.getString("InvalidParameter"));
+        }
     }
 
     /**
@@ -87,7 +321,7 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
                                                  Map<String, Number> parameters) throws SimulationException {
         List<List<E>> cells = new ArrayList<List<E>>();
         for (List<Integer> stateRow : initStates) {
-            List<E> cellRow = new LinkedList<E>();
+            List<E> cellRow = new ArrayList<E>(stateRow.size());
             for (Integer initialState : stateRow) {
                 try {
                     cellRow.add(createNewCell(initialState, parameters));
@@ -123,7 +357,7 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
                                                Map<String, Number> parametersMap) {
         List<List<E>> cells = new ArrayList<List<E>>();
         for (int x = 0; x < randomWidth; x++) {
-            List<E> cellRow = new LinkedList<E>();
+            List<E> cellRow = new ArrayList<E>(randomHeight);
             for (int y = 0; y < randomHeight; y++) {
                 cellRow.add(createNewCell(parametersMap));
             }
@@ -146,6 +380,7 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
     public void updateAllCells () {
         calculateAllNextStates();
         updateAllToNextStates();
+        finishUpdate();
     }
 
     /**
@@ -154,10 +389,282 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
     @Override
     public void calculateAllNextStates () {
         prepareForNextStateCalc();
-        int cellCount = 0;
-        for (E cell : getCellGrid().getAllCellsInOrder()) {
-            calculateNextState(cell, positionFromCount(cellCount));
-            cellCount++;
+        if (mySchedulesOwnCells) {
+            myNumActiveCells = scheduleCellsToCalculate(myActiveCells);
+            mySweepsAllCells = false;
+        }
+        if (myUsesClaims) {
+            calculateAllNextStatesWithClaims();
+        }
+        else {
+            forEachScheduledCell(cellCount -> calculateNextState(getCellGrid().getCell(cellCount),
+                                                                 positionFromCount(cellCount)));
+        }
+    }
+
+    /**
+     * Calculates the next step of every cell in rounds of claims. Each cell gets a priority for
+     * this generation from its position within a 3x3 tile, in an order shuffled every generation,
+     * then from a seeded hash of its index. Cells at the same position of different tiles are
+     * never neighbors, so most of them can be calculated in the same round. In each round, every
+     * scheduled cell that has not been calculated yet proposes its targets and claims them along
+     * with itself, each cell keeping the claim of highest priority, then the cells that hold all
+     * of their claims are calculated and every claim is released. The cell of highest priority
+     * always wins, so rounds continue until no cell proposes anything or the MaxClaimRounds style
+     * property is reached. Cells still left are then calculated without any targets, so they stay
+     * in place
+     */
+    private void calculateAllNextStatesWithClaims () {
+        long stepSeed = RandomStreams.mix(myClaimSeed + myClaimStepCount++ * GOLDEN_GAMMA);
+        shuffleClaimTileRanks(stepSeed);
+        int numPending = getNumScheduledCells();
+        for (int i = 0; i < numPending; i++) {
+            myPendingCells[i] = getScheduledCell(i);
+        }
+        for (int round = 0; round < myMaxClaimRounds && numPending > 0; round++) {
+            forEachPendingCell(numPending, cellCount -> proposeAndClaim(cellCount, stepSeed));
+            forEachPendingCell(numPending, cellCount -> calculateIfClaimed(cellCount, stepSeed));
+            forEachPendingCell(numPending, this::releaseClaims);
+            int numLeft = removeCalculatedCells(numPending);
+            if (numLeft == numPending) {
+                break;
+            }
+            numPending = numLeft;
+        }
+        forEachPendingCell(numPending, cellCount -> {
+            E cell = getCellGrid().getCell(cellCount);
+            if (!cell.nextAlreadyCalculated()) {
+                calculateClaimedNextState(cell, positionFromCount(cellCount),
+                                          Collections.<E> emptyList());
+            }
+        });
+    }
+
+    private void proposeAndClaim (int cellCount, long stepSeed) {
+        E cell = getCellGrid().getCell(cellCount);
+        List<E> targets = null;
+        if (!cell.nextAlreadyCalculated()) {
+            targets = proposeTargets(cell, positionFromCount(cellCount));
+        }
+        myProposals.set(cellCount, targets);
+        if (targets != null) {
+            long key = claimKey(cellCount, stepSeed);
+            cell.claim(key);
+            for (int i = 0; i < targets.size(); i++) {
+                targets.get(i).claim(key);
+            }
+        }
+    }
+
+    private void calculateIfClaimed (int cellCount, long stepSeed) {
+        List<E> targets = myProposals.get(cellCount);
+        if (targets == null) {
+            return;
+        }
+        long key = claimKey(cellCount, stepSeed);
+        E cell = getCellGrid().getCell(cellCount);
+        boolean wonAll = cell.isClaimedBy(key);
+        for (int i = 0; wonAll && i < targets.size(); i++) {
+            wonAll = targets.get(i).isClaimedBy(key);
+        }
+        if (wonAll) {
+            calculateClaimedNextState(cell, positionFromCount(cellCount), targets);
+        }
+    }
+
+    private void releaseClaims (int cellCount) {
+        getCellGrid().getCell(cellCount).releaseClaim();
+        List<E> targets = myProposals.get(cellCount);
+        if (targets != null) {
+            for (int i = 0; i < targets.size(); i++) {
+                targets.get(i).releaseClaim();
+            }
+        }
+    }
+
+    /**
+     * Compacts the pending cells down to the ones whose next state has not been calculated yet,
+     * keeping them in order
+     *
+     * @return number of cells still pending
+     */
+    private int removeCalculatedCells (int numPending) {
+        int numLeft = 0;
+        for (int i = 0; i < numPending; i++) {
+            if (!getCellGrid().getCell(myPendingCells[i]).nextAlreadyCalculated()) {
+                myPendingCells[numLeft++] = myPendingCells[i];
+            }
+        }
+        return numLeft;
+    }
+
+    private void shuffleClaimTileRanks (long stepSeed) {
+        for (int i = 0; i < myClaimTileRanks.length; i++) {
+            myClaimTileRanks[i] = i;
+        }
+        long hash = stepSeed;
+        for (int i = myClaimTileRanks.length - 1; i > 0; i--) {
+            hash = RandomStreams.mix(hash + GOLDEN_GAMMA);
+            int j = (int)((hash >>> 1) % (i + 1));
+            long rank = myClaimTileRanks[i];
+            myClaimTileRanks[i] = myClaimTileRanks[j];
+            myClaimTileRanks[j] = rank;
+        }
+    }
+
+    /**
+     * @return a key unique to this cell, whose priority is the rank of its position within its
+     *         tile followed by a hash of the cell index, so that no part of the grid is favored
+     *         over another
+     */
+    private long claimKey (int cellCount, long stepSeed) {
+        int tilePosition = (cellCount / getMaxY()) % CLAIM_TILE_SIZE * CLAIM_TILE_SIZE +
+                           (cellCount % getMaxY()) % CLAIM_TILE_SIZE;
+        long hash = RandomStreams.mix(stepSeed + cellCount * GOLDEN_GAMMA) >>>
+                    (Long.SIZE - CLAIM_HASH_BITS);
+        return (myClaimTileRanks[tilePosition] << CLAIM_HASH_BITS | hash) << Integer.SIZE |
+               cellCount;
+    }
+
+    /**
+     * Applies the action to the index of every cell scheduled this generation, in order if this
+     * model is order dependent, otherwise across the pool in bands of rows
+     *
+     * @param action to be run once per cell index
+     */
+    private void forEachScheduledCell (IntConsumer action) {
+        forEachPartition(getNumScheduledCells(), i -> action.accept(getScheduledCell(i)));
+    }
+
+    /**
+     * @return number of cells to be visited this generation, which is every cell unless only the
+     *         active set is being visited
+     */
+    private int getNumScheduledCells () {
+        return mySweepsAllCells ? getCellGrid().getNumCells() : myNumActiveCells;
+    }
+
+    /**
+     * @return index of the given cell out of the cells to be visited this generation
+     */
+    private int getScheduledCell (int i) {
+        return mySweepsAllCells ? i : myActiveCells[i];
+    }
+
+    /**
+     * Schedules the cells that changed in the update just run, along with every cell that has one
+     * of them as a neighbor, to be visited next generation. Switches to visiting every cell once
+     * more than the ActiveSetThreshold fraction of the grid is scheduled
+     */
+    private void scheduleChangedNeighborhoods () {
+        int maxActiveCells = (int)(myActiveSetThreshold * getCellGrid().getNumCells());
+        int numScheduled = 0;
+        boolean sweepsAllCells = false;
+        for (int i = 0; i < getNumScheduledCells(); i++) {
+            int index = getScheduledCell(i);
+            if (!myChangedCells[index]) {
+                continue;
+            }
+            myChangedCells[index] = false;
+            if (!sweepsAllCells) {
+                numScheduled = schedule(index, numScheduled);
+                for (int position = myAffectedTable.getStart(index);
+                     position < myAffectedTable.getEnd(index); position++) {
+                    numScheduled = schedule(myAffectedTable.getNeighborIndex(position),
+                                            numScheduled);
+                }
+                sweepsAllCells = numScheduled > maxActiveCells;
+            }
+        }
+        for (int i = 0; i < numScheduled; i++) {
+            myQueuedCells[myNextActiveCells[i]] = false;
+        }
+        int[] activeCells = myActiveCells;
+        myActiveCells = myNextActiveCells;
+        myNextActiveCells = activeCells;
+        myNumActiveCells = numScheduled;
+        mySweepsAllCells = sweepsAllCells;
+    }
+
+    /**
+     * Adds the cell to the next generation's active set, unless it is already there
+     *
+     * @return number of cells now scheduled
+     */
+    private int schedule (int index, int numScheduled) {
+        if (!myQueuedCells[index]) {
+            myQueuedCells[index] = true;
+            myNextActiveCells[numScheduled++] = index;
+        }
+        return numScheduled;
+    }
+
+    /**
+     * Applies the action to the index of each of the first numPending pending cells
+     */
+    private void forEachPendingCell (int numPending, IntConsumer action) {
+        forEachPartition(numPending, i -> action.accept(myPendingCells[i]));
+    }
+
+    /**
+     * Starts a new pass that applies the action to every position from 0 to count - 1. The
+     * positions are split into partitions of a fixed size, each run in order with its own random
+     * stream, so that the pass makes the same random choices however the partitions are shared
+     * between threads
+     */
+    private void forEachPartition (int count, IntConsumer action) {
+        long pass = myNumPasses++;
+        int numPartitions = (count + CELLS_PER_PARTITION - 1) / CELLS_PER_PARTITION;
+        if (myPool != null) {
+            myPool.invoke(new PartitionTask(pass, 0, numPartitions, count, action));
+        }
+        else {
+            for (int partition = 0; partition < numPartitions; partition++) {
+                runPartition(pass, partition, count, action);
+            }
+        }
+    }
+
+    private void runPartition (long pass, int partition, int count, IntConsumer action) {
+        myRandomStreams.enter(pass, partition);
+        int end = Math.min(count, (partition + 1) * CELLS_PER_PARTITION);
+        for (int i = partition * CELLS_PER_PARTITION; i < end; i++) {
+            action.accept(i);
+        }
+    }
+
+    /**
+     * Task that splits a range of partitions in half until it is at most one band of rows worth
+     * of cells, then runs every partition in the range
+     */
+    private class PartitionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final long myPass;
+        private final int myStart;
+        private final int myEnd;
+        private final int myCount;
+        private final IntConsumer myAction;
+
+        private PartitionTask (long pass, int start, int end, int count, IntConsumer action) {
+            myPass = pass;
+            myStart = start;
+            myEnd = end;
+            myCount = count;
+            myAction = action;
+        }
+
+        @Override
+        protected void compute () {
+            if (myEnd - myStart <= Math.max(1, myRowsPerBand * getMaxY() / CELLS_PER_PARTITION)) {
+                for (int partition = myStart; partition < myEnd; partition++) {
+                    runPartition(myPass, partition, myCount, myAction);
+                }
+            }
+            else {
+                int middle = (myStart + myEnd) / 2;
+                invokeAll(new PartitionTask(myPass, myStart, middle, myCount, myAction),
+                          new PartitionTask(myPass, middle, myEnd, myCount, myAction));
+            }
         }
     }
 
@@ -178,6 +685,13 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
     protected void prepareForNextStateCalc () {
     }
 
+    /**
+     * This method is run after every Cell has been updated to its next state, and should be
+     * overridden if any bookkeeping needs to follow the changes of a generation
+     */
+    protected void finishUpdate () {
+    }
+
     /**
      * Calculates the next stage for a given cell at a given position
      *
@@ -191,23 +705,79 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
      * not relevant
      */
     private void updateAllToNextStates () {
-        for (Cell cell : getCellGrid().getAllCells()) {
+        myNumListedCells.set(0);
+        if (mySchedulesOwnCells) {
+            myNumActiveCells = scheduleCellsToUpdate(myActiveCells, myNumActiveCells);
+        }
+        forEachScheduledCell(index -> {
+            E cell = getCellGrid().getCell(index);
+            IState previousState = cell.getState();
             cell.update();
+            getCellGrid().refreshState(index);
+            boolean changed = cell.getState() != previousState;
+            if (changed) {
+                myChangedCellList[myNumListedCells.getAndIncrement()] = index;
+            }
+            if (myUsesActiveSet) {
+                myChangedCells[index] = changed;
+            }
+        });
+        myNumChangedCells = myNumListedCells.get();
+        if (myUsesActiveSet) {
+            scheduleChangedNeighborhoods();
         }
     }
 
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    /**
+     * Lists the cells whose state changed in the last update, in no particular order, if the
+     * color of every cell is given by its state
+     */
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        if (!isColorOfState() || myNumChangedCells > changedCells.length) {
+            return -1;
+        }
+        System.arraycopy(myChangedCellList, 0, changedCells, 0, myNumChangedCells);
+        return myNumChangedCells;
+    }
+
+    /**
+     * Whether the color of every cell is the color of its state, so that only cells that change
+     * state change color. Models whose cells are shaded by other information should override
+     * this to return false, so that displays repaint every cell
+     */
+    protected boolean isColorOfState () {
+        return true;
+    }
+
+    /**
+     * Ends the simulation once a step changes no cell's state. Models whose cells keep changing
+     * without their states changing should override this to return false, so that their own
+     * stability check decides
+     */
+    @Override
+    public boolean endsWhenUnchanged () {
+        return true;
+    }
+
     /**
      * @return whether all cells in this model are 'stable,' a.k.a. their next state is the same as
-     *         their current state
+     *         their current state. Cells outside the active set are known to be stable
      */
     @Override
     public boolean areAllCellsStable () {
         prepareForStableCheck();
+        myRandomStreams.enter(myNumPasses++, 0);
         boolean allStable = true;
-        int cellCount = 0;
-        for (E cell : getCellGrid().getAllCellsInOrder()) {
-            allStable &= isCellStable(cell, positionFromCount(cellCount));
-            cellCount++;
+        for (int i = 0; i < getNumScheduledCells(); i++) {
+            int cellCount = getScheduledCell(i);
+            allStable &= isCellStable(getCellGrid().getCell(cellCount),
+                                      positionFromCount(cellCount));
         }
         return allStable;
     }
@@ -234,11 +804,11 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
      */
     @Override
     public List<List<IState>> getAllStates () {
-        List<List<IState>> allStates = new ArrayList<List<IState>>();
-        for (List<E> cellRow : getCellGrid().getCellsInGrid()) {
-            List<IState> stateRow = new ArrayList<IState>();
-            for (Cell cell : cellRow) {
-                stateRow.add(cell.getState());
+        List<List<IState>> allStates = new ArrayList<List<IState>>(getMaxX());
+        for (int x = 0; x < getMaxX(); x++) {
+            List<IState> stateRow = new ArrayList<IState>(getMaxY());
+            for (int y = 0; y < getMaxY(); y++) {
+                stateRow.add(getCellGrid().getCell(x, y).getState());
             }
             allStates.add(stateRow);
         }
@@ -246,28 +816,74 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
     }
 
     /**
-     * Gets the neighboring cells based on the number of neighbors considered from the style
-     * properties file, one level away.
+     * @return the constants of the enum that the states of this model's cells belong to
+     */
+    @Override
+    public IState[] getStates () {
+        return (IState[])((Enum<?>)getCell(0).getState()).getDeclaringClass().getEnumConstants();
+    }
+
+    @Override
+    public void countStates (int[] stateCounts) {
+        Arrays.fill(stateCounts, 0);
+        for (int index = 0; index < getNumCells(); index++) {
+            stateCounts[((Enum<?>)getCell(index).getState()).ordinal()]++;
+        }
+    }
+
+    /**
+     * Gets the distinct neighboring cells based on the number of neighbors considered from the
+     * style properties file, one level away. The returned view is reused by the next call on the
+     * same thread, so it should only be used for the calculation it was requested for
      *
      * @param position of the base cell to look for neighbors around
-     * @return set of neighbors
+     * @return list of distinct neighbors
      */
-    protected Set<E> getNeighbors (Position position) {
-        return new HashSet<E>(getOrderedNeighbors(position, 1));
+    protected List<E> getNeighbors (Position position) {
+        return myNeighborhoods.get().moveTo(indexOf(position));
     }
 
     /**
      * Gets an ordered list of neighboring cells that can come at a variable distance away from the
-     * base cell
+     * base cell, found by walking the rays from it rather than from a table, so that no memory is
+     * kept per cell for any range. The returned view is reused by the next call on the same
+     * thread
      *
      * @param position of the base cell to look for neighbors around
      * @param rangeMultiplier number of cells away that is considered a neighbor
      * @return an ordered list of neighbors, from closest to farthest away
      */
     protected List<E> getOrderedNeighbors (Position position, int rangeMultiplier) {
-        int numNeighborsConsidered =
-                Integer.parseInt(myStyleResources.getString("NumNeighborsConsidered"));
-        return getCellGrid().getNeighbors(position, numNeighborsConsidered, rangeMultiplier);
+        return myVisionScans.get().moveTo(indexOf(position), rangeMultiplier);
+    }
+
+    /**
+     * @return table of the distinct neighbors each cell reads, as given by getNeighbors
+     */
+    protected NeighborTable getNeighborTable () {
+        return myNeighborTable;
+    }
+
+    /**
+     * @return row-major index of the cell at the given position
+     */
+    protected int indexOf (Position position) {
+        return position.getXCoord() * getMaxY() + position.getYCoord();
+    }
+
+    /**
+     * @param cellCount row-major index of a cell
+     * @return the cell with that index
+     */
+    protected E getCell (int cellCount) {
+        return getCellGrid().getCell(cellCount);
+    }
+
+    /**
+     * @return number of cells in the grid
+     */
+    protected int getNumCells () {
+        return getCellGrid().getNumCells();
     }
 
     /**
@@ -281,18 +897,50 @@ public abstract class AbstractCellManager<E extends Cell> implements ICellManage
      * @return a 2d grid that contains the color representation of each cell at that position
      */
     @Override
-    public List<List<Color>> getAllCellColors () {
-        List<List<Color>> paints = new ArrayList<List<Color>>();
-        for (List<E> cellRow : getCellGrid().getCellsInGrid()) {
-            List<Color> paintRow = new ArrayList<Color>();
-            for (E cell : cellRow) {
-                paintRow.add(cell.getColor());
+    public List<List<CellColor>> getAllCellColors () {
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(getMaxX());
+        for (int x = 0; x < getMaxX(); x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(getMaxY());
+            for (int y = 0; y < getMaxY(); y++) {
+                paintRow.add(getCellGrid().getCell(x, y).getColor());
             }
             paints.add(paintRow);
         }
         return paints;
     }
 
+    @Override
+    public CellColor getCellColor (int index) {
+        return getCell(index).getColor();
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        return getCell(index).getArgb();
+    }
+
+    @Override
+    public void fillCellColors (int[] colors) {
+        for (int index = 0; index < colors.length; index++) {
+            colors[index] = getCell(index).getArgb();
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = getCell(index).getArgb();
+        }
+    }
+
+    /**
+     * @return value of a style property for the configuration this model was initialized with
+     */
+    private String getStyle (String key) {
+        return myConfiguration.getStyle(key);
+    }
+
     /**
      * @return the CellGrid object that manages the grid for this simulation
      */
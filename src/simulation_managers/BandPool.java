@@ -0,0 +1,60 @@
+package simulation_managers;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import cellsociety_team08.Configuration;
+
+
+/**
+ * Pool of threads that share the work of a step in bands, a few bands for each thread so that a
+ * thread that finishes early can take on another. Holds as many threads as the NumThreads style
+ * property asks for, where 0 uses every available processor
+ *
+ * @author David Maydew
+ *
+ */
+class BandPool {
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final ForkJoinPool myPool;
+    private final int myNumThreads;
+
+    private BandPool (int numThreads) {
+        myPool = new ForkJoinPool(numThreads);
+        myNumThreads = numThreads;
+    }
+
+    /**
+     * @return a pool with the number of threads set by the NumThreads style property, or null if
+     *         it allows only one, in which case the work should be done on the calling thread
+     */
+    static BandPool create (Configuration config) {
+        int numThreads = Integer.parseInt(config.getStyle("NumThreads"));
+        if (numThreads == 0) {
+            numThreads = Runtime.getRuntime().availableProcessors();
+        }
+        return numThreads > 1 ? new BandPool(numThreads) : null;
+    }
+
+    /**
+     * @param numUnits number of rows, partitions or other units the work is split along
+     * @return number of units in each band, at least 1
+     */
+    int getBandSize (int numUnits) {
+        return Math.max(1, numUnits / (myNumThreads * BANDS_PER_THREAD));
+    }
+
+    /**
+     * Runs the task on the threads of the pool, and waits for it to finish
+     */
+    void invoke (ForkJoinTask<?> task) {
+        myPool.invoke(task);
+    }
+
+    /**
+     * Lets the threads of the pool end once they are idle
+     */
+    void close () {
+        myPool.shutdown();
+    }
+}
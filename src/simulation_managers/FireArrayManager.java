@@ -0,0 +1,511 @@
+package simulation_managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import grids.GridTopology;
+import simulation_cells.RandomStreams;
+import states.CellColor;
+import states.ColorPalette;
+import states.FireState;
+import states.IState;
+
+
+/**
+ * Manager for a Fire simulation that stores the grid as a plane of state bytes instead of
+ * FireCells. A tree with k burning neighbors catches fire with one draw against the chance that
+ * at least one of them spreads to it, 1 - (1 - probCatch)^k, looked up in a table computed once
+ * from the probCatch parameter, instead of one draw per burning neighbor. Each partition of cells
+ * draws from its own random stream, once for every tree next to a fire, in order of the cells
+ *
+ * While the burning cells and the cells around them are at most the ActiveSetThreshold fraction of
+ * the grid, only the fire front is visited: the burning cells, kept in a list, and the trees they
+ * can spread to. Otherwise every cell is swept, across a pool of threads when the NumThreads
+ * style property allows more than one. Both ways make the same draws, so a run from a given seed
+ * is the same whichever way each generation is stepped, and however many threads share the work.
+ * Takes the same parameters and GridEdge and NumNeighborsConsidered styles as FireManager, and
+ * starts from the same random grid for the same seed
+ *
+ * @author David Maydew
+ *
+ */
+public class FireArrayManager implements ICellManager {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    private static final int CELLS_PER_PARTITION = RandomStreams.CELLS_PER_PARTITION;
+    private static final int INITIAL_FRONT_CAPACITY = 1024;
+    private static final byte EMPTY = (byte)FireState.EMPTY.ordinal();
+    private static final byte TREE = (byte)FireState.TREE.ordinal();
+    private static final byte BURNING = (byte)FireState.BURNING.ordinal();
+    private static final FireState[] STATES = FireState.values();
+    private static final int[] PALETTE = ColorPalette.ofStates(STATES);
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    private int myMaxX;
+    private int myMaxY;
+    private boolean myToroidal;
+    private int myNumNeighborsConsidered;
+    private GridTopology myTopology;
+    // chance that a tree with a given number of burning neighbors catches fire
+    private double[] myIgnitionThresholds;
+    private double myActiveSetThreshold;
+    private RandomStreams myRandomStreams;
+    private long myNumPasses;
+    private byte[] myStates;
+    // next states of a sweep, which then take the place of the current ones
+    private byte[] myNextStates;
+    private int[] myInteriorOffsets;
+    // cells around a burning cell that it can spread to
+    private int[] myReachableCells;
+    private BandPool myPool;
+    private int myPartitionsPerBand;
+    private int myNumBurning;
+    // whether the burning cells are listed in order, so that the next generation visits the front
+    private boolean myVisitsFront;
+    private int[] myFront = new int[INITIAL_FRONT_CAPACITY];
+    private int[] myIgnited = new int[INITIAL_FRONT_CAPACITY];
+    private int[] myCandidates = new int[INITIAL_FRONT_CAPACITY];
+    private int myNumIgnited;
+    // whether the last update was of the front, whose burnt out cells are then left in myIgnited
+    private boolean myUpdatedFront;
+    private int myNumBurntOut;
+    private boolean myCalculated;
+    private LongAdder myChangedCellCounter = new LongAdder();
+    private LongAdder myBurningCellCounter = new LongAdder();
+    private int myNumChangedCells;
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        readStyle(config);
+        double probCatch = FireManager.getProbCatch(config.getParametersMap());
+        myIgnitionThresholds = new double[myNumNeighborsConsidered + 1];
+        for (int k = 1; k < myIgnitionThresholds.length; k++) {
+            myIgnitionThresholds[k] = 1 - Math.pow(1 - probCatch, k);
+        }
+        myRandomStreams = RandomStreams.fromParameters(config.getParametersMap());
+        SplittableRandom random = myRandomStreams.stream(myNumPasses++, 0);
+        if (!config.isRandomStates()) {
+            List<List<Integer>> initialStates = config.getInitialStates();
+            createGrid(initialStates.size(), initialStates.get(0).size());
+            for (int x = 0; x < myMaxX; x++) {
+                List<Integer> stateRow = initialStates.get(x);
+                for (int y = 0; y < myMaxY; y++) {
+                    myStates[x * myMaxY + y] = toState(stateRow.get(y));
+                }
+            }
+        }
+        else {
+            createGrid(config.getRandomWidth(), config.getRandomHeight());
+            for (int index = 0; index < myStates.length; index++) {
+                myStates[index] = (byte)random.nextInt(STATES.length);
+            }
+        }
+        myNumBurning = 0;
+        for (byte state : myStates) {
+            if (state == BURNING) {
+                myNumBurning++;
+            }
+        }
+        chooseNextVisit();
+        createPool(config);
+    }
+
+    private void readStyle (Configuration config) {
+        myToroidal = GridTopology.isToroidalEdge(config.getStyle("GridEdge"));
+        int numNeighborsConsidered = Integer.parseInt(config.getStyle("NumNeighborsConsidered"));
+        myNumNeighborsConsidered = GridTopology.checkedNumNeighbors(numNeighborsConsidered);
+        myActiveSetThreshold = Double.parseDouble(config.getStyle("ActiveSetThreshold"));
+    }
+
+    /**
+     * Creates the pool that sweeps the grid in bands of partitions, if the NumThreads style
+     * property allows more than one thread. A value of 0 uses every available processor
+     */
+    private void createPool (Configuration config) {
+        myPool = BandPool.create(config);
+        if (myPool != null) {
+            myPartitionsPerBand = myPool.getBandSize(getNumPartitions());
+        }
+    }
+
+    private byte toState (Integer initialStateNum) throws SimulationException {
+        if (initialStateNum < 0 || initialStateNum >= STATES.length) {
+            throw new SimulationException(myErrorResources.getString("InvalidInitialState"));
+        }
+        return initialStateNum.byteValue();
+    }
+
+    private void createGrid (int maxX, int maxY) {
+        myMaxX = maxX;
+        myMaxY = maxY;
+        myTopology = new GridTopology(maxX, maxY, myToroidal, myNumNeighborsConsidered);
+        myStates = new byte[maxX * maxY];
+        myInteriorOffsets = myTopology.getInteriorOffsets();
+        myReachableCells = new int[myNumNeighborsConsidered];
+    }
+
+    private int getNumPartitions () {
+        return (myStates.length + CELLS_PER_PARTITION - 1) / CELLS_PER_PARTITION;
+    }
+
+    @Override
+    public void updateAllCells () {
+        calculateAllNextStates();
+        if (myVisitsFront) {
+            for (int i = 0; i < myNumBurning; i++) {
+                myStates[myFront[i]] = EMPTY;
+            }
+            for (int i = 0; i < myNumIgnited; i++) {
+                myStates[myIgnited[i]] = BURNING;
+            }
+            myNumChangedCells = myNumBurning + myNumIgnited;
+            myNumBurntOut = myNumBurning;
+            int[] front = myFront;
+            myFront = myIgnited;
+            myIgnited = front;
+            myNumBurning = myNumIgnited;
+        }
+        else {
+            byte[] states = myStates;
+            myStates = myNextStates;
+            myNextStates = states;
+            myNumChangedCells = myChangedCellCounter.intValue();
+            myNumBurning = myBurningCellCounter.intValue();
+        }
+        myUpdatedFront = myVisitsFront;
+        myCalculated = false;
+        chooseNextVisit();
+    }
+
+    /**
+     * Visits only the fire front next generation if the burning cells and the cells around them
+     * are at most the ActiveSetThreshold fraction of the grid, listing the burning cells if they
+     * are not listed yet. A threshold of 0 sweeps every cell
+     */
+    private void chooseNextVisit () {
+        boolean visitsFront = (myNumBurning * (myNumNeighborsConsidered + 1L)) <=
+                              myActiveSetThreshold * myStates.length &&
+                              myActiveSetThreshold > 0;
+        if (visitsFront && !myVisitsFront) {
+            myFront = ensureCapacity(myFront, myNumBurning);
+            int numListed = 0;
+            for (int index = 0; index < myStates.length; index++) {
+                if (myStates[index] == BURNING) {
+                    myFront[numListed++] = index;
+                }
+            }
+        }
+        if (!visitsFront && myNextStates == null) {
+            myNextStates = new byte[myStates.length];
+        }
+        myVisitsFront = visitsFront;
+    }
+
+    private int[] ensureCapacity (int[] indices, int capacity) {
+        if (indices.length >= capacity) {
+            return indices;
+        }
+        return Arrays.copyOf(indices, Math.max(capacity, indices.length * 2));
+    }
+
+    /**
+     * Decides which trees catch fire this generation, either by visiting the fire front or by
+     * sweeping every cell
+     */
+    @Override
+    public void calculateAllNextStates () {
+        if (myCalculated) {
+            return;
+        }
+        myCalculated = true;
+        long pass = myNumPasses++;
+        if (myVisitsFront) {
+            calculateFront(pass);
+        }
+        else {
+            myChangedCellCounter.reset();
+            myBurningCellCounter.reset();
+            if (myPool != null) {
+                myPool.invoke(new SweepTask(pass, 0, getNumPartitions()));
+            }
+            else {
+                for (int partition = 0; partition < getNumPartitions(); partition++) {
+                    sweepPartition(pass, partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists every tree a burning cell is a neighbor of, once for each burning cell, then sorts
+     * the list, so that the trees come in order of their cells with each one repeated as many
+     * times as it has burning neighbors. Each tree then draws in turn from the stream of its
+     * partition, as it would in a sweep
+     */
+    private void calculateFront (long pass) {
+        myCandidates = ensureCapacity(myCandidates, myNumBurning * myNumNeighborsConsidered);
+        int numCandidates = 0;
+        for (int i = 0; i < myNumBurning; i++) {
+            numCandidates = listTreesAround(myFront[i], numCandidates);
+        }
+        Arrays.sort(myCandidates, 0, numCandidates);
+        myIgnited = ensureCapacity(myIgnited, numCandidates);
+        myNumIgnited = 0;
+        SplittableRandom random = null;
+        int partition = -1;
+        for (int i = 0; i < numCandidates;) {
+            int tree = myCandidates[i];
+            int numBurningNeighbors = 0;
+            for (; i < numCandidates && myCandidates[i] == tree; i++) {
+                numBurningNeighbors++;
+            }
+            if (tree / CELLS_PER_PARTITION != partition) {
+                partition = tree / CELLS_PER_PARTITION;
+                random = myRandomStreams.stream(pass, partition);
+            }
+            if (random.nextDouble() < myIgnitionThresholds[numBurningNeighbors]) {
+                myIgnited[myNumIgnited++] = tree;
+            }
+        }
+    }
+
+    /**
+     * Adds to the candidates every tree that has the given burning cell among its neighbors
+     *
+     * @return number of candidates now listed
+     */
+    private int listTreesAround (int burning, int numCandidates) {
+        int numReachable = myTopology.fillReverseNeighbors(burning / myMaxY, burning % myMaxY,
+                                                           myReachableCells);
+        for (int i = 0; i < numReachable; i++) {
+            if (myStates[myReachableCells[i]] == TREE) {
+                myCandidates[numCandidates++] = myReachableCells[i];
+            }
+        }
+        return numCandidates;
+    }
+
+    /**
+     * Calculates the next state of every cell of the partition into the next plane: burning cells
+     * burn out, and each tree with burning neighbors draws once to catch fire
+     */
+    private void sweepPartition (long pass, int partition) {
+        SplittableRandom random = myRandomStreams.stream(pass, partition);
+        byte[] states = myStates;
+        byte[] nextStates = myNextStates;
+        int start = partition * CELLS_PER_PARTITION;
+        int end = Math.min(states.length, start + CELLS_PER_PARTITION);
+        int x = start / myMaxY;
+        int y = start % myMaxY;
+        int[] neighbors = new int[myNumNeighborsConsidered];
+        int numChanged = 0;
+        int numBurning = 0;
+        for (int index = start; index < end; index++) {
+            byte nextState = EMPTY;
+            if (states[index] == TREE) {
+                nextState = TREE;
+                int numBurningNeighbors = countBurningNeighbors(states, index, x, y, neighbors);
+                if (numBurningNeighbors > 0 &&
+                    random.nextDouble() < myIgnitionThresholds[numBurningNeighbors]) {
+                    nextState = BURNING;
+                    numBurning++;
+                }
+            }
+            nextStates[index] = nextState;
+            if (nextState != states[index]) {
+                numChanged++;
+            }
+            if (++y == myMaxY) {
+                y = 0;
+                x++;
+            }
+        }
+        myChangedCellCounter.add(numChanged);
+        myBurningCellCounter.add(numBurning);
+    }
+
+    /**
+     * @param neighbors buffer for the neighbors of cells on the edges of the grid
+     */
+    private int countBurningNeighbors (byte[] states, int index, int x, int y, int[] neighbors) {
+        int numBurningNeighbors = 0;
+        if (x > 0 && x < myMaxX - 1 && y > 0 && y < myMaxY - 1) {
+            for (int offset : myInteriorOffsets) {
+                if (states[index + offset] == BURNING) {
+                    numBurningNeighbors++;
+                }
+            }
+            return numBurningNeighbors;
+        }
+        int numNeighbors = myTopology.fillNeighbors(x, y, 1, true, neighbors);
+        for (int i = 0; i < numNeighbors; i++) {
+            if (states[neighbors[i]] == BURNING) {
+                numBurningNeighbors++;
+            }
+        }
+        return numBurningNeighbors;
+    }
+
+    /**
+     * Task that splits a range of partitions in half until it is at most one band, then sweeps
+     * every partition in the range
+     */
+    private class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final long myPass;
+        private final int myStart;
+        private final int myEnd;
+
+        private SweepTask (long pass, int start, int end) {
+            myPass = pass;
+            myStart = start;
+            myEnd = end;
+        }
+
+        @Override
+        protected void compute () {
+            if (myEnd - myStart <= myPartitionsPerBand) {
+                for (int partition = myStart; partition < myEnd; partition++) {
+                    sweepPartition(myPass, partition);
+                }
+            }
+            else {
+                int middle = (myStart + myEnd) / 2;
+                invokeAll(new SweepTask(myPass, myStart, middle),
+                          new SweepTask(myPass, middle, myEnd));
+            }
+        }
+    }
+
+    /**
+     * A burning cell always burns out, and a tree can only catch fire from a burning neighbor,
+     * so the grid is stable exactly when nothing is burning
+     */
+    @Override
+    public boolean areAllCellsStable () {
+        return myNumBurning == 0;
+    }
+
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    @Override
+    public boolean endsWhenUnchanged () {
+        return true;
+    }
+
+    /**
+     * Lists the cells that burnt out and the trees that caught fire after a front update, or the
+     * cells that differ from the plane replaced by a sweep. Either is only kept until the next
+     * generation is calculated
+     */
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        if (myCalculated || myNumChangedCells > changedCells.length) {
+            return -1;
+        }
+        if (myUpdatedFront) {
+            System.arraycopy(myIgnited, 0, changedCells, 0, myNumBurntOut);
+            System.arraycopy(myFront, 0, changedCells, myNumBurntOut, myNumBurning);
+            return myNumChangedCells;
+        }
+        int numChanged = 0;
+        for (int index = 0; index < myStates.length; index++) {
+            if (myStates[index] != myNextStates[index]) {
+                changedCells[numChanged++] = index;
+            }
+        }
+        return numChanged;
+    }
+
+    @Override
+    public List<List<IState>> getAllStates () {
+        List<List<IState>> allStates = new ArrayList<List<IState>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<IState> stateRow = new ArrayList<IState>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                stateRow.add(STATES[myStates[x * myMaxY + y]]);
+            }
+            allStates.add(stateRow);
+        }
+        return allStates;
+    }
+
+    @Override
+    public IState[] getStates () {
+        return STATES.clone();
+    }
+
+    @Override
+    public void countStates (int[] stateCounts) {
+        Arrays.fill(stateCounts, 0);
+        for (int index = 0; index < myStates.length; index++) {
+            stateCounts[myStates[index]]++;
+        }
+    }
+
+    @Override
+    public List<List<CellColor>> getAllCellColors () {
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                paintRow.add(STATES[myStates[x * myMaxY + y]].getColor());
+            }
+            paints.add(paintRow);
+        }
+        return paints;
+    }
+
+    @Override
+    public CellColor getCellColor (int index) {
+        return STATES[myStates[index]].getColor();
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        return PALETTE[myStates[index]];
+    }
+
+    @Override
+    public void fillCellColors (int[] colors) {
+        for (int index = 0; index < colors.length; index++) {
+            colors[index] = PALETTE[myStates[index]];
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = PALETTE[myStates[index]];
+        }
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    @Override
+    public void close () {
+        if (myPool != null) {
+            myPool.close();
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package simulation_managers;
 
 import java.util.Map;
-import java.util.Random;
 import grid_displays.Position;
 import simulation_cells.FireCell;
+import simulation_cells.RandomStreams;
 import states.FireState;
 
 
@@ -30,7 +30,7 @@ public class FireManager extends AbstractCellManager<FireCell> {
     /**
      * @return the probability value to be used to determine whether or not to catch fire
      */
-    private double getProbCatch (Map<String, Number> parameters) {
+    static double getProbCatch (Map<String, Number> parameters) {
         if (parameters.containsKey(PROBCATCH_KEY)) {
             return parameters.get(PROBCATCH_KEY).doubleValue();
         }
@@ -49,12 +49,28 @@ public class FireManager extends AbstractCellManager<FireCell> {
         return cell.isStable(getNeighbors(position));
     }
 
+    /**
+     * Each cell's next state depends only on the current states of its neighbors
+     */
+    @Override
+    protected boolean isOrderIndependent () {
+        return true;
+    }
+
+    /**
+     * A cell whose own state and neighbors' states did not change keeps its state
+     */
+    @Override
+    protected boolean changesOnlyNearChanges () {
+        return true;
+    }
+
     /**
      * Creates a FireCell with a random initial state
      */
     @Override
     protected FireCell createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(FireState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(FireState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 
@@ -0,0 +1,702 @@
+package simulation_managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import grids.GridTopology;
+import simulation_cells.AntInfo;
+import simulation_cells.ForagingAntCell;
+import simulation_cells.PheromoneInfo;
+import simulation_cells.RandomStreams;
+import states.CellColor;
+import states.ColorPalette;
+import states.ForagingAntState;
+import states.IState;
+
+
+/**
+ * Manager for a Foraging Ants simulation that stores the food and nest pheromones as primitive
+ * planes indexed by cell, and the ants in a table of their own, indexed by ant, instead of giving
+ * every cell a PheromoneInfo and a set of AntInfo objects. The ants in each cell are chained into
+ * a list through the table, in the order they arrived, and every cell keeps a count of its ants.
+ * An ant chooses where to go by scanning its neighbors for the most pheromone it has not tried
+ * yet, so that it only looks as far down the order as it needs to instead of sorting every
+ * neighbor. Each generation first updates the pheromone field of the whole grid in bulk passes
+ * over the planes, split into bands of rows across a pool of threads when the NumThreads style
+ * property allows more than one, then moves the ants. Takes the same parameters and GridEdge and
+ * NumNeighborsConsidered styles as ForagingAntsManager, steps cells in order as it does in the
+ * Serial step mode, and draws the same random numbers, so that both engines give identical runs
+ * from the same seed
+ *
+ * @author David Maydew
+ *
+ */
+public class ForagingAntsArrayManager implements ICellManager {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    private static final int CELLS_PER_PARTITION = RandomStreams.CELLS_PER_PARTITION;
+    private static final byte ANT = (byte)ForagingAntState.ANT.ordinal();
+    private static final byte PHEROMONE = (byte)ForagingAntState.PHEROMONE.ordinal();
+    private static final byte FOODSOURCE = (byte)ForagingAntState.FOODSOURCE.ordinal();
+    private static final byte NEST = (byte)ForagingAntState.NEST.ordinal();
+    private static final ForagingAntState[] STATES = ForagingAntState.values();
+    private static final int[] PALETTE = ColorPalette.ofStates(STATES);
+    // stands for no ant, or no neighbor
+    private static final int NONE = -1;
+    private static final int INITIAL_ANT_CAPACITY = 1024;
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    private int myMaxX;
+    private int myMaxY;
+    private boolean myToroidal;
+    private int myNumNeighborsConsidered;
+    private GridTopology myTopology;
+    private int myAntLifetime;
+    private double myEvapMultiplier;
+    private double myDiffusionRatio;
+    private int myMaxAntsInCell;
+    private RandomStreams myRandomStreams;
+    private long myNumPasses;
+    private byte[] myStates;
+    private byte[] myNextStates;
+    private double[] myFoodPheromone;
+    private double[] myNestPheromone;
+    // planes the pheromones diffuse into, which then take the place of the current ones
+    private double[] myNextFoodPheromone;
+    private double[] myNextNestPheromone;
+    // food sources and nests, whose pheromone is refilled every generation
+    private int[] mySources;
+    private int[] myInteriorOffsets;
+    private BandPool myPool;
+    private int myRowsPerBand;
+    private int[] myNumAnts;
+    // first and last ant of the list of each cell, or NONE
+    private int[] myFirstAnts;
+    private int[] myLastAnts;
+    // next ant in the same cell, or the next free row for a row that is free
+    private int[] myNextAnts = new int[0];
+    private int[] myAges = new int[0];
+    private boolean[] myHasFood = new boolean[0];
+    private int myNumAntRows;
+    private int myFreeAnts = NONE;
+    private int[] myNeighbors;
+    private int myNumChangedCells;
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        readStyle(config);
+        readParameters(config.getParametersMap());
+        resizeAntTable(INITIAL_ANT_CAPACITY);
+        myRandomStreams = RandomStreams.fromParameters(config.getParametersMap());
+        SplittableRandom random = myRandomStreams.stream(myNumPasses++, 0);
+        if (!config.isRandomStates()) {
+            List<List<Integer>> initialStates = config.getInitialStates();
+            createGrid(initialStates.size(), initialStates.get(0).size());
+            for (int x = 0; x < myMaxX; x++) {
+                List<Integer> stateRow = initialStates.get(x);
+                for (int y = 0; y < myMaxY; y++) {
+                    setInitialState(x * myMaxY + y, toState(stateRow.get(y)));
+                }
+            }
+        }
+        else {
+            createGrid(config.getRandomWidth(), config.getRandomHeight());
+            for (int index = 0; index < myStates.length; index++) {
+                setInitialState(index, (byte)random.nextInt(STATES.length));
+            }
+        }
+        findSources();
+        createPool(config);
+    }
+
+    private void readStyle (Configuration config) {
+        myToroidal = GridTopology.isToroidalEdge(config.getStyle("GridEdge"));
+        myNumNeighborsConsidered = Integer.parseInt(config.getStyle("NumNeighborsConsidered"));
+    }
+
+    /**
+     * Evaporation multiplies each pheromone by the same factor as in PheromoneInfo
+     */
+    private void readParameters (Map<String, Number> parameters) {
+        myAntLifetime = ForagingAntsManager.getAntLifetime(parameters);
+        myEvapMultiplier = 1 - ForagingAntsManager.getEvapRatio(parameters);
+        myMaxAntsInCell = ForagingAntsManager.getMaxAntsInCell(parameters);
+        myDiffusionRatio = ForagingAntsManager.getDiffusionRatio(parameters);
+    }
+
+    /**
+     * Creates the pool that updates the pheromone field in bands of rows, if the NumThreads style
+     * property allows more than one thread. A value of 0 uses every available processor
+     */
+    private void createPool (Configuration config) {
+        myPool = BandPool.create(config);
+        if (myPool != null) {
+            myRowsPerBand = myPool.getBandSize(myMaxX);
+        }
+    }
+
+    private byte toState (Integer initialStateNum) throws SimulationException {
+        if (initialStateNum < 0 || initialStateNum >= STATES.length) {
+            throw new SimulationException(myErrorResources.getString("InvalidInitialState"));
+        }
+        return initialStateNum.byteValue();
+    }
+
+    private void createGrid (int maxX, int maxY) {
+        myMaxX = maxX;
+        myMaxY = maxY;
+        myTopology = new GridTopology(maxX, maxY, myToroidal, myNumNeighborsConsidered);
+        myNeighbors = new int[myTopology.getNumNeighborsConsidered()];
+        myStates = new byte[maxX * maxY];
+        myNextStates = new byte[myStates.length];
+        myFoodPheromone = new double[myStates.length];
+        myNestPheromone = new double[myStates.length];
+        myNumAnts = new int[myStates.length];
+        myFirstAnts = new int[myStates.length];
+        myLastAnts = new int[myStates.length];
+        Arrays.fill(myFirstAnts, NONE);
+        Arrays.fill(myLastAnts, NONE);
+        if (myDiffusionRatio > 0) {
+            myNextFoodPheromone = new double[myStates.length];
+            myNextNestPheromone = new double[myStates.length];
+        }
+        myInteriorOffsets = myTopology.getInteriorOffsets();
+    }
+
+    private void findSources () {
+        int numSources = 0;
+        for (int index = 0; index < myStates.length; index++) {
+            if (myStates[index] == FOODSOURCE || myStates[index] == NEST) {
+                numSources++;
+            }
+        }
+        mySources = new int[numSources];
+        numSources = 0;
+        for (int index = 0; index < myStates.length; index++) {
+            if (myStates[index] == FOODSOURCE || myStates[index] == NEST) {
+                mySources[numSources++] = index;
+            }
+        }
+    }
+
+    /**
+     * Nests start with a population of ants, as in ForagingAntCell
+     */
+    private void setInitialState (int index, byte state) {
+        myStates[index] = state;
+        if (state == NEST) {
+            for (int i = 0; i < ForagingAntCell.ANT_POPULATION; i++) {
+                addAnt(index);
+            }
+        }
+    }
+
+    /**
+     * Adds a newborn ant to the end of the list of the given cell, taking a free row of the
+     * table if there is one, and otherwise growing the table if it is full
+     */
+    private void addAnt (int index) {
+        int ant = myFreeAnts;
+        if (ant != NONE) {
+            myFreeAnts = myNextAnts[ant];
+        }
+        else {
+            if (myNumAntRows == myAges.length) {
+                resizeAntTable(myNumAntRows * 2);
+            }
+            ant = myNumAntRows++;
+        }
+        myAges[ant] = 0;
+        myHasFood[ant] = false;
+        append(ant, index);
+    }
+
+    private void resizeAntTable (int capacity) {
+        myNextAnts = Arrays.copyOf(myNextAnts, capacity);
+        myAges = Arrays.copyOf(myAges, capacity);
+        myHasFood = Arrays.copyOf(myHasFood, capacity);
+    }
+
+    private void append (int ant, int index) {
+        myNextAnts[ant] = NONE;
+        if (myLastAnts[index] == NONE) {
+            myFirstAnts[index] = ant;
+        }
+        else {
+            myNextAnts[myLastAnts[index]] = ant;
+        }
+        myLastAnts[index] = ant;
+        myNumAnts[index]++;
+    }
+
+    /**
+     * Takes the ant out of the list of the given cell
+     *
+     * @param previous the ant before it in the list, or NONE if it is the first
+     */
+    private void unlink (int ant, int previous, int index) {
+        int next = myNextAnts[ant];
+        if (previous == NONE) {
+            myFirstAnts[index] = next;
+        }
+        else {
+            myNextAnts[previous] = next;
+        }
+        if (myLastAnts[index] == ant) {
+            myLastAnts[index] = previous;
+        }
+        myNumAnts[index]--;
+    }
+
+    private void freeAnt (int ant) {
+        myNextAnts[ant] = myFreeAnts;
+        myFreeAnts = ant;
+    }
+
+    @Override
+    public void updateAllCells () {
+        calculateAllNextStates();
+        myNumPasses++;
+        int changedCells = 0;
+        for (int index = 0; index < myStates.length; index++) {
+            if (myNextStates[index] != myStates[index]) {
+                changedCells++;
+            }
+            myStates[index] = myNextStates[index];
+        }
+        myNumChangedCells = changedCells;
+    }
+
+    /**
+     * Updates the pheromone field, then calculates the next state of every cell in order, each
+     * partition of cells drawing from its own random stream as in AbstractCellManager. As in
+     * ForagingAntCell, an ant that moves into a cell that has not had its turn yet moves again on
+     * that cell's turn
+     */
+    @Override
+    public void calculateAllNextStates () {
+        updatePheromoneField();
+        long pass = myNumPasses++;
+        SplittableRandom random = null;
+        int index = 0;
+        for (int x = 0; x < myMaxX; x++) {
+            for (int y = 0; y < myMaxY; y++, index++) {
+                if (index % CELLS_PER_PARTITION == 0) {
+                    random = myRandomStreams.stream(pass, index / CELLS_PER_PARTITION);
+                }
+                calculateNextState(index, x, y, random);
+            }
+        }
+    }
+
+    /**
+     * Same steps as ForagingAntsManager.prepareForNextStateCalc: refills the pheromone of every
+     * source, then diffuses, if the diffusionRatio parameter is above 0, and evaporates both
+     * pheromones in bands of rows. Every cell is computed only from the same cell, or from the
+     * planes as they were before the pass, so bands can run in any order
+     */
+    private void updatePheromoneField () {
+        for (int index : mySources) {
+            if (myStates[index] == FOODSOURCE) {
+                myFoodPheromone[index] = ForagingAntCell.SOURCE_PHEROMONE_VALUE;
+            }
+            else {
+                myNestPheromone[index] = ForagingAntCell.SOURCE_PHEROMONE_VALUE;
+            }
+        }
+        if (myPool != null) {
+            myPool.invoke(new FieldTask(0, myMaxX));
+        }
+        else {
+            updatePheromoneRows(0, myMaxX);
+        }
+        if (myDiffusionRatio > 0) {
+            double[] foodPheromone = myFoodPheromone;
+            myFoodPheromone = myNextFoodPheromone;
+            myNextFoodPheromone = foodPheromone;
+            double[] nestPheromone = myNestPheromone;
+            myNestPheromone = myNextNestPheromone;
+            myNextNestPheromone = nestPheromone;
+        }
+    }
+
+    private void updatePheromoneRows (int startX, int endX) {
+        if (myDiffusionRatio > 0) {
+            diffuseRows(myFoodPheromone, myNextFoodPheromone, startX, endX);
+            diffuseRows(myNestPheromone, myNextNestPheromone, startX, endX);
+        }
+        else {
+            evaporateRows(myFoodPheromone, startX, endX);
+            evaporateRows(myNestPheromone, startX, endX);
+        }
+    }
+
+    /**
+     * Multiplies every cell of the rows by the evaporation factor. The loop only reads and writes
+     * the plane at the same index, so that the JIT compiler can vectorize it
+     */
+    private void evaporateRows (double[] pheromone, int startX, int endX) {
+        for (int index = startX * myMaxY; index < endX * myMaxY; index++) {
+            pheromone[index] *= myEvapMultiplier;
+        }
+    }
+
+    /**
+     * Diffuses every cell of the rows as PheromoneInfo.diffuse does, summing its neighbors in the
+     * same order as ForagingAntsManager, then evaporates it into the next plane. Cells away from
+     * the edges of the grid find their neighbors at fixed offsets, without any bounds checks
+     */
+    private void diffuseRows (double[] pheromone, double[] nextPheromone, int startX, int endX) {
+        int[] neighbors = new int[myTopology.getNumNeighborsConsidered()];
+        for (int x = startX; x < endX; x++) {
+            if (x == 0 || x == myMaxX - 1) {
+                for (int y = 0; y < myMaxY; y++) {
+                    diffuseEdgeCell(pheromone, nextPheromone, x, y, neighbors);
+                }
+                continue;
+            }
+            diffuseEdgeCell(pheromone, nextPheromone, x, 0, neighbors);
+            for (int index = x * myMaxY + 1; index < (x + 1) * myMaxY - 1; index++) {
+                double neighborSum = 0;
+                for (int offset : myInteriorOffsets) {
+                    neighborSum += pheromone[index + offset];
+                }
+                nextPheromone[index] = PheromoneInfo.diffuse(pheromone[index], neighborSum,
+                                                             myInteriorOffsets.length,
+                                                             myDiffusionRatio) *
+                                       myEvapMultiplier;
+            }
+            if (myMaxY > 1) {
+                diffuseEdgeCell(pheromone, nextPheromone, x, myMaxY - 1, neighbors);
+            }
+        }
+    }
+
+    private void diffuseEdgeCell (double[] pheromone,
+                                  double[] nextPheromone,
+                                  int x,
+                                  int y,
+                                  int[] neighbors) {
+        int numNeighbors = findNeighbors(x, y, neighbors);
+        double neighborSum = 0;
+        for (int i = 0; i < numNeighbors; i++) {
+            neighborSum += pheromone[neighbors[i]];
+        }
+        int index = x * myMaxY + y;
+        nextPheromone[index] = PheromoneInfo.diffuse(pheromone[index], neighborSum, numNeighbors,
+                                                     myDiffusionRatio) *
+                               myEvapMultiplier;
+    }
+
+    /**
+     * Task that splits a range of rows in half until it is at most one band, then updates the
+     * pheromone field of every row in the range
+     */
+    private class FieldTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int myStartX;
+        private final int myEndX;
+
+        private FieldTask (int startX, int endX) {
+            myStartX = startX;
+            myEndX = endX;
+        }
+
+        @Override
+        protected void compute () {
+            if (myEndX - myStartX <= myRowsPerBand) {
+                updatePheromoneRows(myStartX, myEndX);
+            }
+            else {
+                int middle = (myStartX + myEndX) / 2;
+                invokeAll(new FieldTask(myStartX, middle), new FieldTask(middle, myEndX));
+            }
+        }
+    }
+
+    /**
+     * Same rules as ForagingAntCell.calculateNextState: the cell moves its ants, then a nest
+     * hatches a new ant
+     */
+    private void calculateNextState (int index, int x, int y, SplittableRandom random) {
+        if (myNumAnts[index] > 0) {
+            moveAnts(index, findNeighbors(x, y, myNeighbors), random);
+        }
+        if (myStates[index] == FOODSOURCE || myStates[index] == NEST) {
+            myNextStates[index] = myStates[index];
+            if (myStates[index] == NEST) {
+                addAnt(index);
+            }
+        }
+        else {
+            myNextStates[index] = myNumAnts[index] == 0 ? PHEROMONE : ANT;
+        }
+    }
+
+    /**
+     * Ages every ant in the cell, in order, removing those past their lifetime and moving the
+     * others to the neighbor they choose, if any, as ForagingAntCell.moveAnts does
+     */
+    private void moveAnts (int index, int numNeighbors, SplittableRandom random) {
+        int previous = NONE;
+        int ant = myFirstAnts[index];
+        while (ant != NONE) {
+            int next = myNextAnts[ant];
+            myAges[ant]++;
+            if (myAges[ant] > myAntLifetime) {
+                unlink(ant, previous, index);
+                freeAnt(ant);
+            }
+            else if (!moveAnt(ant, previous, index, numNeighbors, random)) {
+                previous = ant;
+            }
+            ant = next;
+        }
+    }
+
+    /**
+     * Moves the ant to a neighbor chosen as in AntInfo.selectLocation, raising the pheromone it
+     * lays there to just under the most pheromone of the other kind around its old cell, as in
+     * ForagingAntCell.dropPheromones. An ant picks up food at a food source and drops it at a
+     * nest
+     *
+     * @return whether the ant moved
+     */
+    private boolean moveAnt (int ant,
+                             int previous,
+                             int index,
+                             int numNeighbors,
+                             SplittableRandom random) {
+        int full = findFullNeighbors(numNeighbors);
+        if (full == (1 << numNeighbors) - 1) {
+            return false;
+        }
+        boolean hasFood = myHasFood[ant];
+        double[] followed = hasFood ? myNestPheromone : myFoodPheromone;
+        double[] laid = hasFood ? myFoodPheromone : myNestPheromone;
+        double maxPheromone = laid[myNeighbors[findMostPheromone(followed, numNeighbors, 0)]];
+        int target = selectLocation(followed, numNeighbors, full, random);
+        if (target == NONE) {
+            return false;
+        }
+        unlink(ant, previous, index);
+        append(ant, target);
+        double dropValue = maxPheromone - ForagingAntCell.GRAD_FACTOR - laid[target];
+        if (dropValue > 0) {
+            laid[target] = dropValue;
+        }
+        if (myStates[target] == FOODSOURCE) {
+            myHasFood[ant] = true;
+        }
+        if (myStates[target] == NEST) {
+            myHasFood[ant] = false;
+        }
+        return true;
+    }
+
+    /**
+     * @return bit mask of the positions in the neighbor buffer of the neighbors too full to move
+     *         into
+     */
+    private int findFullNeighbors (int numNeighbors) {
+        int full = 0;
+        for (int position = 0; position < numNeighbors; position++) {
+            if (myNumAnts[myNeighbors[position]] > myMaxAntsInCell) {
+                full |= 1 << position;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Tries the neighbors that are not full from the most to the least of the followed
+     * pheromone, taking each with a probability that halves with every neighbor turned down, as
+     * in AntInfo.selectLocation, which skips full neighbors without drawing. Each neighbor is
+     * found by a scan for the most pheromone among those not tried yet, which visits neighbors in
+     * the same order as sorting them would
+     *
+     * @param full bit mask of the positions in the neighbor buffer of the full neighbors
+     * @return the chosen neighbor, or NONE if none was taken
+     */
+    private int selectLocation (double[] followed,
+                                int numNeighbors,
+                                int full,
+                                SplittableRandom random) {
+        double probability = AntInfo.PROBABILITY;
+        int tried = full;
+        for (int position = findMostPheromone(followed, numNeighbors, tried); position != NONE;
+             position = findMostPheromone(followed, numNeighbors, tried)) {
+            tried |= 1 << position;
+            if (random.nextDouble() <= probability) {
+                return myNeighbors[position];
+            }
+            probability = probability / AntInfo.DECREAST_FACTOR;
+        }
+        return NONE;
+    }
+
+    /**
+     * @param tried bit mask of the positions in the neighbor buffer to leave out
+     * @return position in the neighbor buffer of the neighbor with the most pheromone, the first
+     *         of them if several have as much, or NONE if every neighbor is left out
+     */
+    private int findMostPheromone (double[] pheromone, int numNeighbors, int tried) {
+        int best = NONE;
+        double maxPheromone = 0;
+        for (int position = 0; position < numNeighbors; position++) {
+            if ((tried & 1 << position) != 0) {
+                continue;
+            }
+            double neighborPheromone = pheromone[myNeighbors[position]];
+            if (best == NONE || neighborPheromone > maxPheromone) {
+                best = position;
+                maxPheromone = neighborPheromone;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param neighbors buffer with room for every neighbor considered
+     * @return number of neighbors of the cell written to the buffer, each listed once
+     */
+    private int findNeighbors (int x, int y, int[] neighbors) {
+        return myTopology.fillNeighbors(x, y, 1, true, neighbors);
+    }
+
+    /**
+     * Same check as ForagingAntsManager.isCellStable, which counts a cell as stable while it holds
+     * any ants
+     */
+    @Override
+    public boolean areAllCellsStable () {
+        myNumPasses++;
+        for (int index = 0; index < myNumAnts.length; index++) {
+            if (myNumAnts[index] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    /**
+     * Same as ForagingAntsManager, whose ants keep moving without any state changing
+     */
+    @Override
+    public boolean endsWhenUnchanged () {
+        return false;
+    }
+
+    /**
+     * Cells with ants are shaded by how many ants they hold, which changes without the state
+     * changing, so changes are not listed
+     */
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        return -1;
+    }
+
+    @Override
+    public List<List<IState>> getAllStates () {
+        List<List<IState>> allStates = new ArrayList<List<IState>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<IState> stateRow = new ArrayList<IState>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                stateRow.add(STATES[myStates[x * myMaxY + y]]);
+            }
+            allStates.add(stateRow);
+        }
+        return allStates;
+    }
+
+    @Override
+    public IState[] getStates () {
+        return STATES.clone();
+    }
+
+    @Override
+    public void countStates (int[] stateCounts) {
+        Arrays.fill(stateCounts, 0);
+        for (int index = 0; index < myStates.length; index++) {
+            stateCounts[myStates[index]]++;
+        }
+    }
+
+    @Override
+    public List<List<CellColor>> getAllCellColors () {
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                paintRow.add(getCellColor(x * myMaxY + y));
+            }
+            paints.add(paintRow);
+        }
+        return paints;
+    }
+
+    /**
+     * Colors cells as ForagingAntCell does, shading cells with ants by how full they are
+     */
+    @Override
+    public CellColor getCellColor (int index) {
+        if (myStates[index] == ANT) {
+            double ratio = Math.min(myNumAnts[index] * 1.0 / myMaxAntsInCell, 1);
+            return new CellColor(1.0, 0, 0, ratio);
+        }
+        return STATES[myStates[index]].getColor();
+    }
+
+    @Override
+    public void fillCellColors (int[] colors) {
+        for (int index = 0; index < colors.length; index++) {
+            colors[index] = getCellArgb(index);
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = getCellArgb(index);
+        }
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        if (myStates[index] == ANT) {
+            return ForagingAntCell.toAntArgb(myNumAnts[index], myMaxAntsInCell);
+        }
+        return PALETTE[myStates[index]];
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    @Override
+    public void close () {
+        if (myPool != null) {
+            myPool.close();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package simulation_managers;
 
 import java.util.Map;
-import java.util.Random;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
 import grid_displays.Position;
+import grids.NeighborTable;
 import simulation_cells.ForagingAntCell;
+import simulation_cells.PheromoneInfo;
+import simulation_cells.RandomStreams;
 import states.ForagingAntState;
 
 
@@ -14,6 +18,23 @@ public class ForagingAntsManager extends AbstractCellManager<ForagingAntCell> {
     private static final double DEFAULT_EVAP_RATIO = 0.01;
     private static final String MAX_ANTS_KEY = "maxAnts";
     private static final int DEFAULT_MAX_ANTS = 10;
+    private static final String DIFFUSION_RATIO_KEY = "diffusionRatio";
+    private static final double DEFAULT_DIFFUSION_RATIO = 0;
+
+    private double myDiffusionRatio;
+    // sums of the pheromones around each cell, reused every generation when diffusing
+    private double[] myFoodSums;
+    private double[] myNestSums;
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        myDiffusionRatio = getDiffusionRatio(config.getParametersMap());
+        super.initialize(config);
+        if (myDiffusionRatio > 0) {
+            myFoodSums = new double[getNumCells()];
+            myNestSums = new double[getNumCells()];
+        }
+    }
 
     @Override
     protected ForagingAntCell createNewCell (Integer initialStateNum,
@@ -25,7 +46,7 @@ public class ForagingAntsManager extends AbstractCellManager<ForagingAntCell> {
         return new ForagingAntCell(initialState, antLifetime, evapRatio, maxAntsInCell);
     }
 
-    private int getMaxAntsInCell (Map<String, Number> parameters) {
+    static int getMaxAntsInCell (Map<String, Number> parameters) {
         if (parameters.containsKey(MAX_ANTS_KEY)) {
             return parameters.get(MAX_ANTS_KEY).intValue();
         }
@@ -34,7 +55,7 @@ public class ForagingAntsManager extends AbstractCellManager<ForagingAntCell> {
         }
     }
 
-    private double getEvapRatio (Map<String, Number> parameters) {
+    static double getEvapRatio (Map<String, Number> parameters) {
         if (parameters.containsKey(EVAP_RATIO_KEY)) {
             return parameters.get(EVAP_RATIO_KEY).doubleValue();
         }
@@ -43,7 +64,16 @@ public class ForagingAntsManager extends AbstractCellManager<ForagingAntCell> {
         }
     }
 
-    private int getAntLifetime (Map<String, Number> parameters) {
+    static double getDiffusionRatio (Map<String, Number> parameters) {
+        if (parameters.containsKey(DIFFUSION_RATIO_KEY)) {
+            return parameters.get(DIFFUSION_RATIO_KEY).doubleValue();
+        }
+        else {
+            return DEFAULT_DIFFUSION_RATIO;
+        }
+    }
+
+    static int getAntLifetime (Map<String, Number> parameters) {
         if (parameters.containsKey(ANT_LIFETIME_KEY)) {
             return parameters.get(ANT_LIFETIME_KEY).intValue();
         }
@@ -54,10 +84,55 @@ public class ForagingAntsManager extends AbstractCellManager<ForagingAntCell> {
 
     @Override
     protected ForagingAntCell createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(ForagingAntState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(ForagingAntState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 
+    /**
+     * Updates the pheromone field of the whole grid before any ant moves: sources are refilled,
+     * then both pheromones diffuse, if the diffusionRatio parameter is above 0, and evaporate
+     */
+    @Override
+    protected void prepareForNextStateCalc () {
+        for (ForagingAntCell cell : getAllCells()) {
+            cell.resetPheromones();
+        }
+        if (myDiffusionRatio > 0) {
+            diffusePheromones();
+        }
+        for (ForagingAntCell cell : getAllCells()) {
+            cell.getMyPheromone().evaporate();
+        }
+    }
+
+    /**
+     * Sums the pheromones around every cell first, so that every cell diffuses from the field as
+     * it was before any of them changed
+     */
+    private void diffusePheromones () {
+        NeighborTable neighborTable = getNeighborTable();
+        for (int index = 0; index < getNumCells(); index++) {
+            double foodSum = 0;
+            double nestSum = 0;
+            for (int position = neighborTable.getStart(index);
+                 position < neighborTable.getEnd(index); position++) {
+                ForagingAntCell neighbor = getCell(neighborTable.getNeighborIndex(position));
+                foodSum += neighbor.getFoodPheromone();
+                nestSum += neighbor.getNestPheromone();
+            }
+            myFoodSums[index] = foodSum;
+            myNestSums[index] = nestSum;
+        }
+        for (int index = 0; index < getNumCells(); index++) {
+            ForagingAntCell cell = getCell(index);
+            int numNeighbors = neighborTable.getNumNeighbors(index);
+            cell.setFoodPheromone(PheromoneInfo.diffuse(cell.getFoodPheromone(), myFoodSums[index],
+                                                        numNeighbors, myDiffusionRatio));
+            cell.setNestPheromone(PheromoneInfo.diffuse(cell.getNestPheromone(), myNestSums[index],
+                                                        numNeighbors, myDiffusionRatio));
+        }
+    }
+
     @Override
     protected void calculateNextState (ForagingAntCell cell, Position position) {
         cell.calculateNextState(getNeighbors(position));
@@ -68,4 +143,22 @@ public class ForagingAntsManager extends AbstractCellManager<ForagingAntCell> {
         return cell.getNumberOfAnts() > 0;
     }
 
+    /**
+     * Cells with ants are shaded by how many ants they hold, which changes without the state
+     * changing
+     */
+    @Override
+    protected boolean isColorOfState () {
+        return false;
+    }
+
+    /**
+     * Ants keep moving and laying pheromones without any state changing, so the run only ends
+     * once isCellStable holds
+     */
+    @Override
+    public boolean endsWhenUnchanged () {
+        return false;
+    }
+
 }
@@ -0,0 +1,343 @@
+package simulation_managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import grids.GridTopology;
+import simulation_cells.RandomStreams;
+import states.CellColor;
+import states.GameOfLifeState;
+import states.IState;
+
+
+/**
+ * Manager for a Game of Life simulation that stores the board as bitboards, 64 cells to a long,
+ * and calculates each generation with bit-parallel adder logic instead of per-cell objects.
+ * Supports the same GridEdge and NumNeighborsConsidered styles as the cell based managers, and
+ * assumes the grid is at least 3 cells wide in each wrapped direction (smaller toroidal grids would
+ * count a wrapped neighbor more than once)
+ *
+ * @author David Maydew
+ *
+ */
+public class GameOfLifeBitboardManager implements ICellManager {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+    private static final int ALIVE_ARGB = GameOfLifeState.ALIVE.getColor().toArgb();
+    private static final int DEAD_ARGB = GameOfLifeState.DEAD.getColor().toArgb();
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    private int myMaxX;
+    private int myMaxY;
+    private int myWordsPerRow;
+    private long myLastWordMask;
+    private boolean myToroidal;
+    private int myNumNeighborsConsidered;
+    private long[] myBoard;
+    private long[] myNextBoard;
+    private boolean myNextCalculated;
+    // whether the next board still holds the board replaced by the last update
+    private boolean myKeepsPreviousBoard;
+    private int myNextNumChangedCells;
+    private int myNumChangedCells;
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        readStyle(config);
+        if (!config.isRandomStates()) {
+            List<List<Integer>> initialStates = config.getInitialStates();
+            createBoard(initialStates.size(), initialStates.get(0).size());
+            for (int x = 0; x < myMaxX; x++) {
+                List<Integer> stateRow = initialStates.get(x);
+                for (int y = 0; y < myMaxY; y++) {
+                    setAlive(x, y, toState(stateRow.get(y)) == GameOfLifeState.ALIVE);
+                }
+            }
+        }
+        else {
+            createBoard(config.getRandomWidth(), config.getRandomHeight());
+            SplittableRandom random =
+                    RandomStreams.fromParameters(config.getParametersMap()).stream(0, 0);
+            for (int x = 0; x < myMaxX; x++) {
+                for (int y = 0; y < myMaxY; y++) {
+                    setAlive(x, y, random.nextInt(GameOfLifeState.values().length) ==
+                                   GameOfLifeState.ALIVE.ordinal());
+                }
+            }
+        }
+    }
+
+    private void readStyle (Configuration config) {
+        myToroidal = GridTopology.isToroidalEdge(config.getStyle("GridEdge"));
+        int numNeighborsConsidered = Integer.parseInt(config.getStyle("NumNeighborsConsidered"));
+        myNumNeighborsConsidered = GridTopology.checkedNumNeighbors(numNeighborsConsidered);
+    }
+
+    private GameOfLifeState toState (Integer initialStateNum) throws SimulationException {
+        try {
+            return GameOfLifeState.values()[initialStateNum];
+        }
+        catch (ArrayIndexOutOfBoundsException e) {
+            throw new SimulationException(myErrorResources.getString("InvalidInitialState"), e);
+        }
+    }
+
+    private void createBoard (int maxX, int maxY) {
+        myMaxX = maxX;
+        myMaxY = maxY;
+        myWordsPerRow = (maxY + BITS_PER_WORD - 1) / BITS_PER_WORD;
+        int bitsInLastWord = maxY - (myWordsPerRow - 1) * BITS_PER_WORD;
+        myLastWordMask = bitsInLastWord == BITS_PER_WORD ? -1L : (1L << bitsInLastWord) - 1;
+        myBoard = new long[maxX * myWordsPerRow];
+        myNextBoard = new long[myBoard.length];
+        myNextCalculated = false;
+    }
+
+    private void setAlive (int x, int y, boolean alive) {
+        int word = x * myWordsPerRow + y / BITS_PER_WORD;
+        long bit = 1L << (y % BITS_PER_WORD);
+        myBoard[word] = alive ? myBoard[word] | bit : myBoard[word] & ~bit;
+    }
+
+    private boolean isAlive (int x, int y) {
+        return (myBoard[x * myWordsPerRow + y / BITS_PER_WORD] >>> (y % BITS_PER_WORD) & 1L) != 0;
+    }
+
+    @Override
+    public void updateAllCells () {
+        calculateAllNextStates();
+        long[] oldBoard = myBoard;
+        myBoard = myNextBoard;
+        myNextBoard = oldBoard;
+        myNextCalculated = false;
+        myKeepsPreviousBoard = true;
+        myNumChangedCells = myNextNumChangedCells;
+    }
+
+    /**
+     * Calculates the next generation of the whole board, one 64 cell word at a time. Each live
+     * neighbor word is added into a 3 bit counter spread over three words (s0, s1, s2), with s2
+     * saturating so that any count of 4 or more reads as overpopulated
+     */
+    @Override
+    public void calculateAllNextStates () {
+        if (myNextCalculated) {
+            return;
+        }
+        myKeepsPreviousBoard = false;
+        int changedCells = 0;
+        for (int x = 0; x < myMaxX; x++) {
+            for (int word = 0; word < myWordsPerRow; word++) {
+                long s0 = 0;
+                long s1 = 0;
+                long s2 = 0;
+                for (int i = 0; i < myNumNeighborsConsidered; i++) {
+                    long neighbors = neighborWord(x + GridTopology.getXShift(i), word,
+                                                  GridTopology.getYShift(i));
+                    long carry0 = s0 & neighbors;
+                    s0 ^= neighbors;
+                    long carry1 = s1 & carry0;
+                    s1 ^= carry0;
+                    s2 |= carry1;
+                }
+                long alive = myBoard[x * myWordsPerRow + word];
+                long next = ~s2 & s1 & (s0 | alive);
+                if (word == myWordsPerRow - 1) {
+                    next &= myLastWordMask;
+                }
+                myNextBoard[x * myWordsPerRow + word] = next;
+                changedCells += Long.bitCount(next ^ alive);
+            }
+        }
+        myNextNumChangedCells = changedCells;
+        myNextCalculated = true;
+    }
+
+    /**
+     * @param x row of the neighbors, which may be outside of the board
+     * @param word which word of the row to align with
+     * @param yShift column offset of the neighbors, -1, 0 or 1
+     * @return word whose bit b is the cell at row x, column (word * 64 + b + yShift)
+     */
+    private long neighborWord (int x, int word, int yShift) {
+        if (x < 0 || x >= myMaxX) {
+            if (!myToroidal) {
+                return 0;
+            }
+            x = (x + myMaxX) % myMaxX;
+        }
+        int rowStart = x * myWordsPerRow;
+        long current = myBoard[rowStart + word];
+        if (yShift < 0) {
+            long carry;
+            if (word > 0) {
+                carry = myBoard[rowStart + word - 1] >>> (BITS_PER_WORD - 1);
+            }
+            else {
+                carry = myToroidal ? lastColumnBit(rowStart) : 0;
+            }
+            return current << 1 | carry;
+        }
+        else if (yShift > 0) {
+            long carry;
+            if (word < myWordsPerRow - 1) {
+                carry = myBoard[rowStart + word + 1] << (BITS_PER_WORD - 1);
+            }
+            else {
+                carry = myToroidal ? (myBoard[rowStart] & 1L) << ((myMaxY - 1) % BITS_PER_WORD)
+                                   : 0;
+            }
+            return current >>> 1 | carry;
+        }
+        return current;
+    }
+
+    private long lastColumnBit (int rowStart) {
+        return myBoard[rowStart + myWordsPerRow - 1] >>> ((myMaxY - 1) % BITS_PER_WORD) & 1L;
+    }
+
+    @Override
+    public boolean areAllCellsStable () {
+        calculateAllNextStates();
+        return myNextNumChangedCells == 0;
+    }
+
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    @Override
+    public boolean endsWhenUnchanged () {
+        return true;
+    }
+
+    /**
+     * Lists the set bits of each word of the board xor the board it replaced, which is kept in the
+     * next board until the next generation is calculated
+     */
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        if (!myKeepsPreviousBoard || myNumChangedCells > changedCells.length) {
+            return -1;
+        }
+        int numChanged = 0;
+        for (int x = 0; x < myMaxX; x++) {
+            for (int word = 0; word < myWordsPerRow; word++) {
+                int wordIndex = x * myWordsPerRow + word;
+                long changes = myBoard[wordIndex] ^ myNextBoard[wordIndex];
+                while (changes != 0) {
+                    int y = word * BITS_PER_WORD + Long.numberOfTrailingZeros(changes);
+                    changedCells[numChanged++] = x * myMaxY + y;
+                    changes &= changes - 1;
+                }
+            }
+        }
+        return numChanged;
+    }
+
+    @Override
+    public List<List<IState>> getAllStates () {
+        List<List<IState>> allStates = new ArrayList<List<IState>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<IState> stateRow = new ArrayList<IState>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                stateRow.add(isAlive(x, y) ? GameOfLifeState.ALIVE : GameOfLifeState.DEAD);
+            }
+            allStates.add(stateRow);
+        }
+        return allStates;
+    }
+
+    @Override
+    public IState[] getStates () {
+        return GameOfLifeState.values();
+    }
+
+    /**
+     * Counts the live cells a word at a time
+     */
+    @Override
+    public void countStates (int[] stateCounts) {
+        int numAlive = 0;
+        for (int word = 0; word < myBoard.length; word++) {
+            numAlive += Long.bitCount(myBoard[word]);
+        }
+        stateCounts[GameOfLifeState.ALIVE.ordinal()] = numAlive;
+        stateCounts[GameOfLifeState.DEAD.ordinal()] = myMaxX * myMaxY - numAlive;
+    }
+
+    @Override
+    public List<List<CellColor>> getAllCellColors () {
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                paintRow.add(isAlive(x, y) ? GameOfLifeState.ALIVE.getColor()
+                                           : GameOfLifeState.DEAD.getColor());
+            }
+            paints.add(paintRow);
+        }
+        return paints;
+    }
+
+    @Override
+    public CellColor getCellColor (int index) {
+        return isAlive(index / myMaxY, index % myMaxY) ? GameOfLifeState.ALIVE.getColor()
+                                                       : GameOfLifeState.DEAD.getColor();
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        return isAlive(index / myMaxY, index % myMaxY) ? ALIVE_ARGB : DEAD_ARGB;
+    }
+
+    /**
+     * Fills in the colors one word of the board at a time
+     */
+    @Override
+    public void fillCellColors (int[] colors) {
+        for (int x = 0; x < myMaxX; x++) {
+            for (int word = 0; word < myWordsPerRow; word++) {
+                long alive = myBoard[x * myWordsPerRow + word];
+                int start = word * BITS_PER_WORD;
+                int end = Math.min(myMaxY, start + BITS_PER_WORD);
+                for (int y = start; y < end; y++) {
+                    colors[x * myMaxY + y] = (alive >>> (y - start) & 1L) != 0 ? ALIVE_ARGB
+                                                                               : DEAD_ARGB;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = getCellArgb(index);
+        }
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    /**
+     * Steps on the calling thread, so has no threads to release
+     */
+    @Override
+    public void close () {
+    }
+}
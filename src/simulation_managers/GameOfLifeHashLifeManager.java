@@ -0,0 +1,662 @@
+package simulation_managers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import simulation_cells.RandomStreams;
+import states.CellColor;
+import states.GameOfLifeState;
+import states.IState;
+
+
+/**
+ * Manager for a Game of Life simulation that uses the HashLife algorithm: the universe is a
+ * quadtree of canonical (shared) nodes, and the result of advancing each node is memoized so that
+ * repeated structure in space and time is only ever calculated once. Each update advances the
+ * pattern by 2^stepExponent generations.
+ *
+ * The pattern lives on an unbounded plane, so the GridEdge style is ignored. Only the Moore
+ * neighborhood is supported: a NumNeighborsConsidered style other than 8 is rejected with a
+ * SimulationException. The grid from the configuration is used as the viewport that is
+ * materialized for getAllStates and getAllCellColors, and only its cells are counted and listed
+ * as changed by an update. When the number of canonical nodes exceeds
+ * the nodeBudget parameter, every node that is no longer reachable from the current pattern is
+ * dropped along with all memoized results.
+ *
+ * @author David Maydew
+ *
+ */
+public class GameOfLifeHashLifeManager implements ICellManager {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    private static final String STEP_EXPONENT_KEY = "stepExponent";
+    private static final int DEFAULT_STEP_EXPONENT = 0;
+    private static final String NODE_BUDGET_KEY = "nodeBudget";
+    private static final int DEFAULT_NODE_BUDGET = 1000000;
+    private static final int MOORE_NEIGHBORS = 8;
+    private static final int MIN_ROOT_LEVEL = 3;
+    private static final int REPRODUCTION_NUMBER = 3;
+
+    private static final Node DEAD = new Node(0);
+    private static final Node ALIVE = new Node(1);
+    private static final int ALIVE_ARGB = GameOfLifeState.ALIVE.getColor().toArgb();
+    private static final int DEAD_ARGB = GameOfLifeState.DEAD.getColor().toArgb();
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    private Map<Node, Node> myNodes = new HashMap<Node, Node>();
+    private List<Node> myEmptyNodes = new ArrayList<Node>();
+    private int myStepExponent;
+    private int myNodeBudget;
+    private int myMaxX;
+    private int myMaxY;
+    private Node myRoot;
+    private Node myNextRoot;
+    // pattern replaced by the last update, to list the cells of the viewport that it changed
+    private Node myPreviousRoot;
+    private boolean[] myViewport;
+    private int myNumChangedCells;
+
+    /**
+     * A square block of 2^level cells on a side. Level 0 nodes are single cells; all others are
+     * made of four children of the level below, and are only ever created through join so that
+     * nodes with the same contents are the same object
+     */
+    private static class Node {
+        private final Node myNW;
+        private final Node myNE;
+        private final Node mySW;
+        private final Node mySE;
+        private final int myLevel;
+        private final long myPopulation;
+        private final int myHash;
+        private Node myResult;
+
+        private Node (int population) {
+            myNW = null;
+            myNE = null;
+            mySW = null;
+            mySE = null;
+            myLevel = 0;
+            myPopulation = population;
+            myHash = population;
+        }
+
+        private Node (Node nw, Node ne, Node sw, Node se) {
+            myNW = nw;
+            myNE = ne;
+            mySW = sw;
+            mySE = se;
+            myLevel = nw.myLevel + 1;
+            myPopulation = nw.myPopulation + ne.myPopulation + sw.myPopulation + se.myPopulation;
+            int hash = System.identityHashCode(nw);
+            hash = 31 * hash + System.identityHashCode(ne);
+            hash = 31 * hash + System.identityHashCode(sw);
+            myHash = 31 * hash + System.identityHashCode(se);
+        }
+
+        @Override
+        public int hashCode () {
+            return myHash;
+        }
+
+        /**
+         * Children are canonical, so two nodes are equal exactly when they share the same children
+         */
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof Node)) {
+                return false;
+            }
+            Node node = (Node)other;
+            return myLevel == node.myLevel && myNW == node.myNW && myNE == node.myNE &&
+                   mySW == node.mySW && mySE == node.mySE && myPopulation == node.myPopulation;
+        }
+    }
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        if (Integer.parseInt(config.getStyle("NumNeighborsConsidered")) != MOORE_NEIGHBORS) {
+            throw new SimulationException(myErrorResources.getString("InvalidParameter"));
+        }
+        myStepExponent = getParameter(STEP_EXPONENT_KEY, config.getParametersMap(),
+                                      DEFAULT_STEP_EXPONENT);
+        myNodeBudget = getParameter(NODE_BUDGET_KEY, config.getParametersMap(),
+                                    DEFAULT_NODE_BUDGET);
+        boolean[] initialCells;
+        if (!config.isRandomStates()) {
+            initialCells = readInitialStates(config.getInitialStates());
+        }
+        else {
+            myMaxX = config.getRandomWidth();
+            myMaxY = config.getRandomHeight();
+            initialCells = new boolean[myMaxX * myMaxY];
+            SplittableRandom random =
+                    RandomStreams.fromParameters(config.getParametersMap()).stream(0, 0);
+            for (int i = 0; i < initialCells.length; i++) {
+                initialCells[i] = random.nextInt(GameOfLifeState.values().length) ==
+                                  GameOfLifeState.ALIVE.ordinal();
+            }
+        }
+        int level = MIN_ROOT_LEVEL;
+        while (1 << (level - 1) < Math.max(myMaxX, myMaxY)) {
+            level++;
+        }
+        int half = 1 << (level - 1);
+        setRoot(buildNode(initialCells, level, -half, -half));
+    }
+
+    private int getParameter (String key, Map<String, Number> parameters, int defaultValue) {
+        if (parameters.containsKey(key)) {
+            return parameters.get(key).intValue();
+        }
+        else {
+            return defaultValue;
+        }
+    }
+
+    private boolean[] readInitialStates (List<List<Integer>> initialStates) throws SimulationException {
+        myMaxX = initialStates.size();
+        myMaxY = initialStates.get(0).size();
+        boolean[] cells = new boolean[myMaxX * myMaxY];
+        for (int x = 0; x < myMaxX; x++) {
+            for (int y = 0; y < myMaxY; y++) {
+                try {
+                    cells[x * myMaxY + y] = GameOfLifeState.values()[initialStates.get(x)
+                            .get(y)] == GameOfLifeState.ALIVE;
+                }
+                catch (ArrayIndexOutOfBoundsException e) {
+                    throw new SimulationException(myErrorResources
+                            .getString("InvalidInitialState"), e);
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Builds the node for the square of the given level whose top left cell is at (x0, y0), where
+     * the viewport occupies [0, maxX) x [0, maxY)
+     */
+    private Node buildNode (boolean[] cells, int level, int x0, int y0) {
+        int size = 1 << level;
+        if (x0 >= myMaxX || y0 >= myMaxY || x0 + size <= 0 || y0 + size <= 0) {
+            return emptyNode(level);
+        }
+        if (level == 0) {
+            return cells[x0 * myMaxY + y0] ? ALIVE : DEAD;
+        }
+        int half = size / 2;
+        return join(buildNode(cells, level - 1, x0, y0),
+                    buildNode(cells, level - 1, x0, y0 + half),
+                    buildNode(cells, level - 1, x0 + half, y0),
+                    buildNode(cells, level - 1, x0 + half, y0 + half));
+    }
+
+    /**
+     * @return the canonical node with the given children
+     */
+    private Node join (Node nw, Node ne, Node sw, Node se) {
+        Node candidate = new Node(nw, ne, sw, se);
+        Node canonical = myNodes.get(candidate);
+        if (canonical == null) {
+            myNodes.put(candidate, candidate);
+            canonical = candidate;
+        }
+        return canonical;
+    }
+
+    private Node emptyNode (int level) {
+        while (myEmptyNodes.size() <= level) {
+            if (myEmptyNodes.isEmpty()) {
+                myEmptyNodes.add(DEAD);
+            }
+            else {
+                Node child = myEmptyNodes.get(myEmptyNodes.size() - 1);
+                myEmptyNodes.add(join(child, child, child, child));
+            }
+        }
+        return myEmptyNodes.get(level);
+    }
+
+    /**
+     * @return a node one level up with the given node in its center and empty space around it
+     */
+    private Node expand (Node node) {
+        Node border = emptyNode(node.myLevel - 1);
+        return join(join(border, border, border, node.myNW),
+                    join(border, border, node.myNE, border),
+                    join(border, node.mySW, border, border),
+                    join(node.mySE, border, border, border));
+    }
+
+    /**
+     * @return the node one level down that covers the center of the given node
+     */
+    private Node center (Node node) {
+        return join(node.myNW.mySE, node.myNE.mySW, node.mySW.myNE, node.mySE.myNW);
+    }
+
+    private Node centerHorizontal (Node west, Node east) {
+        return join(west.myNE, east.myNW, west.mySE, east.mySW);
+    }
+
+    private Node centerVertical (Node north, Node south) {
+        return join(north.mySW, north.mySE, south.myNW, south.myNE);
+    }
+
+    /**
+     * Calculates the center of the given node (one level down) advanced by
+     * 2^min(level - 2, stepExponent) generations, memoizing the result on the node
+     */
+    private Node successor (Node node) {
+        if (node.myResult != null) {
+            return node.myResult;
+        }
+        Node result;
+        if (node.myPopulation == 0) {
+            result = node.myNW;
+        }
+        else if (node.myLevel == 2) {
+            result = advanceOneGeneration(node);
+        }
+        else {
+            Node[] parts = { node.myNW, centerHorizontal(node.myNW, node.myNE), node.myNE,
+                             centerVertical(node.myNW, node.mySW), center(node),
+                             centerVertical(node.myNE, node.mySE),
+                             node.mySW, centerHorizontal(node.mySW, node.mySE), node.mySE };
+            boolean fullSpeed = myStepExponent >= node.myLevel - 2;
+            for (int i = 0; i < parts.length; i++) {
+                parts[i] = fullSpeed ? successor(parts[i]) : center(parts[i]);
+            }
+            result = join(successor(join(parts[0], parts[1], parts[3], parts[4])),
+                          successor(join(parts[1], parts[2], parts[4], parts[5])),
+                          successor(join(parts[3], parts[4], parts[6], parts[7])),
+                          successor(join(parts[4], parts[5], parts[7], parts[8])));
+        }
+        node.myResult = result;
+        return result;
+    }
+
+    /**
+     * Base case for a 4x4 node: applies the Game of Life rule once to its center 2x2 cells
+     */
+    private Node advanceOneGeneration (Node node) {
+        boolean[][] cells = new boolean[4][4];
+        fillCells(node, cells, 0, 0);
+        Node[] center = new Node[4];
+        for (int i = 0; i < center.length; i++) {
+            int x = 1 + i / 2;
+            int y = 1 + i % 2;
+            int liveNeighbors = 0;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx != 0 || dy != 0) && cells[x + dx][y + dy]) {
+                        liveNeighbors++;
+                    }
+                }
+            }
+            boolean alive = liveNeighbors == REPRODUCTION_NUMBER ||
+                            (cells[x][y] && liveNeighbors == REPRODUCTION_NUMBER - 1);
+            center[i] = alive ? ALIVE : DEAD;
+        }
+        return join(center[0], center[1], center[2], center[3]);
+    }
+
+    private void fillCells (Node node, boolean[][] cells, int x0, int y0) {
+        if (node.myLevel == 0) {
+            cells[x0][y0] = node == ALIVE;
+            return;
+        }
+        int half = 1 << (node.myLevel - 1);
+        fillCells(node.myNW, cells, x0, y0);
+        fillCells(node.myNE, cells, x0, y0 + half);
+        fillCells(node.mySW, cells, x0 + half, y0);
+        fillCells(node.mySE, cells, x0 + half, y0 + half);
+    }
+
+    /**
+     * Pads the root until the whole pattern lies within a quarter of its width of the center,
+     * which leaves room for it to grow at the speed of light for the 2^stepExponent generations
+     * that the successor of the padded root is advanced by
+     */
+    @Override
+    public void calculateAllNextStates () {
+        if (myNextRoot != null) {
+            return;
+        }
+        Node root = myRoot;
+        while (root.myLevel < myStepExponent + MIN_ROOT_LEVEL ||
+               center(center(root)).myPopulation != root.myPopulation) {
+            root = expand(root);
+        }
+        myNextRoot = successor(root);
+    }
+
+    @Override
+    public void updateAllCells () {
+        calculateAllNextStates();
+        myNumChangedCells = countChangedViewportCells(myRoot, myNextRoot);
+        myPreviousRoot = myRoot;
+        setRoot(myNextRoot);
+        if (myNodes.size() > myNodeBudget) {
+            collectGarbage();
+        }
+    }
+
+    /**
+     * Rebuilds the canonical node table from only the nodes reachable from the current root,
+     * dropping every memoized result
+     */
+    private void collectGarbage () {
+        myNodes = new HashMap<Node, Node>();
+        myEmptyNodes = new ArrayList<Node>();
+        keep(myRoot);
+    }
+
+    private void keep (Node node) {
+        if (node.myLevel == 0 || myNodes.containsKey(node)) {
+            return;
+        }
+        node.myResult = null;
+        keep(node.myNW);
+        keep(node.myNE);
+        keep(node.mySW);
+        keep(node.mySE);
+        myNodes.put(node, node);
+    }
+
+    private void setRoot (Node root) {
+        myRoot = root;
+        myNextRoot = null;
+        myViewport = null;
+    }
+
+    /**
+     * @return whether the pattern after the next 2^stepExponent generations is the same as the
+     *         current pattern
+     */
+    @Override
+    public boolean areAllCellsStable () {
+        return countNextChangedCells() == 0;
+    }
+
+    /**
+     * @return number of cells of the viewport changed by the last update. Changes outside of the
+     *         viewport are not counted, so a run ends once nothing visible changes
+     */
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    @Override
+    public boolean endsWhenUnchanged () {
+        return true;
+    }
+
+    /**
+     * @return number of cells that differ between the current pattern and the pattern after the
+     *         next 2^stepExponent generations
+     */
+    private long countNextChangedCells () {
+        calculateAllNextStates();
+        int level = Math.max(myRoot.myLevel, myNextRoot.myLevel);
+        return countDifferentCells(expandTo(myRoot, level), expandTo(myNextRoot, level));
+    }
+
+    /**
+     * @return the node padded with empty space until it is of the given level, staying centered
+     */
+    private Node expandTo (Node node, int level) {
+        while (node.myLevel < level) {
+            node = expand(node);
+        }
+        return node;
+    }
+
+    /**
+     * Counts the cells that differ between two nodes of the same level, skipping every pair of
+     * quadrants that are the same canonical node
+     */
+    private long countDifferentCells (Node first, Node second) {
+        if (first == second) {
+            return 0;
+        }
+        if (first.myLevel == 0) {
+            return 1;
+        }
+        return countDifferentCells(first.myNW, second.myNW) +
+               countDifferentCells(first.myNE, second.myNE) +
+               countDifferentCells(first.mySW, second.mySW) +
+               countDifferentCells(first.mySE, second.mySE);
+    }
+
+    /**
+     * @return number of cells of the viewport that differ between two patterns, so that the count
+     *         agrees with the cells listed by getChangedCells
+     */
+    private int countChangedViewportCells (Node first, Node second) {
+        int level = Math.max(first.myLevel, second.myLevel);
+        int half = 1 << (level - 1);
+        return countDifferentViewportCells(expandTo(first, level), expandTo(second, level), -half,
+                                           -half);
+    }
+
+    private int countDifferentViewportCells (Node first, Node second, int x0, int y0) {
+        int size = 1 << first.myLevel;
+        if (first == second || x0 >= myMaxX || y0 >= myMaxY || x0 + size <= 0 ||
+            y0 + size <= 0) {
+            return 0;
+        }
+        if (first.myLevel == 0) {
+            return 1;
+        }
+        int half = size / 2;
+        return countDifferentViewportCells(first.myNW, second.myNW, x0, y0) +
+               countDifferentViewportCells(first.myNE, second.myNE, x0, y0 + half) +
+               countDifferentViewportCells(first.mySW, second.mySW, x0 + half, y0) +
+               countDifferentViewportCells(first.mySE, second.mySE, x0 + half, y0 + half);
+    }
+
+    /**
+     * Lists the cells of the viewport that differ between the current pattern and the one it
+     * replaced, skipping every pair of quadrants that are the same canonical node
+     */
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        if (myPreviousRoot == null) {
+            return -1;
+        }
+        int level = Math.max(myRoot.myLevel, myPreviousRoot.myLevel);
+        int half = 1 << (level - 1);
+        return listDifferentCells(expandTo(myRoot, level), expandTo(myPreviousRoot, level), -half,
+                                  -half, changedCells, 0);
+    }
+
+    /**
+     * @return number of cells now listed, or -1 if the buffer is full
+     */
+    private int listDifferentCells (Node first,
+                                    Node second,
+                                    int x0,
+                                    int y0,
+                                    int[] changedCells,
+                                    int numChanged) {
+        int size = 1 << first.myLevel;
+        if (first == second || numChanged < 0 || x0 >= myMaxX || y0 >= myMaxY ||
+            x0 + size <= 0 || y0 + size <= 0) {
+            return numChanged;
+        }
+        if (first.myLevel == 0) {
+            if (numChanged == changedCells.length) {
+                return -1;
+            }
+            changedCells[numChanged] = x0 * myMaxY + y0;
+            return numChanged + 1;
+        }
+        int half = size / 2;
+        numChanged = listDifferentCells(first.myNW, second.myNW, x0, y0, changedCells,
+                                        numChanged);
+        numChanged = listDifferentCells(first.myNE, second.myNE, x0, y0 + half, changedCells,
+                                        numChanged);
+        numChanged = listDifferentCells(first.mySW, second.mySW, x0 + half, y0, changedCells,
+                                        numChanged);
+        return listDifferentCells(first.mySE, second.mySE, x0 + half, y0 + half, changedCells,
+                                  numChanged);
+    }
+
+    /**
+     * @return whether each cell of the viewport is alive, in row-major order
+     */
+    private boolean[] getViewport () {
+        if (myViewport == null) {
+            myViewport = new boolean[myMaxX * myMaxY];
+            int half = 1 << (myRoot.myLevel - 1);
+            fillViewport(myRoot, -half, -half);
+        }
+        return myViewport;
+    }
+
+    private void fillViewport (Node node, int x0, int y0) {
+        int size = 1 << node.myLevel;
+        if (node.myPopulation == 0 || x0 >= myMaxX || y0 >= myMaxY || x0 + size <= 0 ||
+            y0 + size <= 0) {
+            return;
+        }
+        if (node.myLevel == 0) {
+            myViewport[x0 * myMaxY + y0] = true;
+            return;
+        }
+        int half = size / 2;
+        fillViewport(node.myNW, x0, y0);
+        fillViewport(node.myNE, x0, y0 + half);
+        fillViewport(node.mySW, x0 + half, y0);
+        fillViewport(node.mySE, x0 + half, y0 + half);
+    }
+
+    @Override
+    public List<List<IState>> getAllStates () {
+        boolean[] viewport = getViewport();
+        List<List<IState>> allStates = new ArrayList<List<IState>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<IState> stateRow = new ArrayList<IState>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                stateRow.add(viewport[x * myMaxY + y] ? GameOfLifeState.ALIVE
+                                                      : GameOfLifeState.DEAD);
+            }
+            allStates.add(stateRow);
+        }
+        return allStates;
+    }
+
+    @Override
+    public IState[] getStates () {
+        return GameOfLifeState.values();
+    }
+
+    /**
+     * Counts the live cells of the viewport from the populations of the quadrants, without
+     * filling in the viewport
+     */
+    @Override
+    public void countStates (int[] stateCounts) {
+        int half = 1 << (myRoot.myLevel - 1);
+        long numAlive = countViewportPopulation(myRoot, -half, -half);
+        stateCounts[GameOfLifeState.ALIVE.ordinal()] = (int)numAlive;
+        stateCounts[GameOfLifeState.DEAD.ordinal()] = (int)((long)myMaxX * myMaxY - numAlive);
+    }
+
+    /**
+     * @return number of live cells of the node, whose top left cell is at (x0, y0), that are
+     *         within the viewport
+     */
+    private long countViewportPopulation (Node node, int x0, int y0) {
+        int size = 1 << node.myLevel;
+        if (node.myPopulation == 0 || x0 >= myMaxX || y0 >= myMaxY || x0 + size <= 0 ||
+            y0 + size <= 0) {
+            return 0;
+        }
+        if (x0 >= 0 && y0 >= 0 && x0 + size <= myMaxX && y0 + size <= myMaxY) {
+            return node.myPopulation;
+        }
+        int half = size / 2;
+        return countViewportPopulation(node.myNW, x0, y0) +
+               countViewportPopulation(node.myNE, x0, y0 + half) +
+               countViewportPopulation(node.mySW, x0 + half, y0) +
+               countViewportPopulation(node.mySE, x0 + half, y0 + half);
+    }
+
+    @Override
+    public List<List<CellColor>> getAllCellColors () {
+        boolean[] viewport = getViewport();
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                paintRow.add(viewport[x * myMaxY + y] ? GameOfLifeState.ALIVE.getColor()
+                                                      : GameOfLifeState.DEAD.getColor());
+            }
+            paints.add(paintRow);
+        }
+        return paints;
+    }
+
+    /**
+     * @return total number of live cells in the pattern, including any outside of the viewport
+     */
+    public long getPopulation () {
+        return myRoot.myPopulation;
+    }
+
+    @Override
+    public CellColor getCellColor (int index) {
+        return getViewport()[index] ? GameOfLifeState.ALIVE.getColor()
+                                    : GameOfLifeState.DEAD.getColor();
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        return getViewport()[index] ? ALIVE_ARGB : DEAD_ARGB;
+    }
+
+    @Override
+    public void fillCellColors (int[] colors) {
+        boolean[] viewport = getViewport();
+        for (int index = 0; index < colors.length; index++) {
+            colors[index] = viewport[index] ? ALIVE_ARGB : DEAD_ARGB;
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        boolean[] viewport = getViewport();
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = viewport[index] ? ALIVE_ARGB : DEAD_ARGB;
+        }
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    /**
+     * Steps on the calling thread, so has no threads to release
+     */
+    @Override
+    public void close () {
+    }
+}
@@ -1,9 +1,9 @@
 package simulation_managers;
 
 import java.util.Map;
-import java.util.Random;
 import grid_displays.Position;
 import simulation_cells.GameOfLifeCell;
+import simulation_cells.RandomStreams;
 import states.GameOfLifeState;
 
 
@@ -32,9 +32,25 @@ public class GameOfLifeManager extends AbstractCellManager<GameOfLifeCell> {
         return cell.isStable(getNeighbors(position));
     }
 
+    /**
+     * Each cell's next state depends only on the current states of its neighbors
+     */
+    @Override
+    protected boolean isOrderIndependent () {
+        return true;
+    }
+
+    /**
+     * A cell whose own state and neighbors' states did not change keeps its state
+     */
+    @Override
+    protected boolean changesOnlyNearChanges () {
+        return true;
+    }
+
     @Override
     protected GameOfLifeCell createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(GameOfLifeState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(GameOfLifeState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 
@@ -3,7 +3,7 @@ package simulation_managers;
 import java.util.List;
 import cellsociety_team08.Configuration;
 import cellsociety_team08.SimulationException;
-import javafx.scene.paint.Color;
+import states.CellColor;
 import states.IState;
 
 
@@ -40,15 +40,84 @@ public interface ICellManager {
      */
     boolean areAllCellsStable ();
 
+    /**
+     * @return number of cells whose state changed in the last call to updateAllCells, counted
+     *         during the update so that checking for the end of a simulation costs no extra pass
+     */
+    int getNumChangedCells ();
+
+    /**
+     * @return whether a step that changes no cell's state ends the simulation. Models that keep
+     *         changing without their states changing return false, and are only ended once
+     *         areAllCellsStable holds
+     */
+    boolean endsWhenUnchanged ();
+
+    /**
+     * Lists the cells whose color changed in the last call to updateAllCells, so that a display
+     * can repaint only those. The list is only valid until the next states are calculated again
+     *
+     * @param changedCells buffer for the row-major indices (x * maxY + y) of the changed cells
+     * @return number of indices written, or -1 if more cells changed than fit in the buffer or
+     *         the model does not list its changes, in which case every cell should be repainted
+     */
+    int getChangedCells (int[] changedCells);
+
     /**
      * @return a high-level picture of the state representation for every cell in the model
      */
     List<List<IState>> getAllStates ();
 
+    /**
+     * @return every state a cell of this model can be in, in the order counted by countStates
+     */
+    IState[] getStates ();
+
+    /**
+     * Counts the cells in each state without creating a picture of every cell's state, so that
+     * the counts can be taken every time the model is drawn
+     *
+     * @param stateCounts buffer with room for every state given by getStates, filled with the
+     *        number of cells in each of those states
+     */
+    void countStates (int[] stateCounts);
+
     /**
      * @return a specific color representation of every cell in the model
      */
-    List<List<Color>> getAllCellColors ();
+    List<List<CellColor>> getAllCellColors ();
+
+    /**
+     * Fills a buffer with the color of every cell packed as an ARGB int, by row-major index, so
+     * that a display can be redrawn without creating a color per cell
+     *
+     * @param colors buffer with room for every cell
+     */
+    void fillCellColors (int[] colors);
+
+    /**
+     * Fills in the ARGB colors of only the given cells, e.g. those listed by getChangedCells
+     *
+     * @param colors buffer with room for every cell
+     * @param cells row-major indices of the cells whose colors are filled in
+     * @param numCells number of indices in cells
+     */
+    void fillCellColors (int[] colors, int[] cells, int numCells);
+
+    /**
+     * @param index row-major index (x * maxY + y) of a cell
+     * @return color representation of the cell
+     */
+    CellColor getCellColor (int index);
+
+    /**
+     * Reads the color of a single cell without creating a color, so that a display can sample
+     * any region of the grid without a buffer with room for every cell
+     *
+     * @param index row-major index (x * maxY + y) of a cell
+     * @return ARGB color of the cell, the same as fillCellColors gives it
+     */
+    int getCellArgb (int index);
 
     /**
      * @return number of rows in the model
@@ -59,4 +128,10 @@ public interface ICellManager {
      * @return number of columns in the model
      */
     int getMaxY ();
+
+    /**
+     * Releases the threads the model steps on, if it has any. The model must not be stepped
+     * after it is closed
+     */
+    void close ();
 }
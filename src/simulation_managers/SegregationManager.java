@@ -1,16 +1,23 @@
 package simulation_managers;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
 import grid_displays.Position;
+import grids.IndexPool;
+import grids.NeighborTable;
+import simulation_cells.RandomStreams;
 import simulation_cells.SegregationCell;
 import states.SegregationState;
 
 
 /**
- * Manager for the back-end model of a Segregation simulation
+ * Manager for the back-end model of a Segregation simulation. Keeps count of the neighbors of
+ * every cell in each state, along with the empty cells and the dissatisfied agents, so that each
+ * generation only visits the agents that will move and the cells they move to
  *
  * @author David Maydew
  *
@@ -18,8 +25,17 @@ import states.SegregationState;
 public class SegregationManager extends AbstractCellManager<SegregationCell> {
     private static final String THRESHOLD_KEY = "threshold";
     private static final double DEFAULT_THRESHOLD = 0.5;
+    private static final int NUM_STATES = SegregationState.values().length;
 
-    private Set<SegregationCell> myEmptyCells;
+    private NeighborTable myAffectedTable;
+    // number of neighbors of each cell in each state, NUM_STATES entries per cell
+    private byte[] myNeighborCounts;
+    private IndexPool myEmptyCells;
+    private IndexPool myDissatisfiedCells;
+    private int[] myProposedEmptyCells;
+    // source index of each move this generation in the high half, target index in the low half
+    private long[] myMoves;
+    private AtomicInteger myNumMoves = new AtomicInteger();
 
     @Override
     protected SegregationCell createNewCell (Integer initialStateNum,
@@ -39,56 +55,229 @@ public class SegregationManager extends AbstractCellManager<SegregationCell> {
     }
 
     /**
-     * Includes necessary preparation for a Segregation next state calculation, such as finding the
-     * active empty cells
+     * Initializes the grid, then counts the neighbors of every cell and finds the empty cells and
+     * the dissatisfied agents. After that they are kept up to date as agents move
      */
     @Override
-    protected void prepareForNextStateCalc () {
-        calcAndSetEmptyCells();
+    public void initialize (Configuration config) throws SimulationException {
+        super.initialize(config);
+        myAffectedTable = getNeighborTable().transpose();
+        myNeighborCounts = new byte[getNumCells() * NUM_STATES];
+        myEmptyCells = new IndexPool(getNumCells());
+        myDissatisfiedCells = new IndexPool(getNumCells());
+        myProposedEmptyCells = new int[getNumCells()];
+        myMoves = new long[getNumCells()];
+        NeighborTable neighborTable = getNeighborTable();
+        for (int index = 0; index < getNumCells(); index++) {
+            for (int position = neighborTable.getStart(index);
+                 position < neighborTable.getEnd(index); position++) {
+                int neighborIndex = neighborTable.getNeighborIndex(position);
+                myNeighborCounts[index * NUM_STATES + stateOf(neighborIndex).ordinal()]++;
+            }
+            if (stateOf(index) == SegregationState.EMPTY) {
+                myEmptyCells.add(index);
+            }
+            checkSatisfaction(index);
+        }
     }
 
+    /**
+     * Only dissatisfied agents can move, and they only move to empty cells
+     */
     @Override
-    protected void calculateNextState (SegregationCell cell, Position position) {
-        Set<SegregationCell> neighbors = getNeighbors(position);
-        cell.calculateNextState(neighbors, getEmptyCells());
+    protected boolean schedulesOwnCells () {
+        return true;
     }
 
     /**
-     * Includes necessary preparation for a Segregation stability check, such as finding the active
-     * empty cells
+     * Schedules every dissatisfied agent, unless there is no empty cell for any of them to move to
      */
     @Override
-    protected void prepareForStableCheck () {
-        calcAndSetEmptyCells();
+    protected int scheduleCellsToCalculate (int[] cells) {
+        if (myEmptyCells.size() == 0) {
+            return 0;
+        }
+        for (int i = 0; i < myDissatisfiedCells.size(); i++) {
+            cells[i] = myDissatisfiedCells.get(i);
+        }
+        Arrays.sort(cells, 0, myDissatisfiedCells.size());
+        return myDissatisfiedCells.size();
+    }
+
+    /**
+     * Adds the empty cells that agents are moving to
+     */
+    @Override
+    protected int scheduleCellsToUpdate (int[] cells, int numCalculated) {
+        int numMoves = myNumMoves.get();
+        for (int i = 0; i < numMoves; i++) {
+            cells[numCalculated + i] = (int)myMoves[i];
+        }
+        return numCalculated + numMoves;
+    }
+
+    @Override
+    protected void calculateNextState (SegregationCell cell, Position position) {
+        int index = indexOf(position);
+        cell.calculateNextState(!myDissatisfiedCells.contains(index), () -> takeEmptyCell(index));
     }
 
     @Override
     protected boolean isCellStable (SegregationCell cell, Position position) {
-        Set<SegregationCell> neighbors = getNeighbors(position);
-        return cell.isStable(neighbors, getEmptyCells());
+        return !myDissatisfiedCells.contains(indexOf(position)) || myEmptyCells.size() == 0;
+    }
+
+    /**
+     * @return whether no agent will move, because none is dissatisfied or there is nowhere to go
+     */
+    @Override
+    public boolean areAllCellsStable () {
+        return myDissatisfiedCells.size() == 0 || myEmptyCells.size() == 0;
+    }
+
+    /**
+     * Cells only swap with the empty cell they propose
+     */
+    @Override
+    protected boolean supportsClaims () {
+        return true;
     }
 
     /**
-     * Finds all of the currently empty cells in preparation for their (simultaneous) use during the
-     * next state calculations
+     * Proposes a random cell out of every cell that was empty at the start of this generation.
+     * The empty cells are not changed until the generation is over, since cells propose
+     * concurrently
      */
-    private void calcAndSetEmptyCells () {
-        Set<SegregationCell> emptyCells = new HashSet<SegregationCell>();
-        for (SegregationCell segCell : getAllCells()) {
-            if (segCell.getState() == SegregationState.EMPTY) {
-                emptyCells.add(segCell);
+    @Override
+    protected List<SegregationCell> proposeTargets (SegregationCell cell, Position position) {
+        int index = indexOf(position);
+        return cell.proposeTargets(!myDissatisfiedCells.contains(index), () -> {
+            if (myEmptyCells.size() == 0) {
+                return null;
+            }
+            int emptyIndex = myEmptyCells.get(RandomStreams.current().nextInt(myEmptyCells.size()));
+            myProposedEmptyCells[index] = emptyIndex;
+            return getCell(emptyIndex);
+        });
+    }
+
+    @Override
+    protected void calculateClaimedNextState (SegregationCell cell,
+                                              Position position,
+                                              List<SegregationCell> targets) {
+        int index = indexOf(position);
+        cell.calculateNextState(!myDissatisfiedCells.contains(index), () -> {
+            if (targets.isEmpty()) {
+                return null;
             }
+            recordMove(index, myProposedEmptyCells[index]);
+            return targets.get(0);
+        });
+    }
+
+    /**
+     * Moves the empty cells that agents filled this generation out of the pool, and the cells
+     * they left into it, then updates the neighbor counts around every move and checks again
+     * whether the agents there are satisfied. Moves are applied in order of the cells they came
+     * from, however they were recorded, so that the pools end up in the same order for any number
+     * of threads
+     */
+    @Override
+    protected void finishUpdate () {
+        int numMoves = myNumMoves.getAndSet(0);
+        Arrays.sort(myMoves, 0, numMoves);
+        for (int i = 0; i < numMoves; i++) {
+            int source = (int)(myMoves[i] >>> Integer.SIZE);
+            int target = (int)myMoves[i];
+            myEmptyCells.remove(target);
+            myEmptyCells.add(source);
+            SegregationState agent = stateOf(target);
+            countChange(source, agent, SegregationState.EMPTY);
+            countChange(target, SegregationState.EMPTY, agent);
+        }
+        for (int i = 0; i < numMoves; i++) {
+            checkSatisfactionAround((int)(myMoves[i] >>> Integer.SIZE));
+            checkSatisfactionAround((int)myMoves[i]);
+        }
+    }
+
+    /**
+     * Updates the neighbor counts of every cell that has the given cell as a neighbor
+     *
+     * @param index of the cell that changed
+     * @param previousState the state the cell changed from
+     * @param state the state the cell changed to
+     */
+    private void countChange (int index, SegregationState previousState, SegregationState state) {
+        for (int position = myAffectedTable.getStart(index);
+             position < myAffectedTable.getEnd(index); position++) {
+            int affectedIndex = myAffectedTable.getNeighborIndex(position);
+            myNeighborCounts[affectedIndex * NUM_STATES + previousState.ordinal()]--;
+            myNeighborCounts[affectedIndex * NUM_STATES + state.ordinal()]++;
+        }
+    }
+
+    /**
+     * Checks whether the agents in the given cell and in every cell that has it as a neighbor are
+     * satisfied
+     */
+    private void checkSatisfactionAround (int index) {
+        checkSatisfaction(index);
+        for (int position = myAffectedTable.getStart(index);
+             position < myAffectedTable.getEnd(index); position++) {
+            checkSatisfaction(myAffectedTable.getNeighborIndex(position));
         }
-        myEmptyCells = emptyCells;
     }
 
-    private Set<SegregationCell> getEmptyCells () {
-        return myEmptyCells;
+    /**
+     * Adds the cell to the dissatisfied agents if it holds an agent that is not satisfied with
+     * its neighbor counts, and removes it otherwise
+     */
+    private void checkSatisfaction (int index) {
+        SegregationState state = stateOf(index);
+        int offset = index * NUM_STATES;
+        int nonEmptyNeighbors = getNeighborTable().getNumNeighbors(index) -
+                                myNeighborCounts[offset + SegregationState.EMPTY.ordinal()];
+        if (state != SegregationState.EMPTY &&
+            !getCell(index).isSatisfied(myNeighborCounts[offset + state.ordinal()],
+                                        nonEmptyNeighbors)) {
+            myDissatisfiedCells.add(index);
+        }
+        else {
+            myDissatisfiedCells.remove(index);
+        }
+    }
+
+    private SegregationState stateOf (int index) {
+        return (SegregationState)getCell(index).getState();
+    }
+
+    /**
+     * Takes a random empty cell out of the pool for the agent at the given index to move to
+     *
+     * @return the empty cell, or null if none is left this generation
+     */
+    private SegregationCell takeEmptyCell (int index) {
+        if (myEmptyCells.size() == 0) {
+            return null;
+        }
+        int emptyIndex = myEmptyCells.get(RandomStreams.current().nextInt(myEmptyCells.size()));
+        myEmptyCells.remove(emptyIndex);
+        recordMove(index, emptyIndex);
+        return getCell(emptyIndex);
+    }
+
+    /**
+     * Records that the agent at the source index moves to the target index this generation. Safe
+     * to call from several threads at once
+     */
+    private void recordMove (int source, int target) {
+        myMoves[myNumMoves.getAndIncrement()] = (long)source << Integer.SIZE | target;
     }
 
     @Override
     protected SegregationCell createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(SegregationState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(SegregationState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 }
@@ -0,0 +1,184 @@
+package simulation_managers;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import simulation_cells.AdvancedAgentInfo;
+import simulation_cells.RandomStreams;
+
+
+/**
+ * Manager for a SugarscapeAdvanced simulation, stored as planes and an agent table by
+ * SugarscapeArrayManager, with extra columns for the age, max age, gender and initial sugar of
+ * each agent. Agents follow the same rules as in SugarscapeAdvancedManager
+ *
+ * @author David Maydew
+ *
+ */
+public class SugarscapeAdvancedArrayManager extends SugarscapeArrayManager {
+    private int myFertileLower;
+    private int myFertileUpper;
+    // draws the attributes of each newborn agent, in the same way as AdvancedAgentInfo does
+    private AdvancedAgentInfo myNewbornInfo;
+    private int[] myAges = new int[0];
+    private int[] myMaxAges = new int[0];
+    private byte[] myGenders = new byte[0];
+    private int[] myInitialSugar = new int[0];
+
+    /**
+     * Also creates the info used for newborn agents, before the random streams are entered, so
+     * that it does not use up the stream of the starting cells
+     */
+    @Override
+    protected void readParameters (Map<String, Number> parameters) {
+        myFertileLower = SugarscapeAdvancedManager.getFertileLower(parameters);
+        myFertileUpper = SugarscapeAdvancedManager.getFertileUpper(parameters);
+        myNewbornInfo = new AdvancedAgentInfo(myFertileLower, myFertileUpper);
+    }
+
+    @Override
+    protected int createInitialAgent (int index, boolean isAgent) {
+        AdvancedAgentInfo info = new AdvancedAgentInfo(myFertileLower, myFertileUpper);
+        if (!isAgent) {
+            return NONE;
+        }
+        int agent = addAgent(index, info.getSugar(), info.getVision(), info.getSugarMetabolism());
+        setAdvancedAttributes(agent, info);
+        return agent;
+    }
+
+    private void setAdvancedAttributes (int agent, AdvancedAgentInfo info) {
+        myAges[agent] = info.getAge();
+        myMaxAges[agent] = info.getMaxAge();
+        myGenders[agent] = (byte)info.getGender().ordinal();
+        myInitialSugar[agent] = info.getInitialSugar();
+    }
+
+    @Override
+    protected void resizeAgentTable (int capacity) {
+        super.resizeAgentTable(capacity);
+        myAges = Arrays.copyOf(myAges, capacity);
+        myMaxAges = Arrays.copyOf(myMaxAges, capacity);
+        myGenders = Arrays.copyOf(myGenders, capacity);
+        myInitialSugar = Arrays.copyOf(myInitialSugar, capacity);
+    }
+
+    @Override
+    protected void copyAgent (int from, int to) {
+        super.copyAgent(from, to);
+        myAges[to] = myAges[from];
+        myMaxAges[to] = myMaxAges[from];
+        myGenders[to] = myGenders[from];
+        myInitialSugar[to] = myInitialSugar[from];
+    }
+
+    /**
+     * Same rules as SugarscapeCellAdvanced: an agent that is too old or has run out of sugar
+     * dies, and any other ages a turn, then reproduces if it is fertile and can see a fertile
+     * partner of the other gender and an open cell, or otherwise moves as a basic agent does
+     */
+    @Override
+    protected void calculateAgent (int agent, int index) {
+        if (myAges[agent] > myMaxAges[agent] || getAgentSugar(agent) < 0) {
+            removeAgent(agent, index);
+            return;
+        }
+        myAges[agent]++;
+        int numNeighbors = findNeighbors(index, getVision(agent));
+        if (isFertile(agent) && chooseMate(agent, numNeighbors, null) != NONE &&
+            chooseOpenNeighbor(numNeighbors, null) != NONE) {
+            reproduce(agent, numNeighbors);
+        }
+        else {
+            moveAgent(agent, index, numNeighbors);
+        }
+    }
+
+    /**
+     * Has the agent and a random one of its partners each give up half of their initial sugar
+     * and eat the sugar of their own cells, then places their child in a random open neighbor
+     */
+    private void reproduce (int agent, int numNeighbors) {
+        SplittableRandom random = RandomStreams.current();
+        int mate = chooseMate(agent, numNeighbors, random);
+        becomeParent(agent);
+        becomeParent(mate);
+        int childCell = chooseOpenNeighbor(numNeighbors, random);
+        occupy(childCell);
+        myNewbornInfo.resetAdvancedAgentInfo();
+        int child = addAgent(childCell, myNewbornInfo.getSugar(),
+                             myNewbornInfo.reproductionRule(getVision(agent), getVision(mate)),
+                             myNewbornInfo.reproductionRule(getMetabolism(agent),
+                                                            getMetabolism(mate)));
+        setAdvancedAttributes(child, myNewbornInfo);
+    }
+
+    private void becomeParent (int agent) {
+        int index = getAgentCell(agent);
+        occupy(index);
+        setAgentSugar(agent, myInitialSugar[agent] / 2);
+        eat(agent, index);
+        burnMetabolism(agent);
+    }
+
+    /**
+     * @param random to choose between several partners by reservoir sampling, in the same way as
+     *        Cell.getRandomElement, or null to take the first one without drawing from a stream
+     * @return a partner out of the first numNeighbors in the neighbor buffer, or NONE if there is
+     *         none
+     */
+    private int chooseMate (int agent, int numNeighbors, SplittableRandom random) {
+        int chosen = NONE;
+        int numMatches = 0;
+        for (int i = 0; i < numNeighbors; i++) {
+            int mate = getWaitingAgent(getNeighbor(i));
+            if (mate != NONE && canReproduceWith(agent, mate)) {
+                if (random == null) {
+                    return mate;
+                }
+                if (random.nextInt(++numMatches) == 0) {
+                    chosen = mate;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * @param random to choose between several open cells by reservoir sampling, in the same way
+     *        as Cell.getRandomElement, or null to take the first one without drawing from a stream
+     * @return an open cell out of the first numNeighbors in the neighbor buffer, or NONE if there
+     *         is none
+     */
+    private int chooseOpenNeighbor (int numNeighbors, SplittableRandom random) {
+        int chosen = NONE;
+        int numMatches = 0;
+        for (int i = 0; i < numNeighbors; i++) {
+            int neighbor = getNeighbor(i);
+            if (isOpen(neighbor)) {
+                if (random == null) {
+                    return neighbor;
+                }
+                if (random.nextInt(++numMatches) == 0) {
+                    chosen = neighbor;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Same as AdvancedAgentInfo.canReproduceWith
+     */
+    private boolean canReproduceWith (int agent, int mate) {
+        return isFertile(agent) && isFertile(mate) && myGenders[agent] != myGenders[mate];
+    }
+
+    /**
+     * Same as AdvancedAgentInfo.isFertile
+     */
+    private boolean isFertile (int agent) {
+        return myAges[agent] <= myFertileUpper && myAges[agent] >= myFertileLower &&
+               getAgentSugar(agent) >= myInitialSugar[agent];
+    }
+}
@@ -2,8 +2,8 @@ package simulation_managers;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import grid_displays.Position;
+import simulation_cells.RandomStreams;
 import simulation_cells.SugarscapeCellAdvanced;
 import states.SugarscapeState;
 
@@ -30,7 +30,7 @@ public class SugarscapeAdvancedManager extends AbstractCellManager<SugarscapeCel
                                           fertileUpper);
     }
 
-    private int getFertileLower (Map<String, Number> parameters) {
+    static int getFertileLower (Map<String, Number> parameters) {
         if (parameters.containsKey(FERTILE_LOWER_KEY)) {
             return parameters.get(FERTILE_LOWER_KEY).intValue();
         }
@@ -39,7 +39,7 @@ public class SugarscapeAdvancedManager extends AbstractCellManager<SugarscapeCel
         }
     }
 
-    private int getFertileUpper (Map<String, Number> parameters) {
+    static int getFertileUpper (Map<String, Number> parameters) {
         if (parameters.containsKey(FERTILE_UPPER_KEY)) {
             return parameters.get(FERTILE_UPPER_KEY).intValue();
         }
@@ -48,7 +48,7 @@ public class SugarscapeAdvancedManager extends AbstractCellManager<SugarscapeCel
         }
     }
 
-    private int getSugarGrowBack (Map<String, Number> parameters) {
+    static int getSugarGrowBack (Map<String, Number> parameters) {
         if (parameters.containsKey(SUGAR_GROW_BACK_KEY)) {
             return parameters.get(SUGAR_GROW_BACK_KEY).intValue();
         }
@@ -57,7 +57,7 @@ public class SugarscapeAdvancedManager extends AbstractCellManager<SugarscapeCel
         }
     }
 
-    private int getMaxSugar (Map<String, Number> parameters) {
+    static int getMaxSugar (Map<String, Number> parameters) {
         if (parameters.containsKey(MAX_SUGAR_KEY)) {
             return parameters.get(MAX_SUGAR_KEY).intValue();
         }
@@ -80,9 +80,48 @@ public class SugarscapeAdvancedManager extends AbstractCellManager<SugarscapeCel
         return cell.isStable(neighbors);
     }
 
+    /**
+     * Agents only move to, mate with or place a child on the cells they propose, and patches only
+     * change themselves
+     */
+    @Override
+    protected boolean supportsClaims () {
+        return true;
+    }
+
+    /**
+     * Patches are shaded by their sugar, which grows back without the state changing
+     */
+    @Override
+    protected boolean isColorOfState () {
+        return false;
+    }
+
+    /**
+     * Sugar grows back without any state changing, so the run only ends once isCellStable holds
+     */
+    @Override
+    public boolean endsWhenUnchanged () {
+        return false;
+    }
+
+    @Override
+    protected List<SugarscapeCellAdvanced> proposeTargets (SugarscapeCellAdvanced cell,
+                                                           Position position) {
+        int vision = cell.getAdvancedAgentInfo().getVision();
+        return cell.proposeTargets(getOrderedNeighbors(position, vision));
+    }
+
+    @Override
+    protected void calculateClaimedNextState (SugarscapeCellAdvanced cell,
+                                              Position position,
+                                              List<SugarscapeCellAdvanced> targets) {
+        cell.calculateNextState(targets);
+    }
+
     @Override
     protected SugarscapeCellAdvanced createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(SugarscapeState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(SugarscapeState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 
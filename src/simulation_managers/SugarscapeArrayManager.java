@@ -0,0 +1,576 @@
+package simulation_managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import grids.GridTopology;
+import simulation_cells.RandomStreams;
+import simulation_cells.SugarscapeCell;
+import states.CellColor;
+import states.ColorPalette;
+import states.IState;
+import states.SugarscapeState;
+
+
+/**
+ * Manager for a Sugarscape simulation that stores the landscape as primitive planes indexed by
+ * cell (sugar, max sugar and growback) and the agents in a table of their own, indexed by agent,
+ * instead of giving every cell a PatchInfo and an agent info object. Each generation grows the
+ * sugar of every cell in one pass, then lets the agents act in order of their cells, each
+ * partition of cells drawing from its own random stream as in AbstractCellManager. A cell that
+ * agents act on before its own turn sees the sugar it had before growing, as if it had not had
+ * its turn yet. Takes the same parameters and GridEdge and NumNeighborsConsidered styles as the
+ * cell based managers, steps cells in order as they do in the Serial step mode, and draws the
+ * same random numbers, so that both engines give identical runs from the same seed
+ *
+ * Subclasses give the rules for what an agent does on its turn
+ *
+ * @author David Maydew
+ *
+ */
+public abstract class SugarscapeArrayManager implements ICellManager {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    protected static final byte PATCH = (byte)SugarscapeState.PATCH.ordinal();
+    protected static final byte AGENT = (byte)SugarscapeState.AGENT.ordinal();
+    // stands for no agent, or no cell
+    protected static final int NONE = -1;
+
+    private static final int CELLS_PER_PARTITION = RandomStreams.CELLS_PER_PARTITION;
+    private static final byte NOT_CALCULATED = -1;
+    private static final int INITIAL_AGENT_CAPACITY = 16;
+    private static final SugarscapeState[] STATES = SugarscapeState.values();
+    private static final int[] PALETTE = ColorPalette.ofStates(STATES);
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    private int myMaxX;
+    private int myMaxY;
+    private boolean myToroidal;
+    private int myNumNeighborsConsidered;
+    // lists neighbors in the same order as CellGrid, so that both engines sample neighbors alike
+    private GridTopology myTopology;
+    private RandomStreams myRandomStreams;
+    private long myNumPasses;
+    private byte[] myStates;
+    private byte[] myNextStates;
+    private int[] mySugar;
+    private int[] myMaxSugar;
+    private int[] myGrowBack;
+    // sugar of each cell before it grew this generation
+    private int[] myUngrownSugar;
+    private boolean mySugarGrown;
+    // index of the cell whose turn it is; cells after it have not had their turn yet
+    private int myTurn;
+    // agent in each cell, or NONE
+    private int[] myAgents;
+    private int myNumAgents;
+    // cell of each agent, which is the cell it is moving to once it has acted, or NONE once it
+    // has died
+    private int[] myAgentCells = new int[0];
+    private int[] myAgentSugar = new int[0];
+    private int[] myVisions = new int[0];
+    private int[] myMetabolisms = new int[0];
+    private int[] myNeighbors = new int[0];
+    private int myNumChangedCells;
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        readStyle(config);
+        readParameters(config.getParametersMap());
+        resizeAgentTable(INITIAL_AGENT_CAPACITY);
+        myRandomStreams = RandomStreams.fromParameters(config.getParametersMap());
+        myRandomStreams.enter(myNumPasses++, 0);
+        if (!config.isRandomStates()) {
+            List<List<Integer>> initialStates = config.getInitialStates();
+            createGrid(initialStates.size(), initialStates.get(0).size(),
+                       config.getParametersMap());
+            for (int x = 0; x < myMaxX; x++) {
+                List<Integer> stateRow = initialStates.get(x);
+                for (int y = 0; y < myMaxY; y++) {
+                    setInitialState(x * myMaxY + y, toState(stateRow.get(y)));
+                }
+            }
+        }
+        else {
+            createGrid(config.getRandomWidth(), config.getRandomHeight(),
+                       config.getParametersMap());
+            for (int index = 0; index < myStates.length; index++) {
+                setInitialState(index, (byte)RandomStreams.current().nextInt(STATES.length));
+            }
+        }
+    }
+
+    private void readStyle (Configuration config) {
+        myToroidal = GridTopology.isToroidalEdge(config.getStyle("GridEdge"));
+        myNumNeighborsConsidered = Integer.parseInt(config.getStyle("NumNeighborsConsidered"));
+    }
+
+    /**
+     * Reads the parameters of the agent rules, before any cell is created
+     */
+    protected abstract void readParameters (Map<String, Number> parameters);
+
+    private byte toState (Integer initialStateNum) throws SimulationException {
+        if (initialStateNum < 0 || initialStateNum >= STATES.length) {
+            throw new SimulationException(myErrorResources.getString("InvalidInitialState"));
+        }
+        return initialStateNum.byteValue();
+    }
+
+    /**
+     * Creates the planes of a landscape on which every cell starts at its max sugar, as in
+     * PatchInfo
+     */
+    private void createGrid (int maxX, int maxY, Map<String, Number> parameters) {
+        myMaxX = maxX;
+        myMaxY = maxY;
+        myTopology = new GridTopology(maxX, maxY, myToroidal, myNumNeighborsConsidered);
+        myStates = new byte[maxX * maxY];
+        myNextStates = new byte[myStates.length];
+        Arrays.fill(myNextStates, NOT_CALCULATED);
+        myMaxSugar = new int[myStates.length];
+        Arrays.fill(myMaxSugar, SugarscapeBasicManager.getMaxSugar(parameters));
+        myGrowBack = new int[myStates.length];
+        Arrays.fill(myGrowBack, SugarscapeBasicManager.getSugarGrowBack(parameters));
+        mySugar = Arrays.copyOf(myMaxSugar, myMaxSugar.length);
+        myUngrownSugar = new int[myStates.length];
+        myAgents = new int[myStates.length];
+        Arrays.fill(myAgents, NONE);
+    }
+
+    private void setInitialState (int index, byte state) {
+        myStates[index] = state;
+        int agent = createInitialAgent(index, state == AGENT);
+        if (agent != NONE) {
+            myAgents[index] = agent;
+        }
+    }
+
+    /**
+     * Draws the attributes of the agent the cell based managers would create in the given cell,
+     * which they do for every cell, agent or not, so that both engines use up the random stream
+     * alike
+     *
+     * @param index of the cell
+     * @param isAgent whether the cell starts with an agent, which should be added to the table
+     * @return the added agent, or NONE
+     */
+    protected abstract int createInitialAgent (int index, boolean isAgent);
+
+    /**
+     * Adds an agent to the end of the table, growing it if it is full. The agent takes its place
+     * on the grid in the next update
+     *
+     * @return the new agent
+     */
+    protected int addAgent (int index, int sugar, int vision, int metabolism) {
+        if (myNumAgents == myAgentCells.length) {
+            resizeAgentTable(myNumAgents * 2);
+        }
+        int agent = myNumAgents++;
+        myAgentCells[agent] = index;
+        myAgentSugar[agent] = sugar;
+        myVisions[agent] = vision;
+        myMetabolisms[agent] = metabolism;
+        return agent;
+    }
+
+    /**
+     * Resizes every column of the agent table. Subclasses with columns of their own should
+     * resize them too
+     */
+    protected void resizeAgentTable (int capacity) {
+        myAgentCells = Arrays.copyOf(myAgentCells, capacity);
+        myAgentSugar = Arrays.copyOf(myAgentSugar, capacity);
+        myVisions = Arrays.copyOf(myVisions, capacity);
+        myMetabolisms = Arrays.copyOf(myMetabolisms, capacity);
+    }
+
+    /**
+     * Copies one row of the agent table over another, as the table is compacted. Subclasses with
+     * columns of their own should copy them too
+     */
+    protected void copyAgent (int from, int to) {
+        myAgentCells[to] = myAgentCells[from];
+        myAgentSugar[to] = myAgentSugar[from];
+        myVisions[to] = myVisions[from];
+        myMetabolisms[to] = myMetabolisms[from];
+    }
+
+    @Override
+    public void updateAllCells () {
+        calculateAllNextStates();
+        // the cell based managers use up a pass updating the cells
+        myNumPasses++;
+        int changedCells = 0;
+        for (int index = 0; index < myStates.length; index++) {
+            byte nextState = myNextStates[index];
+            if (nextState != NOT_CALCULATED && nextState != myStates[index]) {
+                changedCells++;
+                myStates[index] = nextState;
+                myAgents[index] = NONE;
+            }
+            myNextStates[index] = NOT_CALCULATED;
+        }
+        myNumChangedCells = changedCells;
+        mySugarGrown = false;
+        placeAgents();
+    }
+
+    /**
+     * Compacts the agent table down to the agents still alive, keeping their order, and puts
+     * each of them in the cell it moved to
+     */
+    private void placeAgents () {
+        int numAlive = 0;
+        for (int agent = 0; agent < myNumAgents; agent++) {
+            if (myAgentCells[agent] != NONE) {
+                copyAgent(agent, numAlive);
+                myAgents[myAgentCells[numAlive]] = numAlive;
+                numAlive++;
+            }
+        }
+        myNumAgents = numAlive;
+    }
+
+    /**
+     * Grows the sugar of every cell, then gives every agent that has not been acted on yet its
+     * turn, in order of their cells
+     */
+    @Override
+    public void calculateAllNextStates () {
+        long pass = myNumPasses++;
+        growSugar();
+        int partition = -1;
+        for (int index = 0; index < myStates.length; index++) {
+            if (myStates[index] != AGENT || myNextStates[index] != NOT_CALCULATED) {
+                continue;
+            }
+            if (index / CELLS_PER_PARTITION != partition) {
+                partition = index / CELLS_PER_PARTITION;
+                myRandomStreams.enter(pass, partition);
+            }
+            myTurn = index;
+            calculateAgent(myAgents[index], index);
+        }
+    }
+
+    /**
+     * Adds the growback of every cell to its sugar, up to its max sugar, once a generation,
+     * keeping the sugar it had before. The loop only reads and writes the planes at the same
+     * index, so that the JIT compiler can vectorize it
+     */
+    private void growSugar () {
+        if (mySugarGrown) {
+            return;
+        }
+        mySugarGrown = true;
+        for (int index = 0; index < mySugar.length; index++) {
+            myUngrownSugar[index] = mySugar[index];
+            mySugar[index] = Math.min(mySugar[index] + myGrowBack[index], myMaxSugar[index]);
+        }
+    }
+
+    /**
+     * Same rules as SugarscapeCellBasic: an agent that has run out of sugar dies, and any other
+     * moves to the open neighbor with the most sugar it can see, or stays put if there is none
+     *
+     * @param agent whose turn it is
+     * @param index of the cell the agent is in
+     */
+    protected void calculateAgent (int agent, int index) {
+        if (myAgentSugar[agent] < 0) {
+            removeAgent(agent, index);
+            return;
+        }
+        moveAgent(agent, index, findNeighbors(index, myVisions[agent]));
+    }
+
+    /**
+     * Moves the agent to the neighbor with the most sugar out of the first numNeighbors in the
+     * neighbor buffer, eating that sugar and burning its metabolism, or leaves it where it is to
+     * eat the sugar of its own cell if none of them is open
+     */
+    protected void moveAgent (int agent, int index, int numNeighbors) {
+        int target = findOpenNeighborWithMaxSugar(numNeighbors);
+        if (target == NONE) {
+            myNextStates[index] = AGENT;
+            eat(agent, index);
+            return;
+        }
+        myNextStates[index] = PATCH;
+        occupy(target);
+        myAgentCells[agent] = target;
+        eat(agent, target);
+        burnMetabolism(agent);
+    }
+
+    /**
+     * Takes the agent off the grid; it is dropped from the table in the next update
+     */
+    protected void removeAgent (int agent, int index) {
+        myNextStates[index] = PATCH;
+        myAgentCells[agent] = NONE;
+    }
+
+    /**
+     * Adds all of the sugar of the given cell to the agent
+     */
+    protected void eat (int agent, int index) {
+        myAgentSugar[agent] += mySugar[index];
+        mySugar[index] = 0;
+    }
+
+    protected void burnMetabolism (int agent) {
+        myAgentSugar[agent] -= myMetabolisms[agent];
+    }
+
+    /**
+     * @return a random one of the open neighbors with the most sugar, as chosen by
+     *         SugarscapeCell.findOpenNeighborWithMaxSugar, or NONE if there is none
+     */
+    private int findOpenNeighborWithMaxSugar (int numNeighbors) {
+        SplittableRandom random = RandomStreams.current();
+        int chosen = NONE;
+        int maxSugar = 0;
+        int numTies = 0;
+        for (int i = 0; i < numNeighbors; i++) {
+            int neighbor = myNeighbors[i];
+            if (!isOpen(neighbor)) {
+                continue;
+            }
+            int sugar = getSugar(neighbor);
+            if (chosen == NONE || sugar > maxSugar) {
+                chosen = neighbor;
+                maxSugar = sugar;
+                numTies = 1;
+            }
+            else if (sugar == maxSugar && random.nextInt(++numTies) == 0) {
+                chosen = neighbor;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * @return whether an agent can move into the cell, because it is vacant and no agent has
+     *         moved into it this generation, as in SugarscapeCell.isEligibleOpen
+     */
+    protected boolean isOpen (int index) {
+        return myStates[index] == PATCH &&
+               (myNextStates[index] == NOT_CALCULATED || myNextStates[index] == PATCH);
+    }
+
+    /**
+     * @return the agent in the cell, if it has not had its turn or been acted on yet this
+     *         generation, otherwise NONE
+     */
+    protected int getWaitingAgent (int index) {
+        if (myStates[index] == AGENT && myNextStates[index] == NOT_CALCULATED) {
+            return myAgents[index];
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the sugar of the cell as an agent taking its turn sees it, which is from before
+     *         growing if the cell has not had its turn yet
+     */
+    private int getSugar (int index) {
+        return index > myTurn ? myUngrownSugar[index] : mySugar[index];
+    }
+
+    /**
+     * Marks the cell as holding an agent next generation. A cell that has not had its turn yet
+     * never gets it, so it does not grow this generation
+     */
+    protected void occupy (int index) {
+        if (index > myTurn) {
+            mySugar[index] = myUngrownSugar[index];
+        }
+        myNextStates[index] = AGENT;
+    }
+
+    /**
+     * Fills the neighbor buffer with the cells an agent with the given vision can see, in the
+     * order CellGrid lists them for the same range. Cells reached twice on a small toroidal grid
+     * are listed twice, as in CellGrid
+     *
+     * @return number of neighbors found
+     */
+    protected int findNeighbors (int index, int vision) {
+        int maxNeighbors = myTopology.getNumNeighborsConsidered() * vision;
+        if (myNeighbors.length < maxNeighbors) {
+            myNeighbors = new int[maxNeighbors];
+        }
+        return myTopology.fillNeighbors(index / myMaxY, index % myMaxY, vision, false,
+                                        myNeighbors);
+    }
+
+    /**
+     * @return the i-th cell in the neighbor buffer
+     */
+    protected int getNeighbor (int i) {
+        return myNeighbors[i];
+    }
+
+    protected int getAgentSugar (int agent) {
+        return myAgentSugar[agent];
+    }
+
+    protected void setAgentSugar (int agent, int sugar) {
+        myAgentSugar[agent] = sugar;
+    }
+
+    protected int getVision (int agent) {
+        return myVisions[agent];
+    }
+
+    protected int getMetabolism (int agent) {
+        return myMetabolisms[agent];
+    }
+
+    protected int getAgentCell (int agent) {
+        return myAgentCells[agent];
+    }
+
+    /**
+     * Gives every agent that has not been acted on its turn, as a stability check does in the
+     * cell based managers, and keeps the results for the next update
+     */
+    @Override
+    public boolean areAllCellsStable () {
+        growSugar();
+        myRandomStreams.enter(myNumPasses++, 0);
+        boolean allStable = true;
+        for (int index = 0; index < myStates.length; index++) {
+            myTurn = index;
+            if (getWaitingAgent(index) != NONE) {
+                calculateAgent(myAgents[index], index);
+            }
+            allStable &= myNextStates[index] == NOT_CALCULATED ||
+                         myNextStates[index] == myStates[index];
+        }
+        return allStable;
+    }
+
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    /**
+     * Same as the cell based managers, whose sugar grows back without any state changing
+     */
+    @Override
+    public boolean endsWhenUnchanged () {
+        return false;
+    }
+
+    /**
+     * Patches are shaded by their sugar, which grows back without the state changing, so changes
+     * are not listed
+     */
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        return -1;
+    }
+
+    @Override
+    public List<List<IState>> getAllStates () {
+        List<List<IState>> allStates = new ArrayList<List<IState>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<IState> stateRow = new ArrayList<IState>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                stateRow.add(STATES[myStates[x * myMaxY + y]]);
+            }
+            allStates.add(stateRow);
+        }
+        return allStates;
+    }
+
+    @Override
+    public IState[] getStates () {
+        return STATES.clone();
+    }
+
+    @Override
+    public void countStates (int[] stateCounts) {
+        Arrays.fill(stateCounts, 0);
+        for (int index = 0; index < myStates.length; index++) {
+            stateCounts[myStates[index]]++;
+        }
+    }
+
+    @Override
+    public List<List<CellColor>> getAllCellColors () {
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                paintRow.add(getCellColor(x * myMaxY + y));
+            }
+            paints.add(paintRow);
+        }
+        return paints;
+    }
+
+    /**
+     * Colors agents as SugarscapeCell does, and shades vacant cells by their fraction of their
+     * max sugar
+     */
+    @Override
+    public CellColor getCellColor (int index) {
+        if (myStates[index] == AGENT) {
+            return SugarscapeState.AGENT.getColor();
+        }
+        return new CellColor(0, 1.0, 0, mySugar[index] * 1.0 / myMaxSugar[index]);
+    }
+
+    @Override
+    public void fillCellColors (int[] colors) {
+        for (int index = 0; index < colors.length; index++) {
+            colors[index] = getCellArgb(index);
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = getCellArgb(index);
+        }
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        if (myStates[index] == AGENT) {
+            return PALETTE[AGENT];
+        }
+        return SugarscapeCell.toPatchArgb(mySugar[index], myMaxSugar[index]);
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    /**
+     * Steps on the calling thread, so has no threads to release
+     */
+    @Override
+    public void close () {
+    }
+}
@@ -0,0 +1,28 @@
+package simulation_managers;
+
+import java.util.Map;
+import simulation_cells.BasicAgentInfo;
+
+
+/**
+ * Manager for a SugarscapeBasic simulation, stored as planes and an agent table by
+ * SugarscapeArrayManager. Agents follow the same rules as in SugarscapeBasicManager
+ *
+ * @author David Maydew
+ *
+ */
+public class SugarscapeBasicArrayManager extends SugarscapeArrayManager {
+
+    @Override
+    protected void readParameters (Map<String, Number> parameters) {
+    }
+
+    @Override
+    protected int createInitialAgent (int index, boolean isAgent) {
+        BasicAgentInfo info = new BasicAgentInfo();
+        if (!isAgent) {
+            return NONE;
+        }
+        return addAgent(index, info.getSugar(), info.getVision(), info.getSugarMetabolism());
+    }
+}
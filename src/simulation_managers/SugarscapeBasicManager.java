@@ -2,8 +2,8 @@ package simulation_managers;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import grid_displays.Position;
+import simulation_cells.RandomStreams;
 import simulation_cells.SugarscapeCellBasic;
 import states.SugarscapeState;
 
@@ -23,7 +23,7 @@ public class SugarscapeBasicManager extends AbstractCellManager<SugarscapeCellBa
         return new SugarscapeCellBasic(initialState, maxSugar, sugarGrowBack);
     }
 
-    private int getSugarGrowBack (Map<String, Number> parameters) {
+    static int getSugarGrowBack (Map<String, Number> parameters) {
         if (parameters.containsKey(SUGAR_GROW_BACK_KEY)) {
             return parameters.get(SUGAR_GROW_BACK_KEY).intValue();
         }
@@ -32,7 +32,7 @@ public class SugarscapeBasicManager extends AbstractCellManager<SugarscapeCellBa
         }
     }
 
-    private int getMaxSugar (Map<String, Number> parameters) {
+    static int getMaxSugar (Map<String, Number> parameters) {
         if (parameters.containsKey(MAX_SUGAR_KEY)) {
             return parameters.get(MAX_SUGAR_KEY).intValue();
         }
@@ -55,9 +55,48 @@ public class SugarscapeBasicManager extends AbstractCellManager<SugarscapeCellBa
         return cell.isStable(neighbors);
     }
 
+    /**
+     * Agents only move to, mate with or place a child on the cells they propose, and patches only
+     * change themselves
+     */
+    @Override
+    protected boolean supportsClaims () {
+        return true;
+    }
+
+    /**
+     * Patches are shaded by their sugar, which grows back without the state changing
+     */
+    @Override
+    protected boolean isColorOfState () {
+        return false;
+    }
+
+    /**
+     * Sugar grows back without any state changing, so the run only ends once isCellStable holds
+     */
+    @Override
+    public boolean endsWhenUnchanged () {
+        return false;
+    }
+
+    @Override
+    protected List<SugarscapeCellBasic> proposeTargets (SugarscapeCellBasic cell,
+                                                        Position position) {
+        int vision = cell.getAgentInfo().getVision();
+        return cell.proposeTargets(getOrderedNeighbors(position, vision));
+    }
+
+    @Override
+    protected void calculateClaimedNextState (SugarscapeCellBasic cell,
+                                              Position position,
+                                              List<SugarscapeCellBasic> targets) {
+        cell.calculateNextState(targets);
+    }
+
     @Override
     protected SugarscapeCellBasic createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(SugarscapeState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(SugarscapeState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 
@@ -0,0 +1,426 @@
+package simulation_managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+import cellsociety_team08.Configuration;
+import cellsociety_team08.SimulationException;
+import grids.GridTopology;
+import simulation_cells.RandomStreams;
+import states.CellColor;
+import states.ColorPalette;
+import states.IState;
+import states.WatorState;
+
+
+/**
+ * Manager for a Wa-Tor simulation that stores the grid as parallel primitive arrays indexed by
+ * cell (a state byte, a breed counter and a starve counter) instead of a WatorCell with prey and
+ * predator objects, and finds neighbors arithmetically instead of through a neighbor table. Takes
+ * the same parameters and GridEdge and NumNeighborsConsidered styles as WatorManager, steps cells
+ * in order as it does in the Serial step mode, and draws the same random numbers, so that both
+ * engines give identical runs from the same seed
+ *
+ * @author David Maydew
+ *
+ */
+public class WatorArrayManager implements ICellManager {
+    public static final String DEFAULT_RESOURCE_PACKAGE = "resources/";
+
+    private static final int CELLS_PER_PARTITION = RandomStreams.CELLS_PER_PARTITION;
+    private static final byte NOT_CALCULATED = -1;
+    private static final byte EMPTY = (byte)WatorState.EMPTY.ordinal();
+    private static final byte PREDATOR = (byte)WatorState.PREDATOR.ordinal();
+    private static final byte PREY = (byte)WatorState.PREY.ordinal();
+    private static final WatorState[] STATES = WatorState.values();
+    private static final int[] PALETTE = ColorPalette.ofStates(STATES);
+
+    private ResourceBundle myErrorResources =
+            ResourceBundle.getBundle(DEFAULT_RESOURCE_PACKAGE + "error");
+
+    private int myMaxX;
+    private int myMaxY;
+    private boolean myToroidal;
+    private int myNumNeighborsConsidered;
+    // lists neighbors in the same order as CellGrid, so that both engines sample neighbors alike
+    private GridTopology myTopology;
+    private short myPreyBreedTime;
+    private short myPredatorBreedTime;
+    private short myStarveTime;
+    private RandomStreams myRandomStreams;
+    private long myNumPasses;
+    private byte[] myStates;
+    private byte[] myNextStates;
+    // turns until the creature in each cell breeds, which can go below 0 while it is stuck
+    private short[] myBreedTurns;
+    // turns since the predator in each cell last ate
+    private short[] myStarveTurns;
+    private int[] myNeighbors;
+    private int[] myChangedCellList;
+    private int myNumChangedCells;
+
+    @Override
+    public void initialize (Configuration config) throws SimulationException {
+        readStyle(config);
+        readParameters(config.getParametersMap());
+        myRandomStreams = RandomStreams.fromParameters(config.getParametersMap());
+        SplittableRandom random = myRandomStreams.stream(myNumPasses++, 0);
+        if (!config.isRandomStates()) {
+            List<List<Integer>> initialStates = config.getInitialStates();
+            createGrid(initialStates.size(), initialStates.get(0).size());
+            for (int x = 0; x < myMaxX; x++) {
+                List<Integer> stateRow = initialStates.get(x);
+                for (int y = 0; y < myMaxY; y++) {
+                    setInitialState(x * myMaxY + y, toState(stateRow.get(y)));
+                }
+            }
+        }
+        else {
+            createGrid(config.getRandomWidth(), config.getRandomHeight());
+            for (int index = 0; index < myStates.length; index++) {
+                setInitialState(index, (byte)random.nextInt(STATES.length));
+            }
+        }
+    }
+
+    private void readStyle (Configuration config) {
+        myToroidal = GridTopology.isToroidalEdge(config.getStyle("GridEdge"));
+        myNumNeighborsConsidered = Integer.parseInt(config.getStyle("NumNeighborsConsidered"));
+    }
+
+    private void readParameters (Map<String, Number> parameters) throws SimulationException {
+        myPreyBreedTime = toTurns(WatorManager.getParameter(WatorManager.PREYBREED_KEY, parameters,
+                                                            WatorManager.DEFAULT_PREYBREED));
+        myPredatorBreedTime =
+                toTurns(WatorManager.getParameter(WatorManager.PREDATORBREED_KEY, parameters,
+                                                  WatorManager.DEFAULT_PREDATORBREED));
+        myStarveTime = toTurns(WatorManager.getParameter(WatorManager.STARVE_KEY, parameters,
+                                                         WatorManager.DEFAULT_STARVE));
+    }
+
+    /**
+     * @throws SimulationException if the number of turns does not fit in a counter
+     */
+    private short toTurns (int turns) throws SimulationException {
+        if (turns < 0 || turns > Short.MAX_VALUE) {
+            throw new SimulationException(myErrorResources.getString("InvalidParameter"));
+        }
+        return (short)turns;
+    }
+
+    private byte toState (Integer initialStateNum) throws SimulationException {
+        if (initialStateNum < 0 || initialStateNum >= STATES.length) {
+            throw new SimulationException(myErrorResources.getString("InvalidInitialState"));
+        }
+        return initialStateNum.byteValue();
+    }
+
+    private void createGrid (int maxX, int maxY) {
+        myMaxX = maxX;
+        myMaxY = maxY;
+        myTopology = new GridTopology(maxX, maxY, myToroidal, myNumNeighborsConsidered);
+        myNeighbors = new int[myTopology.getNumNeighborsConsidered()];
+        myStates = new byte[maxX * maxY];
+        myNextStates = new byte[myStates.length];
+        myBreedTurns = new short[myStates.length];
+        myStarveTurns = new short[myStates.length];
+        myChangedCellList = new int[myStates.length];
+        Arrays.fill(myNextStates, NOT_CALCULATED);
+    }
+
+    /**
+     * Prey start ready to breed, and predators start a full breed time away from it, as in
+     * PreyInfo and PredatorInfo
+     */
+    private void setInitialState (int index, byte state) {
+        myStates[index] = state;
+        myBreedTurns[index] = state == PREDATOR ? myPredatorBreedTime : 0;
+    }
+
+    @Override
+    public void updateAllCells () {
+        calculateAllNextStates();
+        myNumPasses++;
+        int changedCells = 0;
+        for (int index = 0; index < myStates.length; index++) {
+            if (myNextStates[index] != myStates[index]) {
+                myChangedCellList[changedCells++] = index;
+            }
+            myStates[index] = myNextStates[index];
+            myNextStates[index] = NOT_CALCULATED;
+        }
+        myNumChangedCells = changedCells;
+    }
+
+    /**
+     * Calculates the next state of every cell in order, each partition of cells drawing from its
+     * own random stream as in AbstractCellManager
+     */
+    @Override
+    public void calculateAllNextStates () {
+        long pass = myNumPasses++;
+        SplittableRandom random = null;
+        int index = 0;
+        for (int x = 0; x < myMaxX; x++) {
+            for (int y = 0; y < myMaxY; y++, index++) {
+                if (index % CELLS_PER_PARTITION == 0) {
+                    random = myRandomStreams.stream(pass, index / CELLS_PER_PARTITION);
+                }
+                calculateNextState(index, x, y, random);
+            }
+        }
+    }
+
+    /**
+     * Calculates the next states of any cells that have not been calculated yet, as a stability
+     * check does in WatorManager, and keeps them for the next update
+     */
+    @Override
+    public boolean areAllCellsStable () {
+        SplittableRandom random = myRandomStreams.stream(myNumPasses++, 0);
+        boolean allStable = true;
+        int index = 0;
+        for (int x = 0; x < myMaxX; x++) {
+            for (int y = 0; y < myMaxY; y++, index++) {
+                calculateNextState(index, x, y, random);
+                allStable &= myStates[index] == myNextStates[index];
+            }
+        }
+        return allStable;
+    }
+
+    /**
+     * Same rules as WatorCell.calculateNextState
+     */
+    private void calculateNextState (int index, int x, int y, SplittableRandom random) {
+        if (myNextStates[index] != NOT_CALCULATED) {
+            return;
+        }
+        if (myStates[index] == EMPTY) {
+            myNextStates[index] = EMPTY;
+        }
+        else if (myStates[index] == PREY) {
+            calculatePrey(index, findNeighbors(x, y), random);
+        }
+        else {
+            calculatePredator(index, findNeighbors(x, y), random);
+        }
+    }
+
+    private void calculatePrey (int index, int numNeighbors, SplittableRandom random) {
+        int emptyCell = chooseNeighbor(EMPTY, numNeighbors, random);
+        if (emptyCell < 0) {
+            decrementBreedTurns(index);
+            myNextStates[index] = PREY;
+            return;
+        }
+        if (myBreedTurns[index] <= 0) {
+            myBreedTurns[index] = myPreyBreedTime;
+            myNextStates[index] = PREY;
+        }
+        else {
+            decrementBreedTurns(index);
+            myNextStates[index] = EMPTY;
+        }
+        myNextStates[emptyCell] = PREY;
+        copyCounters(index, emptyCell);
+    }
+
+    private void calculatePredator (int index, int numNeighbors, SplittableRandom random) {
+        if (myStarveTurns[index] == myStarveTime) {
+            myNextStates[index] = EMPTY;
+            return;
+        }
+        int preyCell = chooseNeighbor(PREY, numNeighbors, random);
+        if (preyCell >= 0) {
+            myNextStates[index] = PREDATOR;
+            myNextStates[preyCell] = EMPTY;
+            myStarveTurns[index] = 0;
+            int emptyCell = -1;
+            if (myBreedTurns[index] <= 0) {
+                emptyCell = chooseNeighbor(EMPTY, numNeighbors, random);
+            }
+            if (emptyCell >= 0) {
+                myNextStates[emptyCell] = PREDATOR;
+                myBreedTurns[emptyCell] = myPredatorBreedTime;
+                myStarveTurns[emptyCell] = 0;
+                myBreedTurns[index] = myPredatorBreedTime;
+            }
+            else {
+                decrementBreedTurns(index);
+            }
+            myStarveTurns[index]++;
+            return;
+        }
+        int emptyCell = chooseNeighbor(EMPTY, numNeighbors, random);
+        if (emptyCell < 0) {
+            decrementBreedTurns(index);
+            myStarveTurns[index]++;
+            myNextStates[index] = PREDATOR;
+        }
+        else if (myBreedTurns[index] <= 0) {
+            myNextStates[emptyCell] = PREDATOR;
+            myBreedTurns[index] = myPredatorBreedTime;
+            myStarveTurns[index]++;
+            copyCounters(index, emptyCell);
+            myStarveTurns[index] = 0;
+            myNextStates[index] = PREDATOR;
+        }
+        else {
+            myNextStates[emptyCell] = PREDATOR;
+            decrementBreedTurns(index);
+            myStarveTurns[index]++;
+            copyCounters(index, emptyCell);
+            myNextStates[index] = EMPTY;
+        }
+    }
+
+    /**
+     * Counts down to breeding, stopping at the lowest value a counter holds; only whether the
+     * count has reached 0 matters once it has
+     */
+    private void decrementBreedTurns (int index) {
+        if (myBreedTurns[index] > Short.MIN_VALUE) {
+            myBreedTurns[index]--;
+        }
+    }
+
+    private void copyCounters (int from, int to) {
+        myBreedTurns[to] = myBreedTurns[from];
+        myStarveTurns[to] = myStarveTurns[from];
+    }
+
+    /**
+     * Chooses one of the eligible neighbors in the given state at random, by reservoir sampling
+     * in the same way as Cell.getRandomElement. A neighbor is eligible while it has not been
+     * calculated yet, and an empty neighbor also while it is going to stay empty
+     *
+     * @return index of the chosen neighbor, or -1 if there is none
+     */
+    private int chooseNeighbor (byte state, int numNeighbors, SplittableRandom random) {
+        int chosen = -1;
+        int numMatches = 0;
+        for (int i = 0; i < numNeighbors; i++) {
+            int neighbor = myNeighbors[i];
+            byte nextState = myNextStates[neighbor];
+            if (myStates[neighbor] == state &&
+                (nextState == NOT_CALCULATED || (state == EMPTY && nextState == EMPTY)) &&
+                random.nextInt(++numMatches) == 0) {
+                chosen = neighbor;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Fills the neighbor buffer with the neighbors of a cell, leaving out any listed already
+     *
+     * @return number of neighbors found
+     */
+    private int findNeighbors (int x, int y) {
+        return myTopology.fillNeighbors(x, y, 1, true, myNeighbors);
+    }
+
+    @Override
+    public int getNumChangedCells () {
+        return myNumChangedCells;
+    }
+
+    @Override
+    public boolean endsWhenUnchanged () {
+        return true;
+    }
+
+    @Override
+    public int getChangedCells (int[] changedCells) {
+        if (myNumChangedCells > changedCells.length) {
+            return -1;
+        }
+        System.arraycopy(myChangedCellList, 0, changedCells, 0, myNumChangedCells);
+        return myNumChangedCells;
+    }
+
+    @Override
+    public List<List<IState>> getAllStates () {
+        List<List<IState>> allStates = new ArrayList<List<IState>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<IState> stateRow = new ArrayList<IState>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                stateRow.add(STATES[myStates[x * myMaxY + y]]);
+            }
+            allStates.add(stateRow);
+        }
+        return allStates;
+    }
+
+    @Override
+    public IState[] getStates () {
+        return STATES.clone();
+    }
+
+    @Override
+    public void countStates (int[] stateCounts) {
+        Arrays.fill(stateCounts, 0);
+        for (int index = 0; index < myStates.length; index++) {
+            stateCounts[myStates[index]]++;
+        }
+    }
+
+    @Override
+    public List<List<CellColor>> getAllCellColors () {
+        List<List<CellColor>> paints = new ArrayList<List<CellColor>>(myMaxX);
+        for (int x = 0; x < myMaxX; x++) {
+            List<CellColor> paintRow = new ArrayList<CellColor>(myMaxY);
+            for (int y = 0; y < myMaxY; y++) {
+                paintRow.add(STATES[myStates[x * myMaxY + y]].getColor());
+            }
+            paints.add(paintRow);
+        }
+        return paints;
+    }
+
+    @Override
+    public CellColor getCellColor (int index) {
+        return STATES[myStates[index]].getColor();
+    }
+
+    @Override
+    public int getCellArgb (int index) {
+        return PALETTE[myStates[index]];
+    }
+
+    @Override
+    public void fillCellColors (int[] colors) {
+        for (int index = 0; index < colors.length; index++) {
+            colors[index] = PALETTE[myStates[index]];
+        }
+    }
+
+    @Override
+    public void fillCellColors (int[] colors, int[] cells, int numCells) {
+        for (int i = 0; i < numCells; i++) {
+            int index = cells[i];
+            colors[index] = PALETTE[myStates[index]];
+        }
+    }
+
+    @Override
+    public int getMaxX () {
+        return myMaxX;
+    }
+
+    @Override
+    public int getMaxY () {
+        return myMaxY;
+    }
+
+    /**
+     * Steps on the calling thread, so has no threads to release
+     */
+    @Override
+    public void close () {
+    }
+}
@@ -1,9 +1,10 @@
 package simulation_managers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.Set;
 import grid_displays.Position;
+import simulation_cells.RandomStreams;
 import simulation_cells.WatorCell;
 import states.WatorState;
 
@@ -15,12 +16,12 @@ import states.WatorState;
  *
  */
 public class WatorManager extends AbstractCellManager<WatorCell> {
-    private static final String PREYBREED_KEY = "preyBreedTime";
-    private static final String PREDATORBREED_KEY = "predatorBreedTime";
-    private static final String STARVE_KEY = "starveTime";
-    private static final int DEFAULT_PREYBREED = 4;
-    private static final int DEFAULT_PREDATORBREED = 5;
-    private static final int DEFAULT_STARVE = 4;
+    static final String PREYBREED_KEY = "preyBreedTime";
+    static final String PREDATORBREED_KEY = "predatorBreedTime";
+    static final String STARVE_KEY = "starveTime";
+    static final int DEFAULT_PREYBREED = 4;
+    static final int DEFAULT_PREDATORBREED = 5;
+    static final int DEFAULT_STARVE = 4;
 
     @Override
     protected WatorCell createNewCell (Integer initialStateNum, Map<String, Number> parameters) {
@@ -31,7 +32,7 @@ public class WatorManager extends AbstractCellManager<WatorCell> {
         return new WatorCell(initialState, preyBreedTime, predatorBreedTime, starveTime);
     }
 
-    private int getParameter (String key, Map<String, Number> parameters, int defaultValue) {
+    static int getParameter (String key, Map<String, Number> parameters, int defaultValue) {
         if (parameters.containsKey(key)) {
             return parameters.get(key).intValue();
         }
@@ -42,19 +43,44 @@ public class WatorManager extends AbstractCellManager<WatorCell> {
 
     @Override
     protected void calculateNextState (WatorCell cell, Position position) {
-        Set<WatorCell> neighbors = getNeighbors(position);
+        List<WatorCell> neighbors = getNeighbors(position);
         cell.calculateNextState(neighbors);
     }
 
     @Override
     protected boolean isCellStable (WatorCell cell, Position position) {
-        Set<WatorCell> neighbors = getNeighbors(position);
+        List<WatorCell> neighbors = getNeighbors(position);
         return cell.isStable(neighbors);
     }
 
+    /**
+     * Creatures propose all of their neighbors, since they read and change them, so stepping with
+     * claims matches calculating cells in a random order. Empty cells do not affect anyone, so
+     * they wait until every creature is done
+     */
+    @Override
+    protected boolean supportsClaims () {
+        return true;
+    }
+
+    @Override
+    protected List<WatorCell> proposeTargets (WatorCell cell, Position position) {
+        if (cell.getState() == WatorState.EMPTY) {
+            return null;
+        }
+        return new ArrayList<WatorCell>(getNeighbors(position));
+    }
+
+    @Override
+    protected void calculateClaimedNextState (WatorCell cell,
+                                              Position position,
+                                              List<WatorCell> targets) {
+        cell.calculateNextState(targets);
+    }
+
     @Override
     protected WatorCell createNewCell (Map<String, Number> parametersMap) {
-        int randomStateNum = new Random().nextInt(WatorState.values().length);
+        int randomStateNum = RandomStreams.current().nextInt(WatorState.values().length);
         return createNewCell(randomStateNum, parametersMap);
     }
 }
@@ -0,0 +1,98 @@
+package states;
+
+/**
+ * Color of a cell as red, green, blue and opacity components between 0 and 1. Lets the model
+ * describe how its cells look without depending on a user interface toolkit
+ *
+ * @author David Maydew
+ *
+ */
+public final class CellColor {
+    private static final double RGB_MAX = 255.0;
+
+    public static final CellColor WHITE = rgb(255, 255, 255);
+    public static final CellColor BLACK = rgb(0, 0, 0);
+    public static final CellColor RED = rgb(255, 0, 0);
+    public static final CellColor GREEN = rgb(0, 128, 0);
+    public static final CellColor BLUE = rgb(0, 0, 255);
+    public static final CellColor YELLOW = rgb(255, 255, 0);
+    public static final CellColor ORANGE = rgb(255, 165, 0);
+
+    private final double myRed;
+    private final double myGreen;
+    private final double myBlue;
+    private final double myOpacity;
+    private final int myArgb;
+
+    /**
+     * @throws IllegalArgumentException if any component is outside of the range 0 to 1
+     */
+    public CellColor (double red, double green, double blue, double opacity) {
+        myRed = checkComponent(red);
+        myGreen = checkComponent(green);
+        myBlue = checkComponent(blue);
+        myOpacity = checkComponent(opacity);
+        myArgb = toByte(myOpacity) << 24 | toByte(myRed) << 16 | toByte(myGreen) << 8 |
+                 toByte(myBlue);
+    }
+
+    /**
+     * @return opaque color with the given components between 0 and 255
+     */
+    public static CellColor rgb (int red, int green, int blue) {
+        return new CellColor(red / RGB_MAX, green / RGB_MAX, blue / RGB_MAX, 1.0);
+    }
+
+    private static double checkComponent (double component) {
+        if (component < 0 || component > 1) {
+            throw new IllegalArgumentException();
+        }
+        return component;
+    }
+
+    /**
+     * @return the color packed into an int as 8 bit alpha, red, green and blue components, from
+     *         the highest byte to the lowest, which is worked out once when the color is created
+     */
+    public int toArgb () {
+        return myArgb;
+    }
+
+    private static int toByte (double component) {
+        return (int)Math.round(component * RGB_MAX);
+    }
+
+    public double getRed () {
+        return myRed;
+    }
+
+    public double getGreen () {
+        return myGreen;
+    }
+
+    public double getBlue () {
+        return myBlue;
+    }
+
+    public double getOpacity () {
+        return myOpacity;
+    }
+
+    @Override
+    public boolean equals (Object other) {
+        if (!(other instanceof CellColor)) {
+            return false;
+        }
+        CellColor color = (CellColor)other;
+        return myRed == color.myRed && myGreen == color.myGreen && myBlue == color.myBlue &&
+               myOpacity == color.myOpacity;
+    }
+
+    @Override
+    public int hashCode () {
+        int hash = Double.hashCode(myRed);
+        hash = 31 * hash + Double.hashCode(myGreen);
+        hash = 31 * hash + Double.hashCode(myBlue);
+        return 31 * hash + Double.hashCode(myOpacity);
+    }
+}
@@ -0,0 +1,50 @@
+package states;
+
+/**
+ * Precomputed tables of ARGB colors, so that models can fill a display buffer without creating a
+ * CellColor for every cell: a palette with the color of each state, by ordinal, and gradients
+ * with a color at every opacity that an ARGB int can hold
+ *
+ * @author David Maydew
+ *
+ */
+public final class ColorPalette {
+    private static final int NUM_LEVELS = 256;
+
+    private ColorPalette () {
+    }
+
+    /**
+     * @param states every state of a model, in order of their ordinals
+     * @return ARGB color of each state, by ordinal
+     */
+    public static int[] ofStates (IState[] states) {
+        int[] palette = new int[states.length];
+        for (int i = 0; i < states.length; i++) {
+            palette[i] = states[i].getColor().toArgb();
+        }
+        return palette;
+    }
+
+    /**
+     * @return ARGB color with the red, green and blue components of the given color at every
+     *         opacity level, from transparent to opaque
+     */
+    public static int[] gradient (CellColor color) {
+        int[] gradient = new int[NUM_LEVELS];
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            gradient[level] = new CellColor(color.getRed(), color.getGreen(), color.getBlue(),
+                                            level / (NUM_LEVELS - 1.0)).toArgb();
+        }
+        return gradient;
+    }
+
+    /**
+     * @param gradient created by gradient
+     * @param ratio opacity between 0 and 1
+     * @return same ARGB color as a CellColor of the gradient's color with the given opacity
+     */
+    public static int shade (int[] gradient, double ratio) {
+        return gradient[(int)Math.round(ratio * (NUM_LEVELS - 1))];
+    }
+}
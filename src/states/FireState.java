@@ -1,20 +1,17 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 public enum FireState implements IState {
-                                         EMPTY(Color.YELLOW),
-                                         TREE(Color.GREEN),
-                                         BURNING(Color.RED);
-    private final Color myPaint;
+                                         EMPTY(CellColor.YELLOW),
+                                         TREE(CellColor.GREEN),
+                                         BURNING(CellColor.RED);
+    private final CellColor myPaint;
 
-    FireState (Color paint) {
+    FireState (CellColor paint) {
         myPaint = paint;
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         return myPaint;
     }
 }
@@ -1,22 +1,19 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 public enum ForagingAntState implements IState {
-                                                ANT(Color.RED),
-                                                PHEROMONE(Color.WHITE),
-                                                FOODSOURCE(Color.GREEN),
-                                                NEST(Color.YELLOW);
+                                                ANT(CellColor.RED),
+                                                PHEROMONE(CellColor.WHITE),
+                                                FOODSOURCE(CellColor.GREEN),
+                                                NEST(CellColor.YELLOW);
 
-    private final Color myPaint;
+    private final CellColor myPaint;
 
-    ForagingAntState (Color paint) {
+    ForagingAntState (CellColor paint) {
         myPaint = paint;
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         return myPaint;
     }
 
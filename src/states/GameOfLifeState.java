@@ -1,19 +1,16 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 public enum GameOfLifeState implements IState {
-                                               DEAD(Color.WHITE),
-                                               ALIVE(Color.BLACK);
-    private final Color myPaint;
+                                               DEAD(CellColor.WHITE),
+                                               ALIVE(CellColor.BLACK);
+    private final CellColor myPaint;
 
-    GameOfLifeState (Color paint) {
+    GameOfLifeState (CellColor paint) {
         myPaint = paint;
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         return myPaint;
     }
 }
@@ -1,8 +1,5 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 /**
  * Represents one of the various states that any cell could take on, and specifies that a color be
  * associated with each state
@@ -12,5 +9,5 @@ import javafx.scene.paint.Color;
  */
 public interface IState {
 
-    Color getColor ();
+    CellColor getColor ();
 }
@@ -1,21 +1,18 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 public enum SegregationState implements IState {
-                                                EMPTY(Color.WHITE),
-                                                X(Color.BLUE),
-                                                O(Color.RED);
+                                                EMPTY(CellColor.WHITE),
+                                                X(CellColor.BLUE),
+                                                O(CellColor.RED);
 
-    private final Color myPaint;
+    private final CellColor myPaint;
 
-    SegregationState (Color paint) {
+    SegregationState (CellColor paint) {
         myPaint = paint;
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         return myPaint;
     }
 }
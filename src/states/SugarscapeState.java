@@ -1,19 +1,16 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 public enum SugarscapeState implements IState {
-                                               PATCH(Color.WHITE),
-                                               AGENT(Color.RED);
-    private final Color myPaint;
+                                               PATCH(CellColor.WHITE),
+                                               AGENT(CellColor.RED);
+    private final CellColor myPaint;
 
-    SugarscapeState (Color paint) {
+    SugarscapeState (CellColor paint) {
         myPaint = paint;
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         return myPaint;
     }
 }
@@ -1,20 +1,17 @@
 package states;
 
-import javafx.scene.paint.Color;
-
-
 public enum WatorState implements IState {
-                                          EMPTY(Color.BLUE),
-                                          PREDATOR(Color.ORANGE),
-                                          PREY(Color.GREEN);
-    private final Color myPaint;
+                                          EMPTY(CellColor.BLUE),
+                                          PREDATOR(CellColor.ORANGE),
+                                          PREY(CellColor.GREEN);
+    private final CellColor myPaint;
 
-    WatorState (Color paint) {
+    WatorState (CellColor paint) {
         myPaint = paint;
     }
 
     @Override
-    public Color getColor () {
+    public CellColor getColor () {
         return myPaint;
     }
 